@@ -0,0 +1,628 @@
+package hangman;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Class that runs repeatable checks and benchmarks of loading words files, from the command line:
+ * <ul>
+ * <li>offheap: writes a words file several times larger than the heap (-Xmx), loads it off the heap, and checks that
+ * every word is there, that random picks give real words, and that the heap used stays small. Run it with a small
+ * heap, e.g. java -Xmx64m hangman.HangmanBenchmark offheap.</li>
+ * <li>load: times loading text of several sizes with duplicates removed, to show that load time grows linearly with
+ * the size of the file (duplicate detection used to make it quadratic).</li>
+ * <li>compressed: times reading and loading the same text plain, gzipped and zipped, and checks that all three give
+ * the same words, that the index of each is used the next time it is loaded, and that each loads off the heap.</li>
+ * <li>charsets: times tokenizing the same kind of text in several charsets, by decoding it all with a Reader and by
+ * the tokenizer's byte path, and checks that the charset is detected and both give the same words.</li>
+ * </ul>
+ * The words files are made up of random words from a fixed seed, so every run reads the same words. They are written
+ * to a temporary directory that is deleted afterwards. A check that fails prints why and exits with status 1.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanBenchmark {
+    /**
+     * Seed of the random words, so every run writes the same files.
+     */
+    private static final long SEED = 2017;
+    /**
+     * Shortest random word.
+     */
+    private static final int MINIMUM_LENGTH = 3;
+    /**
+     * Longest random word.
+     */
+    private static final int MAXIMUM_LENGTH = 12;
+    /**
+     * Number of bytes in a megabyte.
+     */
+    private static final long MEGABYTE = 1024 * 1024;
+    /**
+     * How many times larger than the heap the offheap check's file is, by default.
+     */
+    private static final int HEAP_MULTIPLE = 4;
+    /**
+     * Number of random picks the offheap check makes.
+     */
+    private static final int PICKS = 1000000;
+    /**
+     * Largest share of the heap the offheap check lets the loaded corpus use.
+     */
+    private static final double MAXIMUM_HEAP_SHARE = 0.5;
+    /**
+     * Sizes, in megabytes, of the files the load benchmark times by default.
+     */
+    private static final double[] LOAD_MEGABYTES = {0.05, 0.1, 0.2, 2, 8};
+    /**
+     * Number of distinct words of the text the benchmarks write.
+     */
+    private static final int VOCABULARY_SIZE = 50000;
+    /**
+     * Times each load is timed; the fastest is reported.
+     */
+    private static final int RUNS = 3;
+    /**
+     * Most times longer per megabyte the largest file may take to load than the second largest; a load that grows
+     * quadratically with the size of the file takes far longer.
+     */
+    private static final double MAXIMUM_SLOWDOWN = 3;
+    /**
+     * Size, in megabytes, of the text the compressed benchmark reads by default.
+     */
+    private static final int COMPRESSED_MEGABYTES = 16;
+    /**
+     * Size, in megabytes, of the text the charsets benchmark tokenizes by default, in each charset.
+     */
+    private static final int CHARSET_MEGABYTES = 8;
+    /**
+     * Lower case letters of the text the benchmarks write in ASCII.
+     */
+    private static final String ASCII_LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    /**
+     * Lower case letters of text with accented letters, which are all in ISO-8859-1.
+     */
+    private static final String ACCENTED_LETTERS = ASCII_LETTERS + "\u00e0\u00e2\u00e7\u00e8\u00e9\u00ea\u00ee\u00f4\u00f9\u00fc";
+    /**
+     * Lower case letters of Greek text.
+     */
+    private static final String GREEK_LETTERS = "\u03b1\u03b2\u03b3\u03b4\u03b5\u03b6\u03b7\u03b8\u03b9\u03ba\u03bb"
+            + "\u03bc\u03bd\u03be\u03bf\u03c0\u03c1\u03c3\u03c4\u03c5\u03c6\u03c7\u03c8\u03c9";
+    /**
+     * Directory the words files and word indexes are written to.
+     */
+    private File directory;
+
+    /**
+     * Constructor to instantiate HangmanBenchmark objects, which creates the temporary directory
+     *
+     * @throws IOException If the directory could not be created
+     */
+    public HangmanBenchmark() throws IOException {
+        directory = Files.createTempDirectory("hangman-benchmark").toFile();
+    }
+
+    /**
+     * Writes a words file of random lower case words, one per line.
+     *
+     * @param name  Name of the file in the temporary directory
+     * @param bytes Size of the file, roughly
+     * @return The number of words written
+     * @throws IOException If the file could not be written
+     */
+    private long writeWords(String name, long bytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long count = 0;
+        long written = 0;
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(directory, name)), 64 * 1024);
+        try {
+            byte[] line = new byte[MAXIMUM_LENGTH + 1];
+            while (written < bytes) {
+                int length = random.nextInt(MINIMUM_LENGTH, MAXIMUM_LENGTH + 1);
+                for (int i = 0; i < length; i++)
+                    line[i] = (byte) ('a' + random.nextInt(26));
+                line[length] = '\n';
+                out.write(line, 0, length + 1);
+                written += length + 1;
+                count++;
+            }
+        } finally {
+            out.close();
+        }
+        return count;
+    }
+
+    /**
+     * Writes a file of ASCII text made of a vocabulary of random words.
+     *
+     * @param name  Name of the file in the temporary directory
+     * @param bytes Size of the file, roughly
+     * @return The file
+     * @throws IOException If the file could not be written
+     */
+    private File writeText(String name, long bytes) throws IOException {
+        return writeText(name, bytes, ASCII_LETTERS, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes a file of text made of a vocabulary of random words, some used far more often than others as in real
+     * text, with some words capitalized as at the start of a sentence and some punctuation.
+     *
+     * @param name     Name of the file in the temporary directory
+     * @param chars    Length of the text, in characters, roughly
+     * @param alphabet Lower case letters of the words
+     * @param charset  Charset of the file
+     * @return The file
+     * @throws IOException If the file could not be written
+     */
+    private File writeText(String name, long chars, String alphabet, Charset charset) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        char[] letters = new char[MAXIMUM_LENGTH];
+        for (int w = 0; w < vocabulary.length; w++) {
+            int length = random.nextInt(1, MAXIMUM_LENGTH + 1);
+            for (int i = 0; i < length; i++)
+                letters[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            vocabulary[w] = new String(letters, 0, length);
+        }
+        File file = new File(directory, name);
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), charset), 64 * 1024);
+        try {
+            long written = 0;
+            while (written < chars) {
+                double skew = random.nextDouble();
+                String word = vocabulary[(int) (vocabulary.length * skew * skew * skew)];
+                if (random.nextInt(10) == 0)
+                    word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                String separator = random.nextInt(12) == 0 ? ". " : random.nextInt(40) == 0 ? "\n" : " ";
+                out.write(word);
+                out.write(separator);
+                written += word.length() + separator.length();
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * Checks whether a word could have been written by writeWords().
+     *
+     * @param word A word
+     * @return Whether or not the word is a random word
+     */
+    private static boolean isRandomWord(String word) {
+        if (word.length() < MINIMUM_LENGTH || word.length() > MAXIMUM_LENGTH)
+            return false;
+        for (int i = 0; i < word.length(); i++)
+            if (word.charAt(i) < 'a' || word.charAt(i) > 'z')
+                return false;
+        return true;
+    }
+
+    /**
+     * Gets the heap in use after a garbage collection.
+     *
+     * @return Bytes of heap in use
+     */
+    private static long heapUsed() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Writes a words file several times larger than the heap, loads it off the heap twice (building the index, then
+     * mapping it) and checks the words and the heap used.
+     *
+     * @param megabytes Size of the words file
+     * @return Whether or not the checks passed
+     * @throws IOException If the file could not be written or loaded
+     */
+    public boolean checkOffHeap(long megabytes) throws IOException {
+        long maximumHeap = Runtime.getRuntime().maxMemory();
+        System.out.println("Writing " + megabytes + " MB of words (heap is " + maximumHeap / MEGABYTE + " MB)");
+        long written = writeWords("offheap.txt", megabytes * MEGABYTE);
+        File file = new File(directory, "offheap.txt");
+        HangmanWordIndexCache cache = new HangmanWordIndexCache(directory.getPath());
+        boolean passed = true;
+        for (String run : new String[]{"built", "mapped"}) {
+            long start = System.nanoTime();
+            HangmanCorpus corpus = new HangmanCorpusLoader().loadOffHeap(file, cache);
+            long loadMillis = (System.nanoTime() - start) / 1000000;
+            HangmanCorpus.View view = corpus.view(1, true, true);
+            SplittableRandom random = new SplittableRandom(SEED);
+            int badPicks = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < PICKS; i++)
+                if (!isRandomWord(view.get(random.nextInt(view.size()))))
+                    badPicks++;
+            long pickMillis = (System.nanoTime() - start) / 1000000;
+            long used = heapUsed();
+            System.out.println("Index " + run + " in " + loadMillis + " ms: " + view.size() + " words, " + PICKS
+                    + " picks in " + pickMillis + " ms, " + used / MEGABYTE + " MB of heap in use");
+            if (view.size() != written) {
+                System.out.println("FAILED: " + written + " words were written but " + view.size() + " were loaded");
+                passed = false;
+            }
+            if (badPicks > 0) {
+                System.out.println("FAILED: " + badPicks + " picks were not words of the file");
+                passed = false;
+            }
+            if (used > maximumHeap * MAXIMUM_HEAP_SHARE) {
+                System.out.println("FAILED: more than " + (int) (MAXIMUM_HEAP_SHARE * 100) + "% of the heap is in use");
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Times loading text files of several sizes and picking the words of the default settings, which removes
+     * duplicates, and checks that the time grows about linearly with the size.
+     *
+     * @param megabytes Sizes of the files, in increasing order
+     * @return Whether or not the check passed
+     * @throws IOException If a file could not be written or loaded
+     */
+    public boolean benchmarkLoad(double[] megabytes) throws IOException {
+        System.out.println("Loading text with duplicates removed (best of " + RUNS + ")");
+        System.out.println("    size      time   distinct words");
+        double[] millisPerMegabyte = new double[megabytes.length];
+        for (int s = 0; s < megabytes.length; s++) {
+            File file = writeText("load-" + s + ".txt", (long) (megabytes[s] * MEGABYTE));
+            long best = Long.MAX_VALUE;
+            int distinct = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                HangmanCorpus corpus = new HangmanCorpusLoader().load(file);
+                distinct = corpus.view(HangmanGame.DEFAULT_MINIMUM_WORD_LENGTH, HangmanGame.DEFAULT_PROPER_NOUNS_SETTING,
+                        false).size();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            millisPerMegabyte[s] = best / 1e6 / megabytes[s];
+            System.out.println(String.format("%7.2f MB %6d ms %16d", megabytes[s], best / 1000000, distinct));
+        }
+        int last = megabytes.length - 1;
+        if (last > 0 && millisPerMegabyte[last] > MAXIMUM_SLOWDOWN * millisPerMegabyte[last - 1]) {
+            System.out.println("FAILED: the largest file took " + String.format("%.1f", millisPerMegabyte[last] / millisPerMegabyte[last - 1])
+                    + " times longer per megabyte than the one before it");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes a file compressed, as a .gz file or as a .zip file with it as the only entry.
+     *
+     * @param file A file
+     * @param zip  Whether to write a .zip file rather than a .gz file
+     * @return The compressed file
+     * @throws IOException If the file could not be read or the compressed file could not be written
+     */
+    private File compress(File file, boolean zip) throws IOException {
+        File compressed = new File(directory, file.getName() + (zip ? ".zip" : ".gz"));
+        OutputStream out;
+        if (zip) {
+            ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(compressed));
+            zipOut.putNextEntry(new ZipEntry(file.getName()));
+            out = zipOut;
+        } else {
+            out = new GZIPOutputStream(new FileOutputStream(compressed), 64 * 1024);
+        }
+        try {
+            Files.copy(file.toPath(), out);
+        } finally {
+            out.close();
+        }
+        return compressed;
+    }
+
+    /**
+     * Reads a stream to its end.
+     *
+     * @param in A stream, which is closed
+     * @return Number of bytes read
+     * @throws IOException If the stream could not be read
+     */
+    private static long drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                total += read;
+        } finally {
+            in.close();
+        }
+        return total;
+    }
+
+    /**
+     * Times reading text plain, gzipped and zipped: decompressing alone (on the calling thread and on the
+     * decompressing thread) and loading the words. Checks that the three files give the same words, both on the heap
+     * and off it, and that the index written for each is used when it is loaded again.
+     *
+     * @param megabytes Size of the text
+     * @return Whether or not the check passed
+     * @throws IOException If a file could not be written or loaded
+     */
+    public boolean benchmarkCompressed(double megabytes) throws IOException {
+        File plain = writeText("compressed.txt", (long) (megabytes * MEGABYTE));
+        File[] files = {plain, compress(plain, false), compress(plain, true)};
+        System.out.println("Reading " + megabytes + " MB of text (best of " + RUNS + ")");
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            drain(new GZIPInputStream(new FileInputStream(files[1]), 64 * 1024));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println("gunzip on the calling thread: " + best / 1000000 + " ms");
+        best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            drain(HangmanDecompressor.open(files[1]));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println("gunzip on the decompressing thread: " + best / 1000000 + " ms");
+
+        System.out.println("    file                 size      load");
+        HangmanCorpus.View first = null;
+        boolean passed = true;
+        for (File file : files) {
+            best = Long.MAX_VALUE;
+            HangmanCorpus.View view = null;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                view = new HangmanCorpusLoader().load(file).view(1, true, true);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.println(String.format("%-20s %7.1f MB %6d ms", file.getName(), file.length() / (double) MEGABYTE,
+                    best / 1000000));
+            if (first == null) {
+                first = view;
+            } else if (!sameWords(first, view)) {
+                System.out.println("FAILED: " + file.getName() + " gave different words than " + plain.getName());
+                passed = false;
+            }
+        }
+
+        System.out.println("    file              indexed   cached  off-heap");
+        for (File file : files) {
+            File cacheDirectory = new File(directory, "cache-" + file.getName());
+            File offHeapDirectory = new File(directory, "offheap-" + file.getName());
+            if (!cacheDirectory.mkdir() || !offHeapDirectory.mkdir())
+                throw new IOException("The cache directories for \"" + file.getName() + "\" could not be created");
+            HangmanWordIndexCache cache = new HangmanWordIndexCache(cacheDirectory.getPath());
+            long start = System.nanoTime();
+            new HangmanCorpusLoader().load(file, cache);
+            long indexedMillis = (System.nanoTime() - start) / 1000000;
+            start = System.nanoTime();
+            HangmanCorpus cached = cache.read(new HangmanWordIndexCache.Key(file));
+            long cachedMillis = (System.nanoTime() - start) / 1000000;
+            if (cached == null) {
+                System.out.println("FAILED: the index of " + file.getName() + " was not used when it was loaded again");
+                passed = false;
+            } else if (!sameWords(first, cached.view(1, true, true))) {
+                System.out.println("FAILED: the index of " + file.getName() + " gave different words than " + plain.getName());
+                passed = false;
+            }
+            long offHeapMillis = -1;
+            try {
+                start = System.nanoTime();
+                HangmanCorpus mapped = new HangmanCorpusLoader().loadOffHeap(file, new HangmanWordIndexCache(offHeapDirectory.getPath()));
+                offHeapMillis = (System.nanoTime() - start) / 1000000;
+                if (!sameWords(first, mapped.view(1, true, true))) {
+                    System.out.println("FAILED: " + file.getName() + " gave different words off the heap than " + plain.getName());
+                    passed = false;
+                }
+            } catch (IOException e) {
+                System.out.println("FAILED: " + file.getName() + " could not be loaded off the heap: " + e.getMessage());
+                passed = false;
+            }
+            System.out.println(String.format("%-20s %6d ms %6d ms %6d ms", file.getName(), indexedMillis, cachedMillis, offHeapMillis));
+        }
+        return passed;
+    }
+
+    /**
+     * Counts the words a tokenizer finds and hashes them in order, so two ways of tokenizing can be compared without
+     * keeping the words.
+     */
+    private static class WordDigest implements HangmanWordTokenizer.WordHandler {
+        /**
+         * Number of words.
+         */
+        private long count;
+        /**
+         * Hash of the words, in order.
+         */
+        private long hash;
+
+        @Override
+        public void handleWord(char[] word, int length) {
+            count++;
+            for (int i = 0; i < length; i++)
+                hash = (hash ^ word[i]) * 0x100000001b3L;
+            hash = (hash ^ 0xFFFF) * 0x100000001b3L; // ends the word, so "ab" "c" differs from "a" "bc"
+        }
+
+        /**
+         * Checks whether another digest saw the same words.
+         *
+         * @param other Another digest
+         * @return Whether or not both saw the same words
+         */
+        private boolean sameWords(WordDigest other) {
+            return count == other.count && hash == other.hash;
+        }
+    }
+
+    /**
+     * Times tokenizing text in several charsets, by decoding it all with a Reader (as every file used to be read) and
+     * by the tokenizer's byte path with the detected charset. Each charset's Reader time is printed next to its byte
+     * path time, with the byte path's time as a share of it, and a byte path more than 5% slower than the Reader is
+     * marked. Checks that the detected charset is right and that both ways give the same words.
+     *
+     * @param megabytes Length of the text in each charset, in millions of characters
+     * @return Whether or not the check passed
+     * @throws IOException If a file could not be written or read
+     */
+    public boolean benchmarkCharsets(double megabytes) throws IOException {
+        String[] names = {"ASCII", "UTF-8 accented", "UTF-8 Greek", "ISO-8859-1", "UTF-16 with BOM", "UTF-16LE"};
+        String[] alphabets = {ASCII_LETTERS, ACCENTED_LETTERS, GREEK_LETTERS, ACCENTED_LETTERS, ACCENTED_LETTERS + GREEK_LETTERS,
+                ACCENTED_LETTERS + GREEK_LETTERS};
+        Charset[] charsets = {StandardCharsets.UTF_8, StandardCharsets.UTF_8, StandardCharsets.UTF_8,
+                StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16, StandardCharsets.UTF_16LE};
+        System.out.println("Tokenizing " + megabytes + " M characters in each charset (best of " + RUNS + ")");
+        System.out.println("    text                 size    Reader      bytes  of Reader");
+        boolean passed = true;
+        for (int c = 0; c < names.length; c++) {
+            File file = writeText("charset-" + c + ".txt", (long) (megabytes * MEGABYTE), alphabets[c], charsets[c]);
+            InputStream sample = new BufferedInputStream(new FileInputStream(file), HangmanCharsetDetector.SAMPLE_SIZE);
+            Charset detected;
+            try {
+                detected = HangmanCharsetDetector.detect(sample);
+            } finally {
+                sample.close();
+            }
+            if (!detected.equals(charsets[c])) {
+                System.out.println("FAILED: " + names[c] + " was detected as " + detected);
+                passed = false;
+                continue;
+            }
+            long readerBest = Long.MAX_VALUE;
+            long bytesBest = Long.MAX_VALUE;
+            WordDigest readerWords = null;
+            WordDigest bytesWords = null;
+            for (int run = 0; run < RUNS; run++) {
+                readerWords = new WordDigest();
+                InputStream in = new FileInputStream(file);
+                long start = System.nanoTime();
+                try {
+                    new HangmanWordTokenizer().tokenize(new InputStreamReader(new BufferedInputStream(in), charsets[c]), readerWords);
+                } finally {
+                    in.close();
+                }
+                readerBest = Math.min(readerBest, System.nanoTime() - start);
+
+                bytesWords = new WordDigest();
+                in = new FileInputStream(file);
+                start = System.nanoTime();
+                try {
+                    new HangmanWordTokenizer().tokenize(in, detected, bytesWords);
+                } finally {
+                    in.close();
+                }
+                bytesBest = Math.min(bytesBest, System.nanoTime() - start);
+            }
+            System.out.println(String.format("%-18s %5.1f MB %6d ms %7d ms %9.0f%%%s", names[c],
+                    file.length() / (double) MEGABYTE, readerBest / 1000000, bytesBest / 1000000,
+                    100.0 * bytesBest / readerBest, bytesBest > readerBest * 1.05 ? "  SLOWER" : ""));
+            if (!readerWords.sameWords(bytesWords)) {
+                System.out.println("FAILED: " + names[c] + " gave different words through the byte path");
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Checks whether two views have the same words in the same order.
+     *
+     * @param first  A view
+     * @param second Another view
+     * @return Whether or not the views are the same
+     */
+    private static boolean sameWords(HangmanCorpus.View first, HangmanCorpus.View second) {
+        if (first.size() != second.size())
+            return false;
+        for (int i = 0; i < first.size(); i++)
+            if (!first.get(i).equals(second.get(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Parses sizes in megabytes.
+     *
+     * @param args  Arguments holding sizes
+     * @param first Index of the first size
+     * @param sizes Sizes to use if there are none in the arguments
+     * @return The sizes
+     */
+    private static double[] parseMegabytes(String[] args, int first, double[] sizes) {
+        if (args.length <= first)
+            return sizes;
+        double[] parsed = new double[args.length - first];
+        for (int i = first; i < args.length; i++)
+            parsed[i - first] = Double.parseDouble(args[i]);
+        return parsed;
+    }
+
+    /**
+     * Deletes the temporary directory and everything in it.
+     *
+     * @throws IOException If a file could not be deleted
+     */
+    public void delete() throws IOException {
+        Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Runs a check or benchmark.
+     *
+     * @param args The check's name, then its options
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: HangmanBenchmark offheap [megabytes] | load [megabytes...] | compressed [megabytes] | charsets [megabytes]");
+            System.exit(1);
+        }
+        boolean passed = true;
+        try {
+            HangmanBenchmark benchmark = new HangmanBenchmark();
+            try {
+                if (args[0].equals("offheap")) {
+                    long heapMegabytes = Runtime.getRuntime().maxMemory() / MEGABYTE;
+                    passed = benchmark.checkOffHeap(args.length > 1 ? Long.parseLong(args[1]) : HEAP_MULTIPLE * heapMegabytes);
+                } else if (args[0].equals("load")) {
+                    passed = benchmark.benchmarkLoad(parseMegabytes(args, 1, LOAD_MEGABYTES));
+                } else if (args[0].equals("compressed")) {
+                    passed = benchmark.benchmarkCompressed(args.length > 1 ? Double.parseDouble(args[1]) : COMPRESSED_MEGABYTES);
+                } else if (args[0].equals("charsets")) {
+                    passed = benchmark.benchmarkCharsets(args.length > 1 ? Double.parseDouble(args[1]) : CHARSET_MEGABYTES);
+                } else {
+                    System.err.println("Unknown check: " + args[0]);
+                    passed = false;
+                }
+            } finally {
+                benchmark.delete();
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,116 @@
+package hangman;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class that works out the charset of a words file from its first bytes.
+ * <p>
+ * A byte order mark decides the charset if there is one. Otherwise, text with many zero bytes at every other position
+ * is taken to be UTF-16, text that is valid UTF-8 is taken to be UTF-8 (which includes plain ASCII), and anything else
+ * is taken to be ISO-8859-1 (Latin-1), in which every byte is a character.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanCharsetDetector {
+    /**
+     * Number of bytes at the start of a file that are looked at.
+     */
+    public static final int SAMPLE_SIZE = 64 * 1024;
+
+    /**
+     * Works out the charset of a stream from its first bytes, without consuming them.
+     *
+     * @param in A stream that supports mark and reset
+     * @return The charset
+     * @throws IOException If the stream could not be read
+     */
+    public static Charset detect(InputStream in) throws IOException {
+        byte[] sample = new byte[SAMPLE_SIZE];
+        in.mark(SAMPLE_SIZE);
+        int length = 0;
+        int read;
+        while (length < sample.length && (read = in.read(sample, length, sample.length - length)) != -1)
+            length += read;
+        in.reset();
+        return detect(sample, length);
+    }
+
+    /**
+     * Works out the charset of text from its first bytes.
+     *
+     * @param sample Array holding the first bytes
+     * @param length Number of bytes
+     * @return The charset
+     */
+    public static Charset detect(byte[] sample, int length) {
+        if (length >= 3 && (sample[0] & 0xFF) == 0xEF && (sample[1] & 0xFF) == 0xBB && (sample[2] & 0xFF) == 0xBF)
+            return StandardCharsets.UTF_8;
+        if (length >= 2 && (((sample[0] & 0xFF) == 0xFE && (sample[1] & 0xFF) == 0xFF) || ((sample[0] & 0xFF) == 0xFF && (sample[1] & 0xFF) == 0xFE)))
+            return StandardCharsets.UTF_16; // decoding as UTF-16 reads the byte order mark
+
+        // text in UTF-16 without a byte order mark has a zero high byte for every ASCII character
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i + 1 < length; i += 2) {
+            if (sample[i] == 0)
+                evenZeros++;
+            if (sample[i + 1] == 0)
+                oddZeros++;
+        }
+        int pairs = length / 2;
+        if (pairs > 0 && evenZeros > pairs / 4 && oddZeros < pairs / 16)
+            return StandardCharsets.UTF_16BE;
+        if (pairs > 0 && oddZeros > pairs / 4 && evenZeros < pairs / 16)
+            return StandardCharsets.UTF_16LE;
+
+        return isUtf8(sample, length) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Checks if bytes are valid UTF-8. A character cut off at the end of the bytes is allowed, as the bytes may be the
+     * start of a longer text.
+     *
+     * @param bytes  Array holding the bytes
+     * @param length Number of bytes
+     * @return Whether or not the bytes are valid UTF-8
+     */
+    private static boolean isUtf8(byte[] bytes, int length) {
+        int i = 0;
+        while (i < length) {
+            int b = bytes[i] & 0xFF;
+            int continuation;
+            int min;
+            if (b < 0x80) {
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+                min = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+                min = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+                min = 0x10000;
+            } else {
+                return false;
+            }
+            int codePoint = b & (0x3F >> continuation);
+            for (int j = 1; j <= continuation; j++) {
+                if (i + j >= length)
+                    return true; // cut off at the end of the sample
+                int c = bytes[i + j] & 0xFF;
+                if ((c & 0xC0) != 0x80)
+                    return false;
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+            if (codePoint < min || codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF))
+                return false;
+            i += continuation + 1;
+        }
+        return true;
+    }
+}
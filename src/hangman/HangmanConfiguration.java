@@ -8,6 +8,10 @@ import java.io.Serializable;
  * @author Chami Lamelas
  */
 public class HangmanConfiguration implements Serializable {
+    /**
+     * Serialization version, fixed so configurations saved before new settings were added can still be read.
+     */
+    private static final long serialVersionUID = -8773185197103572392L;
 
     /**
      * Difficulty setting configuration property.
@@ -33,6 +37,31 @@ public class HangmanConfiguration implements Serializable {
      * File path display state
      */
     private boolean displayFilePath;
+    /**
+     * Low memory mode configuration property (false when reading configurations saved before it was added).
+     */
+    private boolean lowMemoryMode;
+    /**
+     * Watch file configuration property (false when reading configurations saved before it was added).
+     */
+    private boolean watchFile;
+    /**
+     * Off-heap storage configuration property (false when reading configurations saved before it was added).
+     */
+    private boolean offHeapStorage;
+    /**
+     * Evil mode configuration property (false when reading configurations saved before it was added).
+     */
+    private boolean evilMode;
+    /**
+     * Match word difficulty configuration property (false when reading configurations saved before it was added).
+     */
+    private boolean matchWordDifficulty;
+    /**
+     * Seed for picking words, or null to pick them differently every game (null when reading configurations saved
+     * before it was added).
+     */
+    private Long seed;
 
     /**
      * Constructor to instantiate HangmanConfiguration objects
@@ -50,6 +79,11 @@ public class HangmanConfiguration implements Serializable {
         minimumWordLength = minWordLength;
         filepath = path;
         displayFilePath = displayPath;
+        lowMemoryMode = HangmanGame.DEFAULT_LOW_MEMORY_SETTING;
+        watchFile = HangmanGame.DEFAULT_WATCH_FILE_SETTING;
+        offHeapStorage = HangmanGame.DEFAULT_OFF_HEAP_SETTING;
+        evilMode = HangmanGame.DEFAULT_EVIL_MODE_SETTING;
+        matchWordDifficulty = HangmanGame.DEFAULT_WORD_DIFFICULTY_SETTING;
     }
 
     /**
@@ -115,6 +149,115 @@ public class HangmanConfiguration implements Serializable {
         return displayFilePath;
     }
 
+    /**
+     * Gets the low memory mode configuration property
+     *
+     * @return The low memory mode configuration property
+     */
+    public boolean isLowMemoryMode() {
+        return lowMemoryMode;
+    }
+
+    /**
+     * Sets the low memory mode configuration property
+     *
+     * @param lowMemory The new low memory mode configuration property
+     */
+    public void setLowMemoryMode(boolean lowMemory) {
+        lowMemoryMode = lowMemory;
+    }
+
+    /**
+     * Gets the watch file configuration property
+     *
+     * @return The watch file configuration property
+     */
+    public boolean isWatchFile() {
+        return watchFile;
+    }
+
+    /**
+     * Sets the watch file configuration property
+     *
+     * @param watch The new watch file configuration property
+     */
+    public void setWatchFile(boolean watch) {
+        watchFile = watch;
+    }
+
+    /**
+     * Gets the off-heap storage configuration property
+     *
+     * @return The off-heap storage configuration property
+     */
+    public boolean isOffHeapStorage() {
+        return offHeapStorage;
+    }
+
+    /**
+     * Sets the off-heap storage configuration property
+     *
+     * @param offHeap The new off-heap storage configuration property
+     */
+    public void setOffHeapStorage(boolean offHeap) {
+        offHeapStorage = offHeap;
+    }
+
+    /**
+     * Gets the evil mode configuration property
+     *
+     * @return The evil mode configuration property
+     */
+    public boolean isEvilMode() {
+        return evilMode;
+    }
+
+    /**
+     * Sets the evil mode configuration property
+     *
+     * @param evil The new evil mode configuration property
+     */
+    public void setEvilMode(boolean evil) {
+        evilMode = evil;
+    }
+
+    /**
+     * Gets the match word difficulty configuration property
+     *
+     * @return The match word difficulty configuration property
+     */
+    public boolean isMatchWordDifficulty() {
+        return matchWordDifficulty;
+    }
+
+    /**
+     * Sets the match word difficulty configuration property
+     *
+     * @param match The new match word difficulty configuration property
+     */
+    public void setMatchWordDifficulty(boolean match) {
+        matchWordDifficulty = match;
+    }
+
+    /**
+     * Gets the seed for picking words
+     *
+     * @return The seed, or null if words are picked differently every game
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed for picking words. Games started with the same seed and settings pick the same words in the same
+     * order, so a game can be played again.
+     *
+     * @param randomSeed The new seed, or null to pick words differently every game
+     */
+    public void setSeed(Long randomSeed) {
+        seed = randomSeed;
+    }
+
     /**
      * Sets the configuration to default values
      */
@@ -125,5 +268,11 @@ public class HangmanConfiguration implements Serializable {
         minimumWordLength = HangmanGame.DEFAULT_MINIMUM_WORD_LENGTH;
         filepath = HangmanGame.DEFAULT_CONFIG_FILE_PATH;
         displayFilePath = HangmanGame.DEFAULT_FILE_PATH_DISPLAY_SETTING;
+        lowMemoryMode = HangmanGame.DEFAULT_LOW_MEMORY_SETTING;
+        watchFile = HangmanGame.DEFAULT_WATCH_FILE_SETTING;
+        offHeapStorage = HangmanGame.DEFAULT_OFF_HEAP_SETTING;
+        evilMode = HangmanGame.DEFAULT_EVIL_MODE_SETTING;
+        matchWordDifficulty = HangmanGame.DEFAULT_WORD_DIFFICULTY_SETTING;
+        seed = null;
     }
 }
@@ -67,6 +67,11 @@ public class HangmanConfigurationManager implements Serializable {
     public void saveUserSettings(HangmanGame g) {
         //System.out.println(g.toString());
         config = new HangmanConfiguration(g.getDifficulty(), g.isKeepDuplicates(), g.isKeepProperNouns(), g.getMinimumWordLength(), g.getFilePath(), g.isDisplayFilePath());
+        config.setLowMemoryMode(g.isLowMemoryMode());
+        config.setWatchFile(g.isWatchFile());
+        config.setOffHeapStorage(g.isOffHeapStorage());
+        config.setEvilMode(g.isEvilMode());
+        config.setMatchWordDifficulty(g.isMatchWordDifficulty());
     }
 
     /**
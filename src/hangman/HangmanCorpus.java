@@ -0,0 +1,1104 @@
+package hangman;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Class that holds every word read from a words file, indexed so that the words for any combination of the minimum
+ * word length, keep proper nouns and keep duplicates settings can be picked from without reading the file again.
+ * <p>
+ * The words are grouped by length. Within each length, they are grouped by whether they are proper nouns and whether
+ * they are the first occurrence of a word, in this order:
+ * <ol>
+ * <li>proper nouns that are the first occurrence of their word</li>
+ * <li>other words that are the first occurrence of their word</li>
+ * <li>other words that repeat a proper noun, but are the first occurrence among the words that are not proper
+ * nouns</li>
+ * <li>other words that are repeats</li>
+ * <li>proper nouns that are repeats</li>
+ * </ol>
+ * Every combination of settings then keeps a single run of groups for each length (for example, removing proper
+ * nouns and duplicates keeps groups 2 and 3), so a View of the words is just a list of ranges.
+ * <p>
+ * A word is a repeat under the same rule as Builder.containsWord(): an earlier word is the same when made
+ * all lower case, or lower case with the first letter capitalized. Which earlier words count depends on whether proper
+ * nouns are kept, which is why there are two "first occurrence" groups.
+ * <p>
+ * Each word can also have a difficulty score (see HangmanWordDifficulty), worked out for every word the first time
+ * any are needed. A View splits its words by score into HangmanWordDifficulty.BANDS bands of the same size, from the
+ * easiest words to the hardest, so a game can draw a word of its difficulty in O(1) time.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanCorpus {
+    /**
+     * Group of proper nouns that are the first occurrence of their word.
+     */
+    static final int PROPER_FIRST = 0;
+    /**
+     * Group of words that are not proper nouns and are the first occurrence of their word.
+     */
+    static final int COMMON_FIRST = 1;
+    /**
+     * Group of words that are not proper nouns and only repeat proper nouns.
+     */
+    static final int COMMON_FIRST_AMONG_COMMON = 2;
+    /**
+     * Group of words that are not proper nouns and are repeats.
+     */
+    static final int COMMON_REPEAT = 3;
+    /**
+     * Group of proper nouns that are repeats.
+     */
+    static final int PROPER_REPEAT = 4;
+    /**
+     * Number of groups within each length.
+     */
+    static final int GROUPS = 5;
+    /**
+     * Absolute path of the file the words were read from.
+     */
+    private String sourcePath;
+    /**
+     * The words, ordered by length then group.
+     */
+    private HangmanReadOnlyWordStore words;
+    /**
+     * The distinct word lengths, in increasing order.
+     */
+    private int[] lengths;
+    /**
+     * Where each group starts in words: group g of lengths[i] starts at groupStarts[i * GROUPS + g], and the last
+     * element is the number of words.
+     */
+    private int[] groupStarts;
+    /**
+     * How long each source file took to load, in milliseconds, in file order.
+     */
+    private Map<String, Long> loadTimes;
+    /**
+     * The difficulty scores of the words, or null until they are first needed.
+     */
+    private volatile HangmanWordDifficulty wordDifficulty;
+    /**
+     * The difficulty bands of each view whose bands were needed, by the view's settings.
+     */
+    private ConcurrentMap<String, int[][]> difficultyBands;
+    /**
+     * The source file as it was just before its words were read, or null if that is not known.
+     */
+    private HangmanCorpusWatcher.SourceState sourceState;
+
+    /**
+     * Constructor to instantiate HangmanCorpus objects
+     *
+     * @param path           Absolute path of the file the words were read from
+     * @param store          The words, ordered by length then group
+     * @param lengthList     The distinct word lengths, in increasing order
+     * @param groupStartList Where each group starts in the store
+     */
+    HangmanCorpus(String path, HangmanReadOnlyWordStore store, int[] lengthList, int[] groupStartList) {
+        sourcePath = path;
+        words = store;
+        lengths = lengthList;
+        groupStarts = groupStartList;
+        loadTimes = new LinkedHashMap<String, Long>();
+        difficultyBands = new ConcurrentHashMap<String, int[][]>();
+    }
+
+    /**
+     * Merges the corpora of several files into one, as if the files had been read one after another: a word is a
+     * repeat if it repeats a word of its own file or of any earlier file.
+     * <p>
+     * Each corpus already knows which of its words are first occurrences within its file. A word that is a first
+     * occurrence there is only a repeat overall if an earlier file has a word it repeats, and checking against the
+     * first occurrences of the earlier files is enough, as a repeat always has a first occurrence with the same forms.
+     *
+     * @param path    Path the merged corpus is read from
+     * @param corpora The corpora of the files, in order
+     * @return The merged corpus
+     * @throws IOException If the words of the files together have too many characters to hold
+     */
+    public static HangmanCorpus merge(String path, List<HangmanCorpus> corpora) throws IOException {
+        Builder builder = new Builder(path);
+        Set<String> earlierFirstWords = new HashSet<String>();
+        Set<String> earlierFirstCommonWords = new HashSet<String>();
+        char[] chars = new char[64];
+        for (HangmanCorpus corpus : corpora) {
+            HangmanReadOnlyWordStore store = corpus.words;
+            for (int i = 0; i < corpus.lengths.length; i++) {
+                for (int g = 0; g < GROUPS; g++) {
+                    for (int w = corpus.groupStarts[i * GROUPS + g]; w < corpus.groupStarts[i * GROUPS + g + 1]; w++) {
+                        int group = g;
+                        if (g == PROPER_FIRST || g == COMMON_FIRST || g == COMMON_FIRST_AMONG_COMMON) {
+                            String word = store.get(w);
+                            boolean firstAmongAll = g != COMMON_FIRST_AMONG_COMMON && !Builder.containsWord(earlierFirstWords, word);
+                            if (g == PROPER_FIRST)
+                                group = firstAmongAll ? PROPER_FIRST : PROPER_REPEAT;
+                            else if (firstAmongAll)
+                                group = COMMON_FIRST;
+                            else
+                                group = Builder.containsWord(earlierFirstCommonWords, word) ? COMMON_REPEAT : COMMON_FIRST_AMONG_COMMON;
+                        }
+                        int start = store.offset(w);
+                        int length = store.offset(w + 1) - start;
+                        if (length > chars.length)
+                            chars = new char[Math.max(length, 2 * chars.length)];
+                        store.copyChars(start, start + length, chars, 0);
+                        builder.add(chars, 0, length, group);
+                    }
+                }
+            }
+            // only added once the file is done, so words of the same file are not checked against each other again
+            corpus.addFirstWords(earlierFirstWords, earlierFirstCommonWords);
+        }
+        HangmanCorpus merged = builder.build();
+        for (HangmanCorpus corpus : corpora)
+            merged.loadTimes.putAll(corpus.loadTimes);
+        return merged;
+    }
+
+    /**
+     * Adds the words that are first occurrences to the sets a Builder keeps of them.
+     *
+     * @param firstWords       Set of words that were the first occurrence of their word
+     * @param firstCommonWords Set of words that are not proper nouns and were the first occurrence among such words
+     */
+    private void addFirstWords(Set<String> firstWords, Set<String> firstCommonWords) {
+        for (int i = 0; i < lengths.length; i++) {
+            for (int w = groupStarts[i * GROUPS + PROPER_FIRST]; w < groupStarts[i * GROUPS + COMMON_FIRST_AMONG_COMMON + 1]; w++) {
+                String word = words.get(w);
+                if (w < groupStarts[i * GROUPS + COMMON_FIRST_AMONG_COMMON])
+                    firstWords.add(word);
+                if (w >= groupStarts[i * GROUPS + COMMON_FIRST])
+                    firstCommonWords.add(word);
+            }
+        }
+    }
+
+    /**
+     * Lays out the words of two corpora as one, with the words of the second after those of the first in each group.
+     * Both corpora are already in order, so each group is copied in one piece rather than sorting the words again.
+     *
+     * @param first  A corpus
+     * @param second A corpus whose groups are already worked out as if its words followed those of the first
+     * @return The combined corpus
+     * @throws IOException If the words of both have too many characters to hold
+     */
+    private static HangmanCorpus concatenate(HangmanCorpus first, HangmanCorpus second) throws IOException {
+        HangmanWordStore.checkCharacters((long) first.words.charCount() + second.words.charCount());
+        // the distinct lengths of both, in increasing order
+        int[] lengths = new int[first.lengths.length + second.lengths.length];
+        int count = 0;
+        for (int i = 0, j = 0; i < first.lengths.length || j < second.lengths.length; ) {
+            if (j == second.lengths.length || (i < first.lengths.length && first.lengths[i] < second.lengths[j]))
+                lengths[count++] = first.lengths[i++];
+            else if (i == first.lengths.length || second.lengths[j] < first.lengths[i])
+                lengths[count++] = second.lengths[j++];
+            else {
+                lengths[count++] = first.lengths[i++];
+                j++;
+            }
+        }
+        lengths = Arrays.copyOf(lengths, count);
+
+        int size = first.words.size() + second.words.size();
+        char[] chars = new char[first.words.charCount() + second.words.charCount()];
+        int[] offsets = new int[size + 1];
+        int[] groupStarts = new int[lengths.length * GROUPS + 1];
+        int wordPosition = 0;
+        int charPosition = 0;
+        for (int l = 0; l < lengths.length; l++) {
+            int firstIndex = Arrays.binarySearch(first.lengths, lengths[l]);
+            int secondIndex = Arrays.binarySearch(second.lengths, lengths[l]);
+            for (int g = 0; g < GROUPS; g++) {
+                groupStarts[l * GROUPS + g] = wordPosition;
+                for (HangmanCorpus part : new HangmanCorpus[]{first, second}) {
+                    int index = part == first ? firstIndex : secondIndex;
+                    if (index < 0)
+                        continue;
+                    int start = part.groupStarts[index * GROUPS + g];
+                    int end = part.groupStarts[index * GROUPS + g + 1];
+                    HangmanReadOnlyWordStore partWords = part.words;
+                    int shift = charPosition - partWords.offset(start);
+                    for (int w = start; w < end; w++)
+                        offsets[wordPosition++] = partWords.offset(w) + shift;
+                    int groupChars = partWords.offset(end) - partWords.offset(start);
+                    partWords.copyChars(partWords.offset(start), partWords.offset(end), chars, charPosition);
+                    charPosition += groupChars;
+                }
+            }
+        }
+        groupStarts[lengths.length * GROUPS] = size;
+        offsets[size] = charPosition;
+        return new HangmanCorpus(first.sourcePath, HangmanWordStore.wrap(chars, offsets), lengths, groupStarts);
+    }
+
+    /**
+     * Gets a view of the words that meet a set of settings.
+     *
+     * @param minimumWordLength The minimum word length
+     * @param keepProperNouns   Whether or not to keep proper nouns
+     * @param keepDuplicates    Whether or not to keep duplicate words
+     * @return The words that meet the settings
+     */
+    public View view(int minimumWordLength, boolean keepProperNouns, boolean keepDuplicates) {
+        int firstGroup = keepProperNouns ? PROPER_FIRST : COMMON_FIRST;
+        int endGroup;
+        if (keepProperNouns)
+            endGroup = keepDuplicates ? GROUPS : COMMON_FIRST + 1;
+        else
+            endGroup = keepDuplicates ? COMMON_REPEAT + 1 : COMMON_FIRST_AMONG_COMMON + 1;
+
+        int first = Arrays.binarySearch(lengths, minimumWordLength);
+        if (first < 0)
+            first = -first - 1; // index of the first length that is longer
+        int rangeCount = lengths.length - first;
+        int[] rangeStarts = new int[rangeCount];
+        int[] viewStarts = new int[rangeCount + 1];
+        for (int i = 0; i < rangeCount; i++) {
+            int lengthIndex = first + i;
+            rangeStarts[i] = groupStarts[lengthIndex * GROUPS + firstGroup];
+            viewStarts[i + 1] = viewStarts[i] + groupStarts[lengthIndex * GROUPS + endGroup] - rangeStarts[i];
+        }
+        return new View(rangeStarts, viewStarts, minimumWordLength + "/" + keepProperNouns + "/" + keepDuplicates);
+    }
+
+    /**
+     * Gets the difficulty scores of the words, scoring them the first time they are asked for. Words kept off-heap are
+     * not scored, as the scores would take 4 bytes of the heap per word.
+     *
+     * @return The scores, or null if the words are kept off-heap
+     */
+    public HangmanWordDifficulty getWordDifficulty() {
+        if (words instanceof HangmanMappedWordStore)
+            return null;
+        HangmanWordDifficulty difficulty = wordDifficulty;
+        if (difficulty == null) {
+            synchronized (this) {
+                difficulty = wordDifficulty;
+                if (difficulty == null)
+                    wordDifficulty = difficulty = HangmanWordDifficulty.analyze(words, firstOccurrences());
+            }
+        }
+        return difficulty;
+    }
+
+    /**
+     * Finds the words that are the first occurrence of their word among all the words: the PROPER_FIRST and
+     * COMMON_FIRST groups of each length, which are next to each other.
+     *
+     * @return The first occurrences
+     */
+    private BitSet firstOccurrences() {
+        BitSet first = new BitSet(words.size());
+        for (int i = 0; i < lengths.length; i++)
+            first.set(groupStarts[i * GROUPS + PROPER_FIRST], groupStarts[i * GROUPS + COMMON_FIRST + 1]);
+        return first;
+    }
+
+    /**
+     * Gets the absolute path of the file the words were read from.
+     *
+     * @return The source file's path
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    /**
+     * Gets how long each source file took to load. Files whose words came from an index are included, with the time
+     * it took to read the index.
+     *
+     * @return Load time in milliseconds of each source file's absolute path, in file order
+     */
+    public Map<String, Long> getLoadTimes() {
+        return Collections.unmodifiableMap(loadTimes);
+    }
+
+    /**
+     * Records how long a source file took to load.
+     *
+     * @param path   Absolute path of the source file
+     * @param millis Load time in milliseconds
+     */
+    void setLoadTime(String path, long millis) {
+        loadTimes.put(path, millis);
+    }
+
+    /**
+     * Gets the source file as it was just before its words were read.
+     *
+     * @return The source's state, or null if it is not known (e.g. the source is not a single file)
+     */
+    HangmanCorpusWatcher.SourceState getSourceState() {
+        return sourceState;
+    }
+
+    /**
+     * Records the source file as it was just before its words were read.
+     *
+     * @param state The source's state, or null if it is not known
+     */
+    void setSourceState(HangmanCorpusWatcher.SourceState state) {
+        sourceState = state;
+    }
+
+    /**
+     * Gets every word read from the file, ordered by length then group.
+     *
+     * @return The words
+     */
+    HangmanReadOnlyWordStore getWords() {
+        return words;
+    }
+
+    /**
+     * Gets the distinct word lengths.
+     *
+     * @return The distinct word lengths, in increasing order
+     */
+    int[] getLengths() {
+        return lengths;
+    }
+
+    /**
+     * Gets where each group starts.
+     *
+     * @return Where each group starts in the words
+     */
+    int[] getGroupStarts() {
+        return groupStarts;
+    }
+
+    /**
+     * The words of a corpus that meet a set of settings, numbered from 0 to size - 1.
+     */
+    public class View {
+        /**
+         * Where each range of the view starts in the corpus's words.
+         */
+        private int[] rangeStarts;
+        /**
+         * Index in the view of the first word of each range; the last element is the size of the view.
+         */
+        private int[] viewStarts;
+        /**
+         * The settings the view's words meet, which name its difficulty bands.
+         */
+        private String settings;
+
+        /**
+         * Constructor to instantiate View objects
+         *
+         * @param starts        Where each range starts in the corpus's words
+         * @param viewOffsets   Index in the view of the first word of each range, followed by the size of the view
+         * @param viewSettings  The settings the view's words meet
+         */
+        private View(int[] starts, int[] viewOffsets, String viewSettings) {
+            rangeStarts = starts;
+            viewStarts = viewOffsets;
+            settings = viewSettings;
+        }
+
+        /**
+         * Gets the words of a difficulty band. The view's words are sorted by score and split into bands of the same
+         * size the first time any band is asked for, and the bands are kept with the corpus for other views with the
+         * same settings.
+         *
+         * @param band A band, from 0 (the easiest words) to HangmanWordDifficulty.BANDS - 1 (the hardest)
+         * @return The indices in the view of the band's words, which is empty if the view has fewer words than bands,
+         * or null if the words are not scored
+         */
+        public int[] getDifficultyBand(int band) {
+            int[][] bands = difficultyBands.get(settings);
+            if (bands == null) {
+                HangmanWordDifficulty difficulty = getWordDifficulty();
+                if (difficulty == null)
+                    return null;
+                bands = splitIntoBands(difficulty);
+                int[][] existing = difficultyBands.putIfAbsent(settings, bands);
+                if (existing != null)
+                    bands = existing;
+            }
+            return bands[band];
+        }
+
+        /**
+         * Sorts the view's words by score and splits them into bands of the same size.
+         *
+         * @param difficulty The scores of the corpus's words
+         * @return The indices in the view of each band's words
+         */
+        private int[][] splitIntoBands(HangmanWordDifficulty difficulty) {
+            // each key is the score, with its bits made to sort as an int, followed by the index, so keys sort by score
+            long[] keys = new long[size()];
+            for (int range = 0; range < rangeStarts.length; range++) {
+                for (int index = viewStarts[range]; index < viewStarts[range + 1]; index++) {
+                    int bits = Float.floatToIntBits(difficulty.getScore(rangeStarts[range] + index - viewStarts[range]));
+                    bits ^= (bits >> 31) & Integer.MAX_VALUE; // negative scores sort backwards otherwise
+                    keys[index] = ((long) bits << 32) | index;
+                }
+            }
+            Arrays.parallelSort(keys);
+            int[][] bands = new int[HangmanWordDifficulty.BANDS][];
+            for (int band = 0; band < bands.length; band++) {
+                int start = (int) ((long) keys.length * band / bands.length);
+                int end = (int) ((long) keys.length * (band + 1) / bands.length);
+                bands[band] = new int[end - start];
+                for (int i = start; i < end; i++)
+                    bands[band][i - start] = (int) keys[i];
+            }
+            return bands;
+        }
+
+        /**
+         * Gets the number of words in the view.
+         *
+         * @return The number of words
+         */
+        public int size() {
+            return viewStarts[viewStarts.length - 1];
+        }
+
+        /**
+         * Checks if the view has no words.
+         *
+         * @return Whether or not the view is empty
+         */
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        /**
+         * Gets a word.
+         *
+         * @param index The word's index in the view, from 0 to size - 1
+         * @return The word
+         */
+        public String get(int index) {
+            return words.get(toCorpusIndex(index));
+        }
+
+        /**
+         * Converts an index in the view to an index in the corpus's words.
+         *
+         * @param index The word's index in the view, from 0 to size - 1
+         * @return The word's index in the corpus
+         */
+        int toCorpusIndex(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Word " + index + " of " + size());
+            // the last range that starts at or before index (ranges can be empty, so skip past equal starts)
+            int range = Arrays.binarySearch(viewStarts, index);
+            if (range < 0) {
+                range = -range - 2;
+            } else {
+                while (range + 1 < viewStarts.length && viewStarts[range + 1] == index)
+                    range++;
+            }
+            return rangeStarts[range] + index - viewStarts[range];
+        }
+    }
+
+    /**
+     * Class that adds words appended to a words file to its corpus, without reading the rest of the file again.
+     * <p>
+     * The appender keeps the sets of first occurrences that a Builder has at the end of the file, so only the new
+     * words need to be checked for repeats. Each append lays out a new corpus, copying each group of the old words in
+     * one piece, which leaves the old corpus untouched for anything still using it.
+     */
+    public static class Appender {
+        /**
+         * The corpus of the file so far.
+         */
+        private HangmanCorpus corpus;
+        /**
+         * Every word that was the first occurrence of its word.
+         */
+        private Set<String> firstWords;
+        /**
+         * Every word that is not a proper noun and was the first occurrence among such words.
+         */
+        private Set<String> firstCommonWords;
+
+        /**
+         * Constructor to instantiate Appender objects
+         *
+         * @param base The corpus of the file before anything is appended
+         */
+        public Appender(HangmanCorpus base) {
+            corpus = base;
+            firstWords = new HashSet<String>();
+            firstCommonWords = new HashSet<String>();
+            base.addFirstWords(firstWords, firstCommonWords);
+        }
+
+        /**
+         * Adds words that follow the words of the corpus in the file.
+         *
+         * @param appended The new words, in file order
+         * @return The corpus with the new words, which is the same as reading the whole file again would give
+         * @throws IOException If the corpus would have too many characters to hold
+         */
+        public HangmanCorpus append(HangmanWordStore appended) throws IOException {
+            Builder builder = new Builder(corpus.sourcePath);
+            char[] chars = appended.getChars();
+            int[] offsets = appended.getOffsets();
+            for (int i = 0; i < appended.size(); i++) {
+                int length = offsets[i + 1] - offsets[i];
+                String word = new String(chars, offsets[i], length);
+                builder.add(chars, offsets[i], length, Builder.groupOf(word, firstWords, firstCommonWords));
+            }
+            HangmanCorpus appendedCorpus = concatenate(corpus, builder.build());
+            appendedCorpus.loadTimes.putAll(corpus.loadTimes);
+            corpus = appendedCorpus;
+            return corpus;
+        }
+
+        /**
+         * Gets the corpus of the file so far.
+         *
+         * @return The corpus
+         */
+        public HangmanCorpus getCorpus() {
+            return corpus;
+        }
+    }
+
+    /**
+     * Class that builds a HangmanCorpus for a word index file from the words of a file, given in file order, without
+     * keeping the words on the heap.
+     * <p>
+     * Each word's group is worked out as it is added, the same way Builder does, and the word is written to a spill
+     * file. Once every word is added, the words are copied from the spill file into their places in the index file.
+     * The sets of first occurrences are kept off the heap too (see HangmanMappedWordSet), so the heap used does not
+     * grow with the size of the file or its number of distinct words.
+     */
+    public static class OffHeapBuilder {
+        /**
+         * Size of the buffer words are written to the spill file through.
+         */
+        private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+        /**
+         * Heap memory, in bytes, shared by the buffers words are copied into the index file through.
+         */
+        private static final int WRITE_BUFFER_MEMORY = 4 * 1024 * 1024;
+        /**
+         * Absolute path of the file the words are read from.
+         */
+        private String sourcePath;
+        /**
+         * File the words are written to, in file order, until they are copied into the index file.
+         */
+        private File spillFile;
+        /**
+         * Stream to the spill file.
+         */
+        private OutputStream spill;
+        /**
+         * Buffer words are encoded in before being written to the spill file.
+         */
+        private byte[] spillBuffer;
+        /**
+         * Number of bytes used in spillBuffer.
+         */
+        private int spillUsed;
+        /**
+         * Every word that was the first occurrence of its word.
+         */
+        private HangmanMappedWordSet firstWords;
+        /**
+         * Every word that is not a proper noun and was the first occurrence among such words.
+         */
+        private HangmanMappedWordSet firstCommonWords;
+        /**
+         * Number of words and then characters in each group of each length.
+         */
+        private Map<Integer, long[]> counts;
+        /**
+         * Number of words added.
+         */
+        private long wordCount;
+        /**
+         * Number of characters added.
+         */
+        private long charCount;
+        /**
+         * The distinct word lengths, in increasing order, once every word is added.
+         */
+        private int[] lengths;
+        /**
+         * Where each group starts, once every word is added.
+         */
+        private int[] groupStarts;
+
+        /**
+         * Constructor to instantiate OffHeapBuilder objects
+         *
+         * @param path      Absolute path of the file the words are read from
+         * @param spillTemp Temporary file to write the words to, which is deleted once they are in the index file; the
+         *                  sets of first occurrences are kept in temporary files next to it
+         * @throws IOException If the temporary files could not be created
+         */
+        public OffHeapBuilder(String path, File spillTemp) throws IOException {
+            sourcePath = path;
+            spillFile = spillTemp;
+            spill = new FileOutputStream(spillTemp);
+            spillBuffer = new byte[SPILL_BUFFER_SIZE];
+            spillUsed = 0;
+            File tempDirectory = spillTemp.getAbsoluteFile().getParentFile();
+            firstWords = new HangmanMappedWordSet(tempDirectory);
+            firstCommonWords = new HangmanMappedWordSet(tempDirectory);
+            counts = new HashMap<Integer, long[]>();
+            wordCount = 0;
+            charCount = 0;
+        }
+
+        /**
+         * Adds the next word of the file.
+         *
+         * @param word   Array holding a filtered word
+         * @param start  Index of the word's first character
+         * @param length Number of characters in the word
+         * @throws UncheckedIOException If the word could not be written to the spill file or its sets of first
+         *                              occurrences
+         */
+        public void add(char[] word, int start, int length) {
+            int group = Builder.groupOf(new String(word, start, length), firstWords, firstCommonWords);
+            long[] count = counts.get(length);
+            if (count == null) {
+                count = new long[2 * GROUPS];
+                counts.put(length, count);
+            }
+            count[group]++;
+            count[GROUPS + group] += length;
+            wordCount++;
+            charCount += length;
+            try {
+                // the group, the length and then the characters, all big-endian
+                ensureSpillRoom(5);
+                spillBuffer[spillUsed++] = (byte) group;
+                spillBuffer[spillUsed++] = (byte) (length >>> 24);
+                spillBuffer[spillUsed++] = (byte) (length >>> 16);
+                spillBuffer[spillUsed++] = (byte) (length >>> 8);
+                spillBuffer[spillUsed++] = (byte) length;
+                for (int i = start; i < start + length; i++) {
+                    ensureSpillRoom(2);
+                    spillBuffer[spillUsed++] = (byte) (word[i] >>> 8);
+                    spillBuffer[spillUsed++] = (byte) word[i];
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes out the spill buffer if it does not have room for a number of bytes.
+         *
+         * @param bytes Number of bytes needed
+         * @throws IOException If the spill file could not be written
+         */
+        private void ensureSpillRoom(int bytes) throws IOException {
+            if (spillUsed + bytes > spillBuffer.length) {
+                spill.write(spillBuffer, 0, spillUsed);
+                spillUsed = 0;
+            }
+        }
+
+        /**
+         * Ends the words and works out where each group of words goes.
+         *
+         * @throws IOException If the spill file could not be written, or there are too many words for a corpus
+         */
+        void finish() throws IOException {
+            spill.write(spillBuffer, 0, spillUsed);
+            spill.close();
+            spillBuffer = null;
+            closeFirstOccurrences();
+            if (wordCount >= Integer.MAX_VALUE || charCount >= Integer.MAX_VALUE)
+                throw new IOException("\"" + sourcePath + "\" has too many words to be used");
+
+            lengths = new int[counts.size()];
+            int l = 0;
+            for (int length : counts.keySet())
+                lengths[l++] = length;
+            Arrays.sort(lengths);
+            groupStarts = new int[lengths.length * GROUPS + 1];
+            int position = 0;
+            for (int i = 0; i < lengths.length; i++) {
+                long[] count = counts.get(lengths[i]);
+                for (int g = 0; g < GROUPS; g++) {
+                    groupStarts[i * GROUPS + g] = position;
+                    position += (int) count[g];
+                }
+            }
+            groupStarts[lengths.length * GROUPS] = position;
+        }
+
+        /**
+         * Gets the number of words added.
+         *
+         * @return The number of words
+         */
+        int size() {
+            return (int) wordCount;
+        }
+
+        /**
+         * Gets the number of characters added.
+         *
+         * @return The number of characters
+         */
+        int charCount() {
+            return (int) charCount;
+        }
+
+        /**
+         * Gets the distinct word lengths, once finish() is called.
+         *
+         * @return The distinct word lengths, in increasing order
+         */
+        int[] getLengths() {
+            return lengths;
+        }
+
+        /**
+         * Gets where each group starts, once finish() is called.
+         *
+         * @return Where each group starts in the words
+         */
+        int[] getGroupStarts() {
+            return groupStarts;
+        }
+
+        /**
+         * Copies the words from the spill file into their places in an index file: the offset table (4 bytes per
+         * word, and one for the end of the last word) and the packed characters (2 bytes each). Within each group the
+         * words are written one after another, through a buffer for each group.
+         *
+         * @param channel         Channel to the index file
+         * @param offsetsPosition Where the offset table starts in the index file
+         * @param charsPosition   Where the packed characters start in the index file
+         * @throws IOException If the spill file could not be read or the index file could not be written
+         */
+        void writeWords(FileChannel channel, long offsetsPosition, long charsPosition) throws IOException {
+            int slots = lengths.length * GROUPS;
+            int bufferSize = Math.max(64, Math.min(64 * 1024, WRITE_BUFFER_MEMORY / Math.max(1, 2 * slots))) & ~3;
+            int[] nextWord = new int[slots];
+            int[] nextChar = new int[slots];
+            long[] offsetsWritten = new long[slots];
+            long[] charsWritten = new long[slots];
+            ByteBuffer[] offsetBuffers = new ByteBuffer[slots];
+            ByteBuffer[] charBuffers = new ByteBuffer[slots];
+            int charPosition = 0;
+            for (int i = 0; i < lengths.length; i++) {
+                long[] count = counts.get(lengths[i]);
+                for (int g = 0; g < GROUPS; g++) {
+                    int slot = i * GROUPS + g;
+                    nextWord[slot] = groupStarts[slot];
+                    nextChar[slot] = charPosition;
+                    offsetsWritten[slot] = offsetsPosition + 4L * groupStarts[slot];
+                    charsWritten[slot] = charsPosition + 2L * charPosition;
+                    charPosition += (int) count[GROUPS + g];
+                }
+            }
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile), SPILL_BUFFER_SIZE));
+            try {
+                byte[] chars = new byte[64];
+                for (long w = 0; w < wordCount; w++) {
+                    int group = in.readUnsignedByte();
+                    int length = in.readInt();
+                    if (chars.length < 2 * length)
+                        chars = new byte[Math.max(2 * length, 2 * chars.length)];
+                    in.readFully(chars, 0, 2 * length);
+                    int slot = Arrays.binarySearch(lengths, length) * GROUPS + group;
+                    if (offsetBuffers[slot] == null) {
+                        offsetBuffers[slot] = ByteBuffer.allocate(bufferSize);
+                        charBuffers[slot] = ByteBuffer.allocate(bufferSize);
+                    }
+                    if (!offsetBuffers[slot].hasRemaining())
+                        offsetsWritten[slot] = writeBuffer(channel, offsetBuffers[slot], offsetsWritten[slot]);
+                    offsetBuffers[slot].putInt(nextChar[slot]);
+                    nextWord[slot]++;
+                    nextChar[slot] += length;
+                    for (int copied = 0; copied < 2 * length; ) {
+                        if (!charBuffers[slot].hasRemaining())
+                            charsWritten[slot] = writeBuffer(channel, charBuffers[slot], charsWritten[slot]);
+                        int piece = Math.min(2 * length - copied, charBuffers[slot].remaining());
+                        charBuffers[slot].put(chars, copied, piece);
+                        copied += piece;
+                    }
+                }
+            } finally {
+                in.close();
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                if (offsetBuffers[slot] != null) {
+                    writeBuffer(channel, offsetBuffers[slot], offsetsWritten[slot]);
+                    writeBuffer(channel, charBuffers[slot], charsWritten[slot]);
+                }
+            }
+            ByteBuffer end = ByteBuffer.allocate(4);
+            end.putInt((int) charCount);
+            writeBuffer(channel, end, offsetsPosition + 4L * wordCount);
+        }
+
+        /**
+         * Writes the contents of a buffer to a file and empties the buffer.
+         *
+         * @param channel  Channel to the file
+         * @param buffer   The buffer
+         * @param position Where to write the contents in the file
+         * @return The position just after the contents
+         * @throws IOException If the file could not be written
+         */
+        private static long writeBuffer(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                position += channel.write(buffer, position);
+            buffer.clear();
+            return position;
+        }
+
+        /**
+         * Closes and deletes the sets of first occurrences, which are only needed while words are added.
+         *
+         * @throws IOException If a set could not be closed
+         */
+        private void closeFirstOccurrences() throws IOException {
+            if (firstWords == null)
+                return;
+            try {
+                firstWords.close();
+                firstCommonWords.close();
+            } finally {
+                firstWords = null;
+                firstCommonWords = null;
+            }
+        }
+
+        /**
+         * Deletes the spill file and the sets of first occurrences.
+         */
+        void discard() {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                // it is being deleted anyway
+            }
+            try {
+                closeFirstOccurrences();
+            } catch (IOException e) {
+                // same as above
+            }
+            spillFile.delete();
+        }
+    }
+
+    /**
+     * Class that builds a HangmanCorpus from the words of a file, given in file order.
+     */
+    public static class Builder {
+        /**
+         * Absolute path of the file the words are read from.
+         */
+        private String sourcePath;
+        /**
+         * The words, in file order.
+         */
+        private HangmanWordStore words;
+        /**
+         * The group of each word.
+         */
+        private byte[] groups;
+        /**
+         * Every word that was the first occurrence of its word.
+         */
+        private Set<String> firstWords;
+        /**
+         * Every word that is not a proper noun and was the first occurrence among such words.
+         */
+        private Set<String> firstCommonWords;
+
+        /**
+         * Constructor to instantiate Builder objects
+         *
+         * @param path Absolute path of the file the words are read from
+         */
+        public Builder(String path) {
+            sourcePath = path;
+            words = new HangmanWordStore();
+            groups = new byte[1024];
+            firstWords = new HashSet<String>();
+            firstCommonWords = new HashSet<String>();
+        }
+
+        /**
+         * Adds the next word of the file.
+         *
+         * @param word   Array holding a filtered word
+         * @param start  Index of the word's first character
+         * @param length Number of characters in the word
+         * @throws IOException If the words would have too many characters to hold
+         */
+        public void add(char[] word, int start, int length) throws IOException {
+            add(word, start, length, groupOf(new String(word, start, length), firstWords, firstCommonWords));
+        }
+
+        /**
+         * Works out the group of the next word of a file, adding it to the sets of first occurrences if it is one.
+         *
+         * @param word             A filtered word
+         * @param firstWords       Set of words that were the first occurrence of their word
+         * @param firstCommonWords Set of words that are not proper nouns and were the first occurrence among such
+         *                         words
+         * @return The word's group
+         */
+        private static int groupOf(String word, Set<String> firstWords, Set<String> firstCommonWords) {
+            boolean properNoun = Character.toLowerCase(word.charAt(0)) != word.charAt(0); // see HangmanWordTokenizer.isProperNoun()
+            if (properNoun)
+                return addIfFirst(firstWords, word) ? PROPER_FIRST : PROPER_REPEAT;
+            if (addIfFirst(firstWords, word)) {
+                firstCommonWords.add(word); // first among all words is also first among the common words
+                return COMMON_FIRST;
+            }
+            return addIfFirst(firstCommonWords, word) ? COMMON_FIRST_AMONG_COMMON : COMMON_REPEAT;
+        }
+
+        /**
+         * Adds a word whose group is already known.
+         *
+         * @param word   Array holding a filtered word
+         * @param start  Index of the word's first character
+         * @param length Number of characters in the word
+         * @param group  The word's group
+         * @throws IOException If the words would have too many characters to hold
+         */
+        private void add(char[] word, int start, int length, int group) throws IOException {
+            if (words.size() == groups.length)
+                groups = Arrays.copyOf(groups, groups.length * 2);
+            groups[words.size()] = (byte) group;
+            words.add(word, start, length);
+        }
+
+        /**
+         * Adds every word in a store, in order.
+         *
+         * @param store Words of the file, in file order
+         * @throws IOException If the words would have too many characters to hold
+         */
+        public void addAll(HangmanWordStore store) throws IOException {
+            char[] chars = store.getChars();
+            int[] offsets = store.getOffsets();
+            for (int i = 0; i < store.size(); i++)
+                add(chars, offsets[i], offsets[i + 1] - offsets[i]);
+        }
+
+        /**
+         * Adds a word to a set of first occurrences if it is not a repeat of one.
+         *
+         * @param seen Set of first occurrences
+         * @param word A word
+         * @return Whether or not the word was a first occurrence
+         */
+        private static boolean addIfFirst(Set<String> seen, String word) {
+            if (containsWord(seen, word))
+                return false;
+            seen.add(word);
+            return true;
+        }
+
+        /**
+         * Updated version of containsValue() from HashMap.
+         * <p>
+         * If the word occurs at the beginning of a sentence in the words source file then it will be capitalized.
+         * containsValue() is case-sensitive: this would lead to duplicates still existing as "The" and "the" for
+         * example.
+         * <p>
+         * The lookups are done against a hash set, because scanning every word already added (as containsValue() did)
+         * made reading a file with duplicates removed take quadratic time.
+         *
+         * @param seen Set of first occurrences
+         * @param word A word.
+         * @return The occurrence of a word represented as a boolean value
+         */
+        private static boolean containsWord(Set<String> seen, String word) {
+            // if words contains the word all lowercase (as it would appear in the main part of a sentence/phrase)
+            // OR
+            // if words contains the word with its first letter capitalized (as it would appear at the beginning of a sentence/phrase)
+            return (seen.contains(word.toLowerCase()) || seen.contains(word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase()));
+        }
+
+        /**
+         * Builds the corpus. The builder can't be used afterwards.
+         *
+         * @return The corpus
+         */
+        public HangmanCorpus build() {
+            firstWords = null;
+            firstCommonWords = null;
+            int size = words.size();
+            char[] chars = words.getChars();
+            int[] offsets = words.getOffsets();
+
+            // number of words and characters in each group of each length
+            Map<Integer, int[]> counts = new HashMap<Integer, int[]>();
+            for (int i = 0; i < size; i++) {
+                int length = offsets[i + 1] - offsets[i];
+                int[] count = counts.get(length);
+                if (count == null) {
+                    count = new int[2 * GROUPS];
+                    counts.put(length, count);
+                }
+                count[groups[i]]++;
+                count[GROUPS + groups[i]] += length;
+            }
+            int[] lengths = new int[counts.size()];
+            int l = 0;
+            for (int length : counts.keySet())
+                lengths[l++] = length;
+            Arrays.sort(lengths);
+
+            // where each group starts, in words and in characters; reuses the counts arrays to hold the next free spot
+            int[] groupStarts = new int[lengths.length * GROUPS + 1];
+            int wordPosition = 0;
+            int charPosition = 0;
+            for (int i = 0; i < lengths.length; i++) {
+                int[] count = counts.get(lengths[i]);
+                for (int g = 0; g < GROUPS; g++) {
+                    groupStarts[i * GROUPS + g] = wordPosition;
+                    int groupWords = count[g];
+                    int groupChars = count[GROUPS + g];
+                    count[g] = wordPosition;
+                    count[GROUPS + g] = charPosition;
+                    wordPosition += groupWords;
+                    charPosition += groupChars;
+                }
+            }
+            groupStarts[lengths.length * GROUPS] = size;
+
+            // counting sort of the words into their groups, keeping file order within each group
+            char[] sortedChars = new char[charPosition];
+            int[] sortedOffsets = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                int length = offsets[i + 1] - offsets[i];
+                int[] next = counts.get(length);
+                int position = next[groups[i]]++;
+                int charStart = next[GROUPS + groups[i]];
+                next[GROUPS + groups[i]] += length;
+                System.arraycopy(chars, offsets[i], sortedChars, charStart, length);
+                sortedOffsets[position] = charStart;
+            }
+            sortedOffsets[size] = charPosition;
+            words = null;
+            groups = null;
+            return new HangmanCorpus(sourcePath, HangmanWordStore.wrap(sortedChars, sortedOffsets), lengths, groupStarts);
+        }
+    }
+}
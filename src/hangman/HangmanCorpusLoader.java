@@ -0,0 +1,521 @@
+package hangman;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that reads the words of a words file into a HangmanCorpus, from which the words for any settings can be
+ * taken.
+ * <p>
+ * A source can also be a directory, whose files (and those of its subdirectories) are read in name order, or several
+ * files and directories separated by File.pathSeparator. The files of such a source are loaded in parallel and merged
+ * into one corpus, with duplicates removed across files as if they had been read one after another.
+ * <p>
+ * Compressed files (.gz and .zip) are decompressed on a thread of their own while they are tokenized; see
+ * HangmanDecompressor. Other small files are read sequentially. The charset of a file is worked out from its first
+ * bytes by HangmanCharsetDetector. Files of at least PARALLEL_LOAD_THRESHOLD bytes are memory-mapped, split into
+ * chunks at whitespace and tokenized in parallel; the chunks are then merged in file order so the corpus (including
+ * which copy of a duplicate is the first occurrence) is exactly the same as when reading sequentially.
+ * <p>
+ * loadOffHeap() builds the word index straight from the words instead, and memory-maps it, for sources whose words
+ * don't fit on the heap.
+ * <p>
+ * Loading can be stopped by interrupting the loading thread, in which case an InterruptedIOException is thrown.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanCorpusLoader {
+    /**
+     * Size, in bytes, at which a file is read in parallel.
+     */
+    public static final long PARALLEL_LOAD_THRESHOLD = 16 * 1024 * 1024;
+    /**
+     * Target size, in bytes, of the chunks a file is split into when it is read in parallel.
+     */
+    public static final int CHUNK_SIZE = 4 * 1024 * 1024;
+    /**
+     * Listener told how much of the file has been read, or null.
+     */
+    private ProgressListener progressListener;
+
+    /**
+     * Interface for being told how much of a file has been read while loading it.
+     */
+    public interface ProgressListener {
+        /**
+         * Called on the loading thread as the file is read.
+         *
+         * @param bytesRead  Number of bytes of the file read so far
+         * @param totalBytes Size of the file
+         */
+        void progress(long bytesRead, long totalBytes);
+    }
+
+    /**
+     * Sets the listener told how much of the file has been read.
+     *
+     * @param listener A listener, or null for none
+     */
+    public void setProgressListener(ProgressListener listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * Loads the words from a file, reading it in parallel if it is large enough.
+     *
+     * @param file A words file
+     * @return The corpus of the file's words
+     * @throws IOException If the file could not be read
+     */
+    public HangmanCorpus load(File file) throws IOException {
+        if (HangmanDecompressor.isCompressed(file))
+            return loadSequential(file); // a compressed file can only be decompressed from the start
+        if (file.length() >= PARALLEL_LOAD_THRESHOLD)
+            return loadParallel(file);
+        return loadSequential(file);
+    }
+
+    /**
+     * Loads the words from a source, using the index stored in a cache for each file if it is up to date, and
+     * otherwise reading the file and storing a new index.
+     *
+     * @param source A words file, a directory, or several of them separated by File.pathSeparator
+     * @param cache  The cache of word indexes
+     * @return The corpus of the source's words
+     * @throws IOException If a file could not be read
+     */
+    public HangmanCorpus load(File source, HangmanWordIndexCache cache) throws IOException {
+        HangmanCorpusWatcher.SourceState state = HangmanCorpusWatcher.SourceState.capture(source);
+        List<File> files = listSourceFiles(source.getPath());
+        HangmanCorpus loaded;
+        if (files.size() == 1 && files.get(0).equals(source))
+            loaded = loadFile(source, cache);
+        else
+            loaded = loadFiles(source.getAbsolutePath(), files, cache);
+        loaded.setSourceState(state);
+        return loaded;
+    }
+
+    /**
+     * Loads the words from one file, using its index if it is up to date, and records how long it took.
+     *
+     * @param file  A words file
+     * @param cache The cache of word indexes
+     * @return The corpus of the file's words
+     * @throws IOException If the file could not be read
+     */
+    private HangmanCorpus loadFile(File file, HangmanWordIndexCache cache) throws IOException {
+        long start = System.nanoTime();
+        HangmanWordIndexCache.Key key = new HangmanWordIndexCache.Key(file);
+        HangmanCorpus loaded = cache.read(key);
+        if (loaded == null) {
+            loaded = load(file);
+            try {
+                cache.write(key, loaded);
+            } catch (IOException e) {
+                // the index only saves time on the next start, so the game can go on without it
+            }
+        }
+        loaded.setLoadTime(file.getAbsolutePath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return loaded;
+    }
+
+    /**
+     * Loads several files in parallel on the common ForkJoinPool and merges them, in order, into one corpus.
+     *
+     * @param path  Path of the source the files make up
+     * @param files The files
+     * @param cache The cache of word indexes
+     * @return The merged corpus
+     * @throws IOException If a file could not be read
+     */
+    private HangmanCorpus loadFiles(String path, List<File> files, HangmanWordIndexCache cache) throws IOException {
+        long totalBytes = 0;
+        List<FileTask> tasks = new ArrayList<FileTask>();
+        for (File file : files) {
+            totalBytes += file.length();
+            tasks.add(new FileTask(file, cache));
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (FileTask task : tasks)
+            pool.execute(task);
+
+        List<HangmanCorpus> corpora = new ArrayList<HangmanCorpus>();
+        try {
+            long bytesRead = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                corpora.add(tasks.get(i).join());
+                bytesRead += files.get(i).length();
+                if (Thread.currentThread().isInterrupted()) {
+                    for (int j = i + 1; j < tasks.size(); j++)
+                        tasks.get(j).cancel(false);
+                    throw new InterruptedIOException("Loading \"" + path + "\" was cancelled");
+                }
+                if (progressListener != null)
+                    progressListener.progress(bytesRead, totalBytes);
+            }
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw e;
+        }
+        return HangmanCorpus.merge(path, corpora);
+    }
+
+    /**
+     * Lists the files a source is made of: the source itself if it is a single file, otherwise the files of each
+     * directory (in name order, including subdirectories) and each file, in the order they are given.
+     *
+     * @param source A words file, a directory, or several of them separated by File.pathSeparator
+     * @return The files, which may not exist
+     */
+    public static List<File> listSourceFiles(String source) {
+        List<File> files = new ArrayList<File>();
+        for (String part : source.split(Pattern.quote(File.pathSeparator))) {
+            if (!part.isEmpty())
+                addSourceFiles(new File(part), files);
+        }
+        return files;
+    }
+
+    /**
+     * Adds a file, or the files in a directory, to a list.
+     *
+     * @param file  A file or directory
+     * @param files The list of files
+     */
+    private static void addSourceFiles(File file, List<File> files) {
+        if (!file.isDirectory()) {
+            files.add(file);
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children == null)
+            return;
+        Arrays.sort(children);
+        for (File child : children)
+            if (!child.isHidden() && (child.isDirectory() || child.isFile()))
+                addSourceFiles(child, files);
+    }
+
+    /**
+     * Checks that a source has at least one file and that all of its files exist.
+     *
+     * @param source A words file, a directory, or several of them separated by File.pathSeparator
+     * @return Whether or not the source can be loaded
+     */
+    public static boolean sourceExists(String source) {
+        List<File> files = listSourceFiles(source);
+        for (File file : files)
+            if (!file.isFile())
+                return false;
+        return !files.isEmpty();
+    }
+
+    /**
+     * Loads the words from a source into a memory-mapped word index, using the index stored in a cache if it is up
+     * to date, so the words are never all on the heap. The files of the source are read one after another on the
+     * calling thread.
+     *
+     * @param source A words file, a directory, or several of them separated by File.pathSeparator
+     * @param cache  The cache of word indexes, which holds the memory-mapped index
+     * @return The corpus of the source's words, read from the mapped index
+     * @throws IOException If a file could not be read or the index could not be written
+     */
+    public HangmanCorpus loadOffHeap(File source, HangmanWordIndexCache cache) throws IOException {
+        long start = System.nanoTime();
+        HangmanCorpusWatcher.SourceState state = HangmanCorpusWatcher.SourceState.capture(source);
+        HangmanWordIndexCache.Key key = new HangmanWordIndexCache.Key(source);
+        HangmanCorpus loaded = cache.map(key);
+        if (loaded == null) {
+            final HangmanCorpus.OffHeapBuilder builder = new HangmanCorpus.OffHeapBuilder(source.getAbsolutePath(), cache.createSpillFile());
+            try {
+                for (File file : listSourceFiles(source.getPath())) {
+                    tokenizeFile(file, new HangmanWordTokenizer.WordHandler() {
+                        @Override
+                        public void handleWord(char[] word, int length) {
+                            builder.add(word, 0, length);
+                        }
+                    });
+                }
+            } catch (UncheckedIOException e) {
+                builder.discard();
+                throw e.getCause();
+            } catch (IOException e) {
+                builder.discard();
+                throw e;
+            }
+            loaded = cache.writeMapped(key, builder);
+        }
+        loaded.setSourceState(state);
+        loaded.setLoadTime(source.getAbsolutePath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return loaded;
+    }
+
+    /**
+     * Loads the words from a file on the calling thread (apart from decompressing it, if it is compressed).
+     *
+     * @param file A words file
+     * @return The corpus of the file's words
+     * @throws IOException If the file could not be read
+     */
+    public HangmanCorpus loadSequential(File file) throws IOException {
+        //https://stackoverflow.com/questions/19992018/reading-single-quotes-from-text-file-in-java-using-bufferedreader
+        final HangmanCorpus.Builder builder = new HangmanCorpus.Builder(file.getAbsolutePath());
+        try {
+            tokenizeFile(file, new HangmanWordTokenizer.WordHandler() {
+                @Override
+                public void handleWord(char[] word, int length) {
+                    try {
+                        builder.add(word, 0, length);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads every word of a file, in its own charset, on the calling thread (apart from decompressing it, if it is
+     * compressed).
+     *
+     * @param file    A words file
+     * @param handler The handler that receives the words
+     * @throws IOException If the file could not be read
+     */
+    private void tokenizeFile(File file, HangmanWordTokenizer.WordHandler handler) throws IOException {
+        InputStream raw = HangmanDecompressor.isCompressed(file) ? HangmanDecompressor.open(file) : new FileInputStream(file);
+        InputStream in = new BufferedInputStream(new ProgressInputStream(raw, file.length()), HangmanCharsetDetector.SAMPLE_SIZE);
+        try {
+            new HangmanWordTokenizer().tokenize(in, HangmanCharsetDetector.detect(in), handler);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads the words from a file by memory-mapping it and tokenizing chunks of it on the common ForkJoinPool.
+     *
+     * @param file A words file
+     * @return The corpus of the file's words
+     * @throws IOException If the file could not be read
+     */
+    public HangmanCorpus loadParallel(File file) throws IOException {
+        HangmanCorpus.Builder builder = new HangmanCorpus.Builder(file.getAbsolutePath());
+        FileChannel channel = new FileInputStream(file).getChannel();
+        try {
+            ByteBuffer sample = ByteBuffer.allocate(HangmanCharsetDetector.SAMPLE_SIZE);
+            channel.read(sample, 0);
+            Charset charset = HangmanCharsetDetector.detect(sample.array(), sample.position());
+            if (!HangmanWordTokenizer.isAsciiCompatible(charset))
+                return loadSequential(file); // chunks are split at ASCII bytes, which only works for these charsets
+
+            List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = findChunkEnd(channel, Math.min(start + CHUNK_SIZE, size), size);
+                tasks.add(new ChunkTask(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), charset));
+                start = end;
+            }
+
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            for (ChunkTask task : tasks)
+                pool.execute(task);
+            // merging in file order keeps the first occurrence of a duplicate, as reading sequentially does
+            long bytesRead = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                builder.addAll(tasks.get(i).join());
+                bytesRead += tasks.get(i).bytes.capacity();
+                if (Thread.currentThread().isInterrupted()) {
+                    for (int j = i + 1; j < tasks.size(); j++)
+                        tasks.get(j).cancel(false);
+                    throw new InterruptedIOException("Loading \"" + file.getName() + "\" was cancelled");
+                }
+                if (progressListener != null)
+                    progressListener.progress(bytesRead, size);
+            }
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw e;
+        } finally {
+            channel.close();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Finds where a chunk should end: just after the first ASCII whitespace byte at or after a position. ASCII bytes
+     * are never part of a multi-byte UTF-8 character, so neither a character nor a word is split between chunks.
+     *
+     * @param channel  The file's channel
+     * @param position Position the chunk should end at, at the earliest
+     * @param size     Size of the file
+     * @return The position the chunk ends at
+     * @throws IOException If the file could not be read
+     */
+    private long findChunkEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0)
+                break;
+            for (int i = 0; i < read; i++)
+                if (HangmanWordTokenizer.isWhitespace(window.get(i)))
+                    return position + i + 1;
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Stream that tells the progress listener how much of the file has been read, and stops reading if the loading
+     * thread is interrupted.
+     */
+    private class ProgressInputStream extends FilterInputStream {
+        /**
+         * Size of the file.
+         */
+        private long totalBytes;
+        /**
+         * Number of bytes read so far.
+         */
+        private long bytesRead;
+
+        /**
+         * Constructor to instantiate ProgressInputStream objects
+         *
+         * @param in   Stream from the file
+         * @param size Size of the file
+         */
+        ProgressInputStream(InputStream in, long size) {
+            super(in);
+            totalBytes = size;
+            bytesRead = 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (Thread.currentThread().isInterrupted())
+                throw new InterruptedIOException("Loading was cancelled");
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                bytesRead += read;
+                if (progressListener != null) {
+                    // the size of a compressed file is that of its compressed bytes
+                    long position = in instanceof HangmanDecompressor.DecompressingInputStream
+                            ? ((HangmanDecompressor.DecompressingInputStream) in).getCompressedBytesRead() : bytesRead;
+                    progressListener.progress(position, totalBytes);
+                }
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Task that loads one file of a source.
+     */
+    private static class FileTask extends RecursiveTask<HangmanCorpus> {
+        /**
+         * Serialization version; the task is never serialized, but ForkJoinTask is Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The file.
+         */
+        private File file;
+        /**
+         * The cache of word indexes.
+         */
+        private HangmanWordIndexCache cache;
+
+        /**
+         * Constructor to instantiate FileTask objects
+         *
+         * @param sourceFile The file
+         * @param indexCache The cache of word indexes
+         */
+        FileTask(File sourceFile, HangmanWordIndexCache indexCache) {
+            file = sourceFile;
+            cache = indexCache;
+        }
+
+        @Override
+        protected HangmanCorpus compute() {
+            try {
+                // a loader of its own, as the progress listener is only called on the loading thread
+                return new HangmanCorpusLoader().loadFile(file, cache);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Task that tokenizes one memory-mapped chunk of a file and keeps its words, in order.
+     */
+    private static class ChunkTask extends RecursiveTask<HangmanWordStore> {
+        /**
+         * Serialization version; the task is never serialized, but ForkJoinTask is Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The chunk's bytes.
+         */
+        private MappedByteBuffer bytes;
+        /**
+         * The file's charset.
+         */
+        private Charset charset;
+
+        /**
+         * Constructor to instantiate ChunkTask objects
+         *
+         * @param chunk       The chunk's bytes
+         * @param fileCharset The file's charset, which must be ASCII compatible
+         */
+        ChunkTask(MappedByteBuffer chunk, Charset fileCharset) {
+            bytes = chunk;
+            charset = fileCharset;
+        }
+
+        @Override
+        protected HangmanWordStore compute() {
+            final HangmanWordStore chunkWords = new HangmanWordStore();
+            final HangmanWordTokenizer tokenizer = new HangmanWordTokenizer();
+            HangmanWordTokenizer.WordHandler handler = new HangmanWordTokenizer.WordHandler() {
+                @Override
+                public void handleWord(char[] word, int length) {
+                    try {
+                        chunkWords.add(word, 0, length);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // rethrown as it is by join(), and unwrapped by loadParallel()
+                    }
+                }
+            };
+
+            tokenizer.tokenize(bytes, charset, handler);
+            return chunkWords;
+        }
+    }
+}
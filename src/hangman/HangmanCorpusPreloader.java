@@ -0,0 +1,109 @@
+package hangman;
+
+import javax.swing.*;
+import java.io.File;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Class that loads the words of the last used file in the background while the set-up window is open, so the game can
+ * start straight away if the user keeps the same file.
+ * <p>
+ * The load's progress, from 0 to 100, is published through SwingWorker's "progress" property. Cancelling the
+ * preloader interrupts the load.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanCorpusPreloader extends SwingWorker<HangmanCorpus, Void> {
+    /**
+     * The file being loaded.
+     */
+    private File file;
+    /**
+     * The game data directory, which holds the index files.
+     */
+    private String dataDirPath;
+    /**
+     * Whether or not the words are loaded into a memory-mapped index instead of onto the heap.
+     */
+    private boolean offHeap;
+    /**
+     * Whether or not the words are scored for difficulty once they are loaded.
+     */
+    private boolean scoreWords;
+
+    /**
+     * Constructor to instantiate HangmanCorpusPreloader objects. Call execute() to start loading.
+     *
+     * @param wordsFile   The file to load
+     * @param dataDirPath The game data directory
+     * @param offHeapLoad Whether or not to load the words into a memory-mapped index instead of onto the heap
+     * @param matchWordDifficulty Whether or not games pick words that match their difficulty, in which case the words
+     *                            are scored once they are loaded
+     */
+    public HangmanCorpusPreloader(File wordsFile, String dataDirPath, boolean offHeapLoad, boolean matchWordDifficulty) {
+        file = wordsFile;
+        this.dataDirPath = dataDirPath;
+        offHeap = offHeapLoad;
+        scoreWords = matchWordDifficulty;
+    }
+
+    @Override
+    protected HangmanCorpus doInBackground() throws Exception {
+        HangmanCorpusLoader loader = new HangmanCorpusLoader();
+        loader.setProgressListener(new HangmanCorpusLoader.ProgressListener() {
+            @Override
+            public void progress(long bytesRead, long totalBytes) {
+                setProgress(totalBytes == 0 ? 100 : (int) (100 * bytesRead / totalBytes));
+            }
+        });
+        HangmanWordIndexCache cache = new HangmanWordIndexCache(dataDirPath);
+        HangmanCorpus corpus = offHeap ? loader.loadOffHeap(file, cache) : loader.load(file, cache);
+        if (scoreWords)
+            corpus.getWordDifficulty(); // scores the words now, so the game does not wait for it
+        return corpus;
+    }
+
+    /**
+     * Gets the file being loaded.
+     *
+     * @return The file's absolute path
+     */
+    public String getFilePath() {
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * Gets whether the words are loaded into a memory-mapped index instead of onto the heap.
+     *
+     * @return Whether or not the load is off-heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Gets the loaded words if they are for a file, waiting for the load to finish if needed. If they are for another
+     * file, the load is cancelled.
+     *
+     * @param filePath The file the game will use
+     * @return The corpus, or null if it is for another file, was cancelled or could not be loaded (the game then
+     * loads the file itself, which reports any error)
+     */
+    public HangmanCorpus getCorpus(String filePath) {
+        if (filePath == null || !new File(filePath).getAbsolutePath().equals(getFilePath())) {
+            cancel(true);
+            return null;
+        }
+        try {
+            return get();
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+}
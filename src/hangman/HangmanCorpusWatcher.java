@@ -0,0 +1,558 @@
+package hangman;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Class that watches the source of a corpus with a WatchService and keeps the corpus up to date while the game runs.
+ * <p>
+ * When words are appended to a single words file, only the new bytes are read, and HangmanCorpus.Appender adds their
+ * words to the corpus. Any other change (a file that shrank, changed before the end that was already read, a
+ * compressed file, a file in a charset that can't be read from the middle, a source made of several files, or words
+ * stored off-heap) makes the watcher load the whole source again. A word still being written at the end of a file is left until the
+ * whitespace after it arrives.
+ * <p>
+ * The new corpus is built on the watcher's thread and then handed to the listener, which only has to swap a reference,
+ * so a game in progress is never blocked. If the source can't be read, the old corpus is kept, the failure is handed
+ * to the listener, and the next change tries again.
+ * <p>
+ * What of the file a corpus holds is the file's size and last bytes as they were just before it was read (see
+ * SourceState), not when the watcher starts, so bytes appended while the file was being loaded are still read as an
+ * append. At worst, words appended during a load are read twice.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanCorpusWatcher {
+    /**
+     * How long to wait for more changes after one is seen, in milliseconds, so a file written in several pieces is
+     * read once.
+     */
+    private static final long SETTLE_TIME = 200;
+    /**
+     * Number of bytes before the end of what was read that are checked to tell an append from other changes.
+     */
+    private static final int CHECK_SIZE = 4096;
+
+    /**
+     * Interface for being told when the corpus changes.
+     */
+    public interface CorpusListener {
+        /**
+         * Called on the watcher's thread with the new corpus.
+         *
+         * @param corpus The corpus of the source as it is now
+         */
+        void corpusChanged(HangmanCorpus corpus);
+
+        /**
+         * Called on the watcher's thread when the source changed but could not be read again. The old corpus is kept.
+         *
+         * @param failure Why the source could not be read
+         */
+        void corpusRefreshFailed(Exception failure);
+    }
+
+    /**
+     * The source being watched.
+     */
+    private File source;
+    /**
+     * The cache of word indexes used when the whole source is loaded again, or null.
+     */
+    private HangmanWordIndexCache cache;
+    /**
+     * Whether or not the source is loaded into a memory-mapped index instead of onto the heap.
+     */
+    private boolean offHeap;
+    /**
+     * Listener told about each new corpus.
+     */
+    private CorpusListener listener;
+    /**
+     * Adds appended words to the corpus, or null until the first append is read. It is made on the watcher's thread,
+     * as it has to go through every word of the corpus.
+     */
+    private HangmanCorpus.Appender appender;
+    /**
+     * The corpus of the source as it is now.
+     */
+    private volatile HangmanCorpus corpus;
+    /**
+     * The file's charset, for reading appended bytes, or null if appends can't be read on their own.
+     */
+    private Charset charset;
+    /**
+     * Number of bytes of the file whose words are in the corpus.
+     */
+    private long bytesRead;
+    /**
+     * The last bytes (up to CHECK_SIZE) before bytesRead, as they were when read.
+     */
+    private byte[] checkBytes;
+    /**
+     * Whether or not the bytes read so far end in whitespace, so the next word starts with the appended bytes.
+     */
+    private boolean endsAtWordBoundary;
+    /**
+     * Service notified of changes to the source's directories.
+     */
+    private WatchService watchService;
+    /**
+     * Thread that waits for changes and updates the corpus.
+     */
+    private Thread watcherThread;
+    /**
+     * Why the source could not be read the last time it changed, or null if it was read.
+     */
+    private volatile Exception lastFailure;
+
+    /**
+     * Constructor to instantiate HangmanCorpusWatcher objects. Call start() to start watching.
+     *
+     * @param loadedCorpus   The corpus of the source as it is now
+     * @param sourceFile     The source: a words file, a directory, or several of them separated by File.pathSeparator
+     * @param indexCache     The cache of word indexes, or null
+     * @param offHeapLoad    Whether or not the source is loaded into a memory-mapped index (which needs a cache)
+     *                       instead of onto the heap
+     * @param corpusListener Listener told about each new corpus
+     */
+    public HangmanCorpusWatcher(HangmanCorpus loadedCorpus, File sourceFile, HangmanWordIndexCache indexCache, boolean offHeapLoad, CorpusListener corpusListener) {
+        corpus = loadedCorpus;
+        source = sourceFile;
+        cache = indexCache;
+        offHeap = offHeapLoad;
+        listener = corpusListener;
+    }
+
+    /**
+     * Starts watching the source on a daemon thread.
+     *
+     * @throws IOException If the source's directories could not be watched
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : getWatchedDirectories())
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        markRead(corpus.getSourceState());
+        watcherThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "Hangman file watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    /**
+     * Stops watching the source.
+     */
+    public void stop() {
+        if (watcherThread != null)
+            watcherThread.interrupt();
+        try {
+            if (watchService != null)
+                watchService.close();
+        } catch (IOException e) {
+            // nothing more will be read from it
+        }
+    }
+
+    /**
+     * Gets the corpus of the source as it is now.
+     *
+     * @return The corpus
+     */
+    public HangmanCorpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Gets why the source could not be read the last time it changed.
+     *
+     * @return The failure, or null if the source was read (or has not changed)
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Gets the directories whose changes can change the source: the directory holding each file, and each directory
+     * (with its subdirectories) that is part of the source.
+     *
+     * @return The directories
+     * @throws IOException If a directory could not be listed
+     */
+    private Set<Path> getWatchedDirectories() throws IOException {
+        final Set<Path> directories = new LinkedHashSet<Path>();
+        for (String part : source.getPath().split(Pattern.quote(File.pathSeparator))) {
+            if (part.isEmpty())
+                continue;
+            File file = new File(part).getAbsoluteFile();
+            if (file.isDirectory()) {
+                Files.walkFileTree(file.toPath(), new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        directories.add(dir);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } else if (file.getParentFile() != null) {
+                directories.add(file.getParentFile().toPath());
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * Waits for changes to the source and updates the corpus after each. Runs on the watcher's thread.
+     */
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = isSourceChanged(key);
+                // lets a file that is being written settle, and reads the changes that came with it
+                while ((key = watchService.poll(SETTLE_TIME, TimeUnit.MILLISECONDS)) != null)
+                    changed |= isSourceChanged(key);
+                if (changed)
+                    refresh();
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    /**
+     * Checks if the changes of a watch key are to the source, and resets the key.
+     *
+     * @param key A signalled watch key
+     * @return Whether or not the source may have changed
+     */
+    private boolean isSourceChanged(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true; // events were lost, so anything may have changed
+            } else {
+                File changedFile = directory.resolve((Path) event.context()).toFile();
+                if (!changedFile.getName().startsWith("."))
+                    changed |= isPartOfSource(changedFile);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Checks if a file is, or would be, part of the source.
+     *
+     * @param file A file in a watched directory
+     * @return Whether or not the file is part of the source
+     */
+    private boolean isPartOfSource(File file) {
+        for (String part : source.getPath().split(Pattern.quote(File.pathSeparator))) {
+            if (part.isEmpty())
+                continue;
+            File partFile = new File(part).getAbsoluteFile();
+            if (partFile.equals(file) || file.getPath().startsWith(partFile.getPath() + File.separator))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the corpus after the source changed, reading only the appended bytes if that is all that changed. If the
+     * source can't be read, the old corpus can still be played with, and the next change tries again.
+     */
+    private void refresh() {
+        HangmanCorpus refreshed;
+        try {
+            refreshed = isAppend() ? readAppended() : reload();
+        } catch (IOException e) {
+            failed(e);
+            return;
+        } catch (RuntimeException e) {
+            failed(e); // so one bad load does not stop the watcher for good
+            return;
+        }
+        lastFailure = null;
+        if (refreshed != corpus) {
+            corpus = refreshed;
+            listener.corpusChanged(refreshed);
+        }
+    }
+
+    /**
+     * Records that the source could not be read and tells the listener, unless the watcher is being stopped (which
+     * interrupts the load).
+     *
+     * @param failure Why the source could not be read
+     */
+    private void failed(Exception failure) {
+        if (Thread.currentThread().isInterrupted())
+            return;
+        lastFailure = failure;
+        listener.corpusRefreshFailed(failure);
+    }
+
+    /**
+     * Checks if the only change to the source is bytes appended to a file whose words can be read on their own.
+     *
+     * @return Whether or not the appended bytes can be read on their own
+     * @throws IOException If the file could not be read
+     */
+    private boolean isAppend() throws IOException {
+        if (charset == null || !source.isFile() || source.length() < bytesRead)
+            return false;
+        byte[] current = readBytes(bytesRead - checkBytes.length, checkBytes.length);
+        return Arrays.equals(current, checkBytes) && (endsAtWordBoundary || source.length() == bytesRead);
+    }
+
+    /**
+     * Reads the words of the bytes appended to the file, up to the last whitespace, and adds them to the corpus.
+     *
+     * @return The new corpus, or the same corpus if no whole word was appended
+     * @throws IOException If the file could not be read
+     */
+    private HangmanCorpus readAppended() throws IOException {
+        long end = findLastWordBoundary(source.length());
+        if (end <= bytesRead)
+            return corpus;
+        final HangmanWordStore appended = new HangmanWordStore();
+        FileChannel channel = new FileInputStream(source).getChannel();
+        try {
+            channel.position(bytesRead);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            new HangmanWordTokenizer().tokenize(new BoundedInputStream(in, end - bytesRead), charset, new HangmanWordTokenizer.WordHandler() {
+                @Override
+                public void handleWord(char[] word, int length) {
+                    try {
+                        appended.add(word, 0, length);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+        if (appender == null)
+            appender = new HangmanCorpus.Appender(corpus);
+        HangmanCorpus appendedCorpus = appended.isEmpty() ? corpus : appender.append(appended);
+        setBytesRead(end, true);
+        return appendedCorpus;
+    }
+
+    /**
+     * Loads the whole source again.
+     *
+     * @return The new corpus
+     * @throws IOException If the source could not be read
+     */
+    private HangmanCorpus reload() throws IOException {
+        SourceState state = SourceState.capture(source); // before loading, so bytes appended meanwhile are not lost
+        HangmanCorpusLoader loader = new HangmanCorpusLoader();
+        HangmanCorpus reloaded;
+        if (offHeap)
+            reloaded = loader.loadOffHeap(source, cache);
+        else
+            reloaded = cache == null ? loader.load(source) : loader.load(source, cache);
+        markRead(state);
+        return reloaded;
+    }
+
+    /**
+     * Records how much of the source has been read into the corpus, and works out whether appends to it can be read
+     * on their own.
+     *
+     * @param state The source as it was just before it was read, or null if that is not known, in which case the
+     *              source as it is now is taken to have been read
+     * @throws IOException If the file could not be read
+     */
+    private void markRead(SourceState state) throws IOException {
+        appender = null;
+        charset = null;
+        if (offHeap || !source.isFile() || HangmanDecompressor.isCompressed(source))
+            return; // appending needs the words on the heap
+        if (state == null)
+            state = SourceState.capture(source);
+        if (state == null)
+            return; // the file went away
+        byte[] sample = readBytes(0, (int) Math.min(source.length(), HangmanCharsetDetector.SAMPLE_SIZE));
+        Charset detected = HangmanCharsetDetector.detect(sample, sample.length);
+        if (!HangmanWordTokenizer.isAsciiCompatible(detected))
+            return; // the bytes of these charsets can't be split at whitespace without decoding from the start
+        charset = detected;
+        bytesRead = state.length;
+        checkBytes = state.checkBytes;
+        endsAtWordBoundary = checkBytes.length == 0 || HangmanWordTokenizer.isWhitespace(checkBytes[checkBytes.length - 1]);
+    }
+
+    /**
+     * Records how much of the file has been read.
+     *
+     * @param length       Number of bytes read
+     * @param wordBoundary Whether or not the bytes read end in whitespace
+     * @throws IOException If the file could not be read
+     */
+    private void setBytesRead(long length, boolean wordBoundary) throws IOException {
+        bytesRead = length;
+        endsAtWordBoundary = wordBoundary;
+        int checkLength = (int) Math.min(length, CHECK_SIZE);
+        checkBytes = readBytes(source, length - checkLength, checkLength);
+    }
+
+    /**
+     * Finds the end of the last whitespace byte in the file, so a word still being written is not read.
+     *
+     * @param length Size of the file
+     * @return Position just after the last whitespace byte after bytesRead, or bytesRead if there is none
+     * @throws IOException If the file could not be read
+     */
+    private long findLastWordBoundary(long length) throws IOException {
+        long end = length;
+        while (end > bytesRead) {
+            int blockLength = (int) Math.min(CHECK_SIZE, end - bytesRead);
+            byte[] block = readBytes(end - blockLength, blockLength);
+            for (int i = block.length - 1; i >= 0; i--)
+                if (HangmanWordTokenizer.isWhitespace(block[i]))
+                    return end - blockLength + i + 1;
+            end -= blockLength;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * Reads bytes from the file.
+     *
+     * @param position Position of the first byte
+     * @param length   Number of bytes
+     * @return The bytes; fewer than length if the file is shorter
+     * @throws IOException If the file could not be read
+     */
+    private byte[] readBytes(long position, int length) throws IOException {
+        return readBytes(source, position, length);
+    }
+
+    /**
+     * Reads bytes from a file.
+     *
+     * @param file     A file
+     * @param position Position of the first byte
+     * @param length   Number of bytes
+     * @return The bytes; fewer than length if the file is shorter
+     * @throws IOException If the file could not be read
+     */
+    private static byte[] readBytes(File file, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        FileChannel channel = new FileInputStream(file).getChannel();
+        try {
+            while (bytes.hasRemaining() && channel.read(bytes, position + bytes.position()) > 0) {
+                // keeps reading until the buffer is full or the file ends
+            }
+        } finally {
+            channel.close();
+        }
+        return Arrays.copyOf(bytes.array(), bytes.position());
+    }
+
+    /**
+     * The size and last bytes of a words file at one moment, taken just before the file is read so the corpus knows
+     * what of the file it holds.
+     */
+    static class SourceState {
+        /**
+         * Size of the file, in bytes.
+         */
+        private long length;
+        /**
+         * The last bytes (up to CHECK_SIZE) of the file.
+         */
+        private byte[] checkBytes;
+
+        /**
+         * Constructor to instantiate SourceState objects
+         *
+         * @param fileLength Size of the file
+         * @param lastBytes  The last bytes of the file
+         */
+        private SourceState(long fileLength, byte[] lastBytes) {
+            length = fileLength;
+            checkBytes = lastBytes;
+        }
+
+        /**
+         * Takes the state of a source as it is now.
+         *
+         * @param source A source
+         * @return The state, or null if the source is not a single file
+         * @throws IOException If the file could not be read
+         */
+        static SourceState capture(File source) throws IOException {
+            if (!source.isFile())
+                return null;
+            long length = source.length();
+            int checkLength = (int) Math.min(length, CHECK_SIZE);
+            byte[] lastBytes = readBytes(source, length - checkLength, checkLength);
+            if (lastBytes.length < checkLength)
+                return null; // the file shrank while it was read, so it is being rewritten
+            return new SourceState(length, lastBytes);
+        }
+    }
+
+    /**
+     * Stream that ends after a number of bytes, so bytes appended while reading are left for the next change.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        /**
+         * Number of bytes left to read.
+         */
+        private long remaining;
+
+        /**
+         * Constructor to instantiate BoundedInputStream objects
+         *
+         * @param in    The stream
+         * @param limit Number of bytes to read from it
+         */
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0)
+                return -1;
+            int b = super.read();
+            if (b != -1)
+                remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0)
+                return -1;
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0)
+                remaining -= read;
+            return read;
+        }
+    }
+}
@@ -48,6 +48,7 @@ public class HangmanDataManager {
             README_writer.println("USER INSTRUCTIONS:");
             README_writer.println("");
             README_writer.println("DO NOT delete \"hangman.config\" and \"hangman_scores\" unless you wish to delete game configuration and saved scores.");
+            README_writer.println("The \"hangman_words_\" index files can be deleted at any time; they are rebuilt from the words file when needed.");
             README_writer.println("BEFORE running this program, please have the Java Development Kit installed for the Java version you are running. ");
             README_writer.println("");
             README_writer.println("GAME RULES: ");
@@ -0,0 +1,270 @@
+package hangman;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Class that reads compressed words files (.gz and .zip) without inflating them to disk.
+ * <p>
+ * The file is decompressed on a thread of its own, which hands blocks of decompressed bytes to the reading thread
+ * through a bounded queue, so decompressing and tokenizing happen at the same time. The entries of a zip file are read
+ * one after another, with a line break between them so a word can't run from one entry into the next. The line break
+ * is written in the charset of the first entry (worked out from its first bytes, as the loader does), so it does not
+ * put UTF-16 text out of line.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanDecompressor {
+    /**
+     * Size of the blocks of decompressed bytes.
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+    /**
+     * Number of blocks the decompressing thread can get ahead of the reading thread.
+     */
+    private static final int BLOCKS_AHEAD = 16;
+    /**
+     * Block that marks the end of the decompressed bytes.
+     */
+    private static final byte[] END = new byte[0];
+
+    /**
+     * Checks if a file is compressed in a format that can be read.
+     *
+     * @param file A file
+     * @return Whether or not the file is a .gz or .zip file
+     */
+    public static boolean isCompressed(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".gz") || name.endsWith(".zip");
+    }
+
+    /**
+     * Opens a compressed file and starts decompressing it.
+     *
+     * @param file A .gz or .zip file
+     * @return Stream of the decompressed bytes, which must be closed
+     * @throws IOException If the file could not be opened
+     */
+    public static DecompressingInputStream open(File file) throws IOException {
+        return new DecompressingInputStream(file);
+    }
+
+    /**
+     * Stream of the decompressed bytes of a file, which are decompressed on another thread.
+     */
+    public static class DecompressingInputStream extends InputStream {
+        /**
+         * Blocks of decompressed bytes, ending with END.
+         */
+        private BlockingQueue<byte[]> blocks;
+        /**
+         * Thread that decompresses the file.
+         */
+        private Thread decompressor;
+        /**
+         * Error the decompressing thread stopped with, if any.
+         */
+        private volatile Throwable error;
+        /**
+         * Number of bytes of the compressed file read so far.
+         */
+        private volatile long compressedBytesRead;
+        /**
+         * Block being read.
+         */
+        private byte[] block;
+        /**
+         * Position in the block being read.
+         */
+        private int position;
+
+        /**
+         * Constructor to instantiate DecompressingInputStream objects, which starts the decompressing thread
+         *
+         * @param file A .gz or .zip file
+         * @throws IOException If the file could not be opened
+         */
+        private DecompressingInputStream(final File file) throws IOException {
+            final InputStream compressed = new FileInputStream(file);
+            blocks = new ArrayBlockingQueue<byte[]>(BLOCKS_AHEAD);
+            block = null;
+            position = 0;
+            decompressor = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    decompress(file, compressed);
+                }
+            }, "Hangman decompressor");
+            decompressor.setDaemon(true);
+            decompressor.start();
+        }
+
+        /**
+         * Decompresses the file into blocks. Runs on the decompressing thread.
+         *
+         * @param file       The file
+         * @param compressed Stream of the file's bytes
+         */
+        private void decompress(File file, InputStream compressed) {
+            InputStream counted = new FilterInputStream(new BufferedInputStream(compressed, BLOCK_SIZE)) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = super.read(b, off, len);
+                    if (read > 0)
+                        compressedBytesRead += read;
+                    return read;
+                }
+            };
+            boolean closed = false;
+            try {
+                try {
+                    if (file.getName().toLowerCase().endsWith(".zip")) {
+                        ZipInputStream zip = new ZipInputStream(counted);
+                        ZipEntry entry;
+                        byte[] separator = null;
+                        while ((entry = zip.getNextEntry()) != null) {
+                            if (!entry.isDirectory()) {
+                                byte[] first = copyBlocks(zip);
+                                if (separator == null && first != null)
+                                    separator = lineBreakFor(first);
+                                if (separator != null)
+                                    blocks.put(separator);
+                            }
+                        }
+                    } else {
+                        copyBlocks(new GZIPInputStream(counted, BLOCK_SIZE));
+                    }
+                } finally {
+                    counted.close();
+                }
+            } catch (InterruptedException e) {
+                closed = true; // nothing is waiting for the end
+            } catch (Throwable e) {
+                error = e; // including unchecked errors, e.g. from a malformed zip entry name
+            } finally {
+                if (!closed) {
+                    try {
+                        blocks.put(END); // always, so the reading thread is never left waiting
+                    } catch (InterruptedException e) {
+                        // the stream was closed
+                    }
+                }
+            }
+        }
+
+        /**
+         * Works out the bytes of a line break in the charset of some decompressed bytes.
+         *
+         * @param first The first bytes of an entry
+         * @return The line break
+         */
+        private static byte[] lineBreakFor(byte[] first) {
+            Charset charset = HangmanCharsetDetector.detect(first, first.length);
+            if (charset.equals(StandardCharsets.UTF_16)) // has a byte order mark, which gives the byte order
+                charset = (first[0] & 0xFF) == 0xFF ? StandardCharsets.UTF_16LE : StandardCharsets.UTF_16BE;
+            return "\n".getBytes(charset);
+        }
+
+        /**
+         * Copies the bytes of a stream into blocks. Runs on the decompressing thread.
+         *
+         * @param in A stream of decompressed bytes
+         * @return The first block, or null if the stream was empty
+         * @throws IOException          If the stream could not be read
+         * @throws InterruptedException If the stream was closed
+         */
+        private byte[] copyBlocks(InputStream in) throws IOException, InterruptedException {
+            byte[] first = null;
+            byte[] next = new byte[BLOCK_SIZE];
+            int used = 0;
+            int read;
+            while ((read = in.read(next, used, next.length - used)) != -1) {
+                used += read;
+                if (used == next.length) {
+                    blocks.put(next);
+                    if (first == null)
+                        first = next;
+                    next = new byte[BLOCK_SIZE];
+                    used = 0;
+                }
+            }
+            if (used > 0) {
+                byte[] last = Arrays.copyOf(next, used);
+                blocks.put(last);
+                if (first == null)
+                    first = last;
+            }
+            return first;
+        }
+
+        /**
+         * Gets the number of bytes of the compressed file read so far, for reporting progress.
+         *
+         * @return Number of compressed bytes read
+         */
+        public long getCompressedBytesRead() {
+            return compressedBytesRead;
+        }
+
+        /**
+         * Makes sure there is a block with bytes left to read, waiting for the decompressing thread if needed.
+         *
+         * @return false if the end of the decompressed bytes was reached
+         * @throws IOException If the file could not be decompressed
+         */
+        private boolean nextBlock() throws IOException {
+            while (block != END && (block == null || position == block.length)) {
+                try {
+                    block = blocks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Reading was cancelled");
+                }
+                position = 0;
+            }
+            if (block == END) {
+                if (error instanceof IOException)
+                    throw (IOException) error;
+                if (error instanceof Error)
+                    throw (Error) error;
+                if (error != null)
+                    throw new IOException("The file could not be decompressed", error);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextBlock())
+                return -1;
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            if (!nextBlock())
+                return -1;
+            int count = Math.min(len, block.length - position);
+            System.arraycopy(block, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            decompressor.interrupt();
+            block = END;
+        }
+    }
+}
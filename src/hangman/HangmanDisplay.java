@@ -143,32 +143,59 @@ public class HangmanDisplay extends JFrame implements ActionListener {
             displayError(exception.getMessage());
         }
 
+        String dataDirPath;
         File dir = new File("Hangman Data");
         if (dir.isDirectory()) {
-            configSavingManager = new HangmanConfigurationManager(dir.getAbsolutePath());
+            dataDirPath = dir.getAbsolutePath();
         } else {
             HangmanDataManager dataMgr = new HangmanDataManager();
-            configSavingManager = new HangmanConfigurationManager(dataMgr.getGameDataDirPath());
+            dataDirPath = dataMgr.getGameDataDirPath();
         }
+        configSavingManager = new HangmanConfigurationManager(dataDirPath);
         configSavingManager.getGameSettings();
 
+        // starts loading the last used file while the user is in the set-up window
+        HangmanCorpusPreloader preloader = null;
+        HangmanConfiguration lastConfiguration = configSavingManager.getConfig();
+        if (lastConfiguration.getFilepath() != null && !lastConfiguration.isLowMemoryMode() && HangmanCorpusLoader.sourceExists(lastConfiguration.getFilepath())) {
+            preloader = new HangmanCorpusPreloader(new File(lastConfiguration.getFilepath()), dataDirPath, lastConfiguration.isOffHeapStorage(),
+                    lastConfiguration.isMatchWordDifficulty());
+            preloader.execute();
+        }
+
         gameScore = new HangmanScorer();
 
-        HangmanSetUp setUp = new HangmanSetUp(configSavingManager.getConfig(), WINDOW_WIDTH, WINDOW_HEIGHT, image);
+        HangmanSetUp setUp = new HangmanSetUp(lastConfiguration, preloader, WINDOW_WIDTH, WINDOW_HEIGHT, image);
         HangmanConfiguration gameConfiguration = setUp.getGameConfiguration();
 
         if (gameConfiguration.getFilepath() == null) // if there is no file path in configuration, run file selection utility
             gameConfiguration.setFilePath(getFilePathToStartGame());
 
-        game = new HangmanGame(gameConfiguration);
+        HangmanCorpus preloadedCorpus = null;
+        if (preloader != null)
+            preloadedCorpus = gameConfiguration.isLowMemoryMode() ? null : preloader.getCorpus(gameConfiguration.getFilepath());
+        try {
+            game = new HangmanGame(gameConfiguration, preloadedCorpus);
+        } catch (HangmanException exception) {
+            displayError(exception.getMessage());
+        }
         //System.out.println(game.toString());
+        try {
+            game.startWatching();
+        } catch (IOException exception) {
+            JOptionPane.showMessageDialog(null, new JLabel("<html>There was an error watching the words file for changes. <br/> The game will proceed normally with the words it has read. </html>"), "Hangman - File Watching Error", JOptionPane.INFORMATION_MESSAGE);
+        }
         configSavingManager.saveUserSettings(game); // game has been loaded with set-up data, can now be used to save user settings
         configSavingManager.writeGameSettings(); // writes to file
 
         gameDrawing = new HangmanDrawing(game);
 
-        scoreSavingManager = new HangmanScoreManager(game.getGameDataManager().getGameDataDirPath());
-        scoreSavingManager.readData();
+        scoreSavingManager = new HangmanScoreManager(game.getGameDataDirPath());
+        try {
+            scoreSavingManager.readData();
+        } catch (HangmanException exception) {
+            displayError(exception.getMessage());
+        }
 
         addWindowListener(new WindowListener() {
             public void windowActivated(WindowEvent arg0) {
@@ -218,8 +245,18 @@ public class HangmanDisplay extends JFrame implements ActionListener {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Hangman - Select Words File");
         fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        fileChooser.setMultiSelectionEnabled(true); // several files or a directory are read as one source
         if (fileChooser.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
-            return fileChooser.getSelectedFile().getAbsolutePath();
+            File[] selectedFiles = fileChooser.getSelectedFiles();
+            if (selectedFiles.length == 0)
+                selectedFiles = new File[]{fileChooser.getSelectedFile()};
+            String filePath = "";
+            for (File selected : selectedFiles) {
+                if (!filePath.isEmpty())
+                    filePath += File.pathSeparator;
+                filePath += selected.getAbsolutePath();
+            }
+            return filePath;
         } else {
             // cannot cancel closing..because you cannot edit close operation
             displayError("You have not selected an input file. The program will now be terminated. ");
@@ -377,19 +414,57 @@ public class HangmanDisplay extends JFrame implements ActionListener {
      * @param s a String to be analyzed by the game
      */
     private void updateGame(String s) {
-        String out = game.isInWord(s.toLowerCase());
-        updateUI(out);
-        if (out.equals("got word")) {
+        HangmanGuessResult result = game.makeGuess(s.toLowerCase());
+        updateUI(result);
+        if (!result.isTerminal())
+            return;
+        if (result.getOutcome() == HangmanGuessResult.Outcome.GOT_WORD) {
             game.setGameEndTime(System.currentTimeMillis());
-            gameScore.calculateScore(game.getTurns(), game.getDifficulty());
-            scoreSavingManager.writeData(gameScore);
+            gameScore.calculateScore(game.getTurns(), game.getDifficulty(), game.isEvilMode());
+            saveScore();
             winGame();
-            System.exit(0);
-        } else if (out.equals("out of lives") || out.equals("wrong word")) {
+        } else {
+            saveScore();
+            loseGame(result);
+        }
+        playAgainOrExit();
+    }
+
+    /**
+     * Saves the game's score with the scores on the computer
+     */
+    private void saveScore() {
+        try {
             scoreSavingManager.writeData(gameScore);
-            loseGame(out);
+        } catch (HangmanException exception) {
+            displayError(exception.getMessage());
+        }
+    }
+
+    /**
+     * Asks the user whether to play another game, and either starts one with the words already read or exits.
+     */
+    private void playAgainOrExit() {
+        JLabel playAgainText = new JLabel("Would you like to play again with a new word?");
+        playAgainText.setFont(new Font("book antiqua", Font.PLAIN, 16));
+        Object[] options = {"Play Again", "Exit"};
+        int choice = JOptionPane.showOptionDialog(null, playAgainText, "Hangman - Play Again",
+                JOptionPane.YES_NO_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+        if (choice != JOptionPane.YES_OPTION) {
+            game.stopWatching();
             System.exit(0);
         }
+
+        try {
+            game.newRound();
+        } catch (HangmanException exception) {
+            displayError(exception.getMessage());
+        }
+        gameScore = new HangmanScorer();
+        scoreReportLbl.setText("<html> Scores on Computer: " + scoreSavingManager.getData().numScores() + "<br>Current Max Score: " + scoreSavingManager.getData().findMaxScore() + "</html>");
+        userProgressLbl.setText(game.getUserProgress());
+        incorrectAnswersLbl.setText("");
+        updateLives(game.getStartLives());
     }
 
     /**
@@ -407,14 +482,14 @@ public class HangmanDisplay extends JFrame implements ActionListener {
     /**
      * Displayed dialog if the user loses the game
      *
-     * @param reason The reason why the user lost the game.
+     * @param reason The guess that lost the game.
      */
-    private void loseGame(String reason) {
+    private void loseGame(HangmanGuessResult reason) {
         JLabel loseText;
-        if (reason.equalsIgnoreCase("out of lives"))
+        if (reason.getOutcome() == HangmanGuessResult.Outcome.OUT_OF_LIVES)
             loseText = new JLabel("You have run out of lives. ");
         else
-            loseText = new JLabel("The word you guessed (" + game.getIncorrectGuesses().get(game.getIncorrectGuesses().size() - 1) + ") is incorrect. ");
+            loseText = new JLabel("The word you guessed (" + reason.getGuess() + ") is incorrect. ");
         loseText.setFont(new Font("book antiqua", Font.BOLD, 16));
         loseText.setForeground(Color.RED);
         JOptionPane.showMessageDialog(null, loseText, "Hangman - Program Finishing ",
@@ -430,32 +505,50 @@ public class HangmanDisplay extends JFrame implements ActionListener {
         closingLabel.setFont(new Font("book antiqua", Font.PLAIN, 16));
         int choice = JOptionPane.showOptionDialog(null, closingLabel,
                 "Hangman - Closing ", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE, null, null, null);
-        if (choice == JOptionPane.OK_OPTION)
+        if (choice == JOptionPane.OK_OPTION) {
+            game.stopWatching();
             System.exit(0);
+        }
     }
 
 
     /**
      * Updates the game's UI upon change
      *
-     * @param s a String that will determine how the UI will be changed
-     */
-    private void updateUI(String s) {
-        if (s.equals("added to word") || s.equals("got word"))
-            userProgressLbl.setText(game.getUserProgress());
-        else if (s.equals("not in word") || s.equals("out of lives") || s.equals("wrong word")) {
-            if (incorrectAnswersLbl.getText().equals("")) {
-                incorrectAnswersLbl.setText(game.getIncorrectGuesses().get(game.getIncorrectGuesses().size() - 1));
-            } else
-                incorrectAnswersLbl.setText(incorrectAnswersLbl.getText() + ", "
-                        + game.getIncorrectGuesses().get(game.getIncorrectGuesses().size() - 1));
-            if (s.equals("out of lives") || s.equals("wrong word"))
-                userProgressLbl.setText(game.getActualWord());
-            add(gameDrawing);
+     * @param result The result of a guess, which determines how the UI will be changed
+     */
+    private void updateUI(HangmanGuessResult result) {
+        switch (result.getOutcome()) {
+            case ADDED_TO_WORD:
+            case GOT_WORD:
+                userProgressLbl.setText(result.getUserProgress());
+                break;
+            case NOT_IN_WORD:
+            case OUT_OF_LIVES:
+            case WRONG_WORD:
+                if (incorrectAnswersLbl.getText().equals("")) {
+                    incorrectAnswersLbl.setText(result.getGuess());
+                } else
+                    incorrectAnswersLbl.setText(incorrectAnswersLbl.getText() + ", " + result.getGuess());
+                if (result.isTerminal())
+                    userProgressLbl.setText(game.getActualWord());
+                add(gameDrawing);
+                break;
+            default:
+                break;
         }
-        userLivesLeftLbl.setText("Lives: " + (game.getStartLives() - game.getNumIncorrect()) + "/" + game.getStartLives()); // updates lives label
+        updateLives(result.getLivesLeft());
+    }
+
+    /**
+     * Updates the lives label and readies the input field for the next guess
+     *
+     * @param livesLeft The user's number of lives left
+     */
+    private void updateLives(int livesLeft) {
+        userLivesLeftLbl.setText("Lives: " + livesLeft + "/" + game.getStartLives()); // updates lives label
         // updates tool tip of lives label
-        userLivesLeftLbl.setToolTipText("Your current number of lives (" + (game.getStartLives() - game.getNumIncorrect()) + ") out of the total number of lives for the difficulty you chose (" + game.getDifficulty() + ": " + game.getStartLives() + ")");
+        userLivesLeftLbl.setToolTipText("Your current number of lives (" + livesLeft + ") out of the total number of lives for the difficulty you chose (" + game.getDifficulty() + ": " + game.getStartLives() + ")");
         userInputFld.setText(NEXT_LETTER_GUESS);
         repaint();
     }
@@ -0,0 +1,266 @@
+package hangman;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Class that runs hangman games without a display: it loads words, starts games, takes guesses, and scores and saves
+ * finished games. Errors are thrown as HangmanExceptions instead of being shown in dialogs, and no Swing or AWT
+ * classes are used, so it can run on a server (including with java.awt.headless set) and from any thread.
+ * <p>
+ * Words are loaded once per file and shared by every game started from that file, as a corpus is never changed once
+ * it is built. Games started on a file that is still loading wait for that load rather than loading it again. A
+ * single game is not thread-safe: each game should only be played by one thread at a time. Scores kept in memory are
+ * only counted and compared, without a lock, so games that end at once don't wait for each other.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanEngine {
+    /**
+     * The data directory, where word indexes and scores are kept.
+     */
+    private String dataDirPath;
+    /**
+     * Saves the scores to the data directory, or null if scores are only kept in memory.
+     */
+    private HangmanScoreManager scoreManager;
+    /**
+     * The saved scores, or null if scores are only kept in memory. Guarded by itself.
+     */
+    private HangmanScoreList savedScores;
+    /**
+     * Number of scores kept in memory.
+     */
+    private LongAdder scoreCount;
+    /**
+     * Highest score kept in memory.
+     */
+    private LongAccumulator maxScore;
+    /**
+     * The load of the words of each file, by the file's absolute path. A load that failed is removed, so the file is
+     * tried again by the next game.
+     */
+    private ConcurrentMap<String, FutureTask<HangmanCorpus>> corpora;
+
+    /**
+     * Constructor to instantiate HangmanEngine objects
+     *
+     * @param dataDirPath The data directory, which is created if it does not exist
+     * @param saveScores  Whether or not scores are saved to (and first read from) the data directory, instead of only
+     *                    being kept in memory. The scores file is written whole after every game, so for many
+     *                    games (e.g. on a server) scores are best kept in memory
+     * @throws HangmanException If the data directory could not be created or the saved scores could not be read
+     */
+    public HangmanEngine(String dataDirPath, boolean saveScores) throws HangmanException {
+        File directory = new File(dataDirPath);
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new HangmanException("The game data directory \"" + dataDirPath + "\" could not be created.");
+        this.dataDirPath = directory.getAbsolutePath();
+        if (saveScores) {
+            scoreManager = new HangmanScoreManager(this.dataDirPath);
+            scoreManager.readData();
+            savedScores = scoreManager.getData();
+        } else {
+            scoreCount = new LongAdder();
+            maxScore = new LongAccumulator(new LongBinaryOperator() {
+                @Override
+                public long applyAsLong(long max, long score) {
+                    return Math.max(max, score);
+                }
+            }, Integer.MIN_VALUE);
+        }
+        corpora = new ConcurrentHashMap<String, FutureTask<HangmanCorpus>>();
+    }
+
+    /**
+     * Gets the words of a file, loading them the first time they are asked for. The first thread to ask for a file
+     * loads it, and threads that ask for it meanwhile wait for that load instead of loading the file too.
+     *
+     * @param file    The words file (or directory of words files)
+     * @param offHeap Whether or not to keep the words in a memory-mapped index instead of on the heap, if they are
+     *                loaded now
+     * @return The file's words
+     * @throws HangmanException If the file could not be read, or the thread was interrupted while waiting for it
+     */
+    public HangmanCorpus getCorpus(final File file, final boolean offHeap) throws HangmanException {
+        String path = file.getAbsolutePath();
+        FutureTask<HangmanCorpus> load = corpora.get(path);
+        if (load == null) {
+            FutureTask<HangmanCorpus> newLoad = new FutureTask<HangmanCorpus>(new Callable<HangmanCorpus>() {
+                @Override
+                public HangmanCorpus call() throws IOException {
+                    HangmanWordIndexCache cache = new HangmanWordIndexCache(dataDirPath);
+                    HangmanCorpusLoader loader = new HangmanCorpusLoader();
+                    return offHeap ? loader.loadOffHeap(file, cache) : loader.load(file, cache);
+                }
+            });
+            load = corpora.putIfAbsent(path, newLoad);
+            if (load == null) { // this thread loads the file
+                load = newLoad;
+                newLoad.run();
+            }
+        }
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HangmanException("Loading the file \"" + file.getName() + "\" was interrupted.", e);
+        } catch (ExecutionException e) {
+            corpora.remove(path, load); // so the next game tries again
+            Throwable cause = e.getCause();
+            if (cause instanceof FileNotFoundException)
+                throw new HangmanException("There was an error reading the file \"" + file.getName() + "\". Make sure \"" + file.getName() + "\" is not a directory!", cause);
+            if (cause instanceof IOException)
+                throw new HangmanException(cause.getMessage(), cause);
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new HangmanException(String.valueOf(cause), cause);
+        }
+    }
+
+    /**
+     * Starts a game. Its words are shared with other games on the same file, unless it is in low memory mode. It
+     * picks its words with the configuration's seed if there is one.
+     *
+     * @param configuration The game's configuration
+     * @return The game
+     * @throws HangmanException If the words file could not be read or has no words that meet the configuration
+     */
+    public HangmanGame newGame(HangmanConfiguration configuration) throws HangmanException {
+        return newGame(configuration, HangmanGame.newRandom(configuration));
+    }
+
+    /**
+     * Starts a game that picks its words with a given source of randomness, e.g. one split from another so a run of
+     * many games can be played again from a single seed.
+     *
+     * @param configuration The game's configuration; its seed is not used
+     * @param random        Source of randomness for picking the game's words, which must not be used by anything
+     *                      else
+     * @return The game
+     * @throws HangmanException If the words file could not be read or has no words that meet the configuration
+     */
+    public HangmanGame newGame(HangmanConfiguration configuration, SplittableRandom random) throws HangmanException {
+        HangmanCorpus corpus = null;
+        if (!configuration.isLowMemoryMode())
+            corpus = getCorpus(new File(configuration.getFilepath()), configuration.isOffHeapStorage());
+        return new HangmanGame(configuration, corpus, dataDirPath, random);
+    }
+
+    /**
+     * Starts another round of a game with a new word.
+     *
+     * @param game A game
+     * @throws HangmanException If the words file could not be read again in low memory mode
+     */
+    public void newRound(HangmanGame game) throws HangmanException {
+        game.newRound();
+    }
+
+    /**
+     * Makes a guess in a game. If the guess ends the game, the game is scored and its score is saved.
+     *
+     * @param game  A game that is not over
+     * @param guess A letter or the whole word, in any case
+     * @return What the guess did
+     * @throws HangmanException If the guess ended the game and its score could not be saved
+     */
+    public HangmanGuessResult guess(HangmanGame game, String guess) throws HangmanException {
+        HangmanGuessResult result = game.makeGuess(guess.toLowerCase());
+        if (result.isTerminal()) {
+            game.setGameEndTime(System.currentTimeMillis());
+            saveScore(score(game, result));
+        }
+        return result;
+    }
+
+    /**
+     * Scores a finished game the way the display does: a won game is scored by its turns, difficulty and evil mode
+     * setting, and a lost game scores 0.
+     *
+     * @param game   A finished game
+     * @param result The result of the guess that ended the game
+     * @return The game's score
+     */
+    public HangmanScorer score(HangmanGame game, HangmanGuessResult result) {
+        return score(game, result.getOutcome());
+    }
+
+    /**
+     * Scores a finished game from the outcome of the guess that ended it, as score() does from its result.
+     *
+     * @param game    A finished game
+     * @param outcome The outcome of the guess that ended the game
+     * @return The game's score
+     */
+    public HangmanScorer score(HangmanGame game, HangmanGuessResult.Outcome outcome) {
+        HangmanScorer scorer = new HangmanScorer();
+        if (outcome == HangmanGuessResult.Outcome.GOT_WORD)
+            scorer.calculateScore(game.getTurns(), game.getDifficulty(), game.isEvilMode());
+        return scorer;
+    }
+
+    /**
+     * Adds a score to the scores, and saves them if scores are saved.
+     *
+     * @param score A score
+     * @throws HangmanException If the scores could not be saved
+     */
+    public void saveScore(HangmanScorer score) throws HangmanException {
+        if (scoreManager == null) {
+            maxScore.accumulate(score.getUserScore()); // before the count, so a counted score is in the maximum
+            scoreCount.increment();
+            return;
+        }
+        synchronized (savedScores) {
+            scoreManager.writeData(score);
+        }
+    }
+
+    /**
+     * Gets the number of scores.
+     *
+     * @return The number of scores
+     */
+    public int getNumScores() {
+        if (scoreManager == null)
+            return scoreCount.intValue();
+        synchronized (savedScores) {
+            return savedScores.numScores();
+        }
+    }
+
+    /**
+     * Gets the highest score.
+     *
+     * @return The highest score, or 0 if there are none
+     */
+    public int getMaxScore() {
+        if (scoreManager == null)
+            return scoreCount.sum() == 0 ? 0 : (int) maxScore.get();
+        synchronized (savedScores) {
+            return savedScores.findMaxScore();
+        }
+    }
+
+    /**
+     * Gets the data directory.
+     *
+     * @return The data directory path
+     */
+    public String getDataDirPath() {
+        return dataDirPath;
+    }
+}
@@ -0,0 +1,33 @@
+package hangman;
+
+/**
+ * Exception thrown when a game can't go on, such as when its words file can't be read or has no words that meet the
+ * user's settings. Its message is meant to be shown to the user.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanException extends Exception {
+    /**
+     * Serialization version, declared as every exception is Serializable.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor to instantiate HangmanException objects
+     *
+     * @param message Message to show the user
+     */
+    public HangmanException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor to instantiate HangmanException objects with the exception that caused them
+     *
+     * @param message Message to show the user
+     * @param cause   The exception that caused the error
+     */
+    public HangmanException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
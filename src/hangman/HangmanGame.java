@@ -1,6 +1,7 @@
 package hangman;
 
 import java.io.*;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
@@ -49,6 +50,26 @@ public class HangmanGame {
      * Default path display state
      */
     public static final boolean DEFAULT_FILE_PATH_DISPLAY_SETTING = true;
+    /**
+     * Default low memory mode setting
+     */
+    public static final boolean DEFAULT_LOW_MEMORY_SETTING = false;
+    /**
+     * Default watch file setting
+     */
+    public static final boolean DEFAULT_WATCH_FILE_SETTING = false;
+    /**
+     * Default off-heap storage setting
+     */
+    public static final boolean DEFAULT_OFF_HEAP_SETTING = false;
+    /**
+     * Default evil mode setting
+     */
+    public static final boolean DEFAULT_EVIL_MODE_SETTING = false;
+    /**
+     * Default match word difficulty setting
+     */
+    public static final boolean DEFAULT_WORD_DIFFICULTY_SETTING = true;
     /**
      * Default minimum word length.
      */
@@ -81,10 +102,30 @@ public class HangmanGame {
      * Player's number of turns, which is based on difficulty level.
      */
     private int turns;
+    /**
+     * Every word read from the file. Volatile because the file watcher swaps in a new corpus from its own thread.
+     */
+    private volatile HangmanCorpus corpus;
     /**
      * Words that can be used by program.
      */
-    private Map<Integer, String> words;
+    private volatile HangmanCorpus.View words;
+    /**
+     * Deals out the indices of words, so a session of games does not repeat a word.
+     */
+    private HangmanWordShuffle shuffle;
+    /**
+     * The words shuffle deals from; if the watcher swaps in new words, they are shuffled again.
+     */
+    private HangmanCorpus.View shuffledWords;
+    /**
+     * Words used in this session, so words shuffled again after a swap are not repeated.
+     */
+    private Set<String> playedWords;
+    /**
+     * Source of randomness for picking words, used only by this game so games don't share (and wait on) one.
+     */
+    private SplittableRandom random;
     /**
      * Source of words.
      */
@@ -94,17 +135,46 @@ public class HangmanGame {
      */
     private int numIncorrect;
     /**
-     * The incorrect guesses.
+     * The incorrect guesses, in the order they were made.
      */
     private ArrayList<String> incorrectGuesses;
+    /**
+     * The letters guessed so far, right or wrong.
+     */
+    private HangmanGuessedLetters guessedLetters;
     /**
      * The actual word; the one the user is trying to guess.
      */
     private String actualWord;
     /**
-     * Representation of how close the user is to getting the actual word.
+     * Representation of how close the user is to getting the actual word, or null when it has to be made again from
+     * progress.
      */
     private String userProgress;
+    /**
+     * Where each letter of the actual word (in lower case) appears.
+     */
+    private HangmanLetterIndex letterIndex;
+    /**
+     * How close the user is to getting the actual word, updated in place as letters are guessed.
+     */
+    private char[] progress;
+    /**
+     * View of progress, for callers that look at the progress after every guess.
+     */
+    private CharSequence progressView;
+    /**
+     * The positions the last guess matched, in a buffer reused from guess to guess.
+     */
+    private int[] revealedPositions;
+    /**
+     * Number of positions the last guess matched.
+     */
+    private int revealedCount;
+    /**
+     * Number of letters of the actual word (in lower case) that have not been guessed yet.
+     */
+    private int hiddenLetters;
     /**
      * User specification on whether or not to use words that are duplicated.
      */
@@ -122,17 +192,102 @@ public class HangmanGame {
      */
     private boolean displayFilePath;
     /**
-     * Game's data manager
+     * Game's low memory mode setting, in which the word is picked while reading the file instead of keeping every word
+     */
+    private boolean lowMemoryMode;
+    /**
+     * Game's watch file setting, in which words added to the file while the game runs are picked up
      */
-    private HangmanDataManager gameDataManager;
+    private boolean watchFile;
+    /**
+     * Keeps the words up to date with the file, or null if the file is not watched
+     */
+    private HangmanCorpusWatcher watcher;
+    /**
+     * Why the file could not be read again the last time it changed, or null if it was read
+     */
+    private volatile Exception watchFailure;
+    /**
+     * Game's off-heap storage setting, in which the words are kept in a memory-mapped index file instead of the heap
+     */
+    private boolean offHeapStorage;
+    /**
+     * Game's evil mode setting, in which the word is not picked up front but kept as any word that fits the guesses
+     * so far, picked so that each guess shows as little as it can
+     */
+    private boolean evilMode;
+    /**
+     * The words the word could still be in evil mode, or null if the word is fixed (not in evil mode, in low memory
+     * mode, or the word is too long to split into families)
+     */
+    private HangmanWordFamilies wordFamilies;
+    /**
+     * Game's match word difficulty setting, in which words are picked from the band of words whose difficulty scores
+     * match the game's difficulty instead of from every word
+     */
+    private boolean matchWordDifficulty;
+    /**
+     * The difficulty band words are picked from, from 0 (easiest) to HangmanWordDifficulty.BANDS - 1 (hardest)
+     */
+    private int wordBand;
+    /**
+     * The band of shuffledWords that shuffle deals from, or null if it deals from every word.
+     */
+    private int[] shuffledBand;
+    /**
+     * Game's data directory, where word indexes are kept
+     */
+    private String gameDataDirPath;
 
     /**
      * Constructor to instantiate HangmanGame object (i.e. Start the game)
      *
      * @param configuration The specific game configuration
+     * @throws HangmanException If the game's words could not be read
+     */
+    public HangmanGame(HangmanConfiguration configuration) throws HangmanException {
+        this(configuration, null);
+    }
+
+    /**
+     * Constructor to instantiate HangmanGame object with words that have already been loaded (i.e. Start the game)
+     *
+     * @param configuration The specific game configuration
+     * @param loadedCorpus  Words loaded ahead of time, which are only used if they are from the configuration's file;
+     *                      may be null
+     * @throws HangmanException If the game's words could not be read
+     */
+    public HangmanGame(HangmanConfiguration configuration, HangmanCorpus loadedCorpus) throws HangmanException {
+        this(configuration, loadedCorpus, new HangmanDataManager().getGameDataDirPath());
+    }
+
+    /**
+     * Constructor to instantiate HangmanGame object with its own data directory, which (unlike the other
+     * constructors) does not write the game's README, so it can be used without a display.
+     *
+     * @param configuration The specific game configuration
+     * @param loadedCorpus  Words loaded ahead of time, which are only used if they are from the configuration's file;
+     *                      may be null
+     * @param dataDirPath   The game data directory, which must exist
+     * @throws HangmanException If the game's words could not be read
+     */
+    public HangmanGame(HangmanConfiguration configuration, HangmanCorpus loadedCorpus, String dataDirPath) throws HangmanException {
+        this(configuration, loadedCorpus, dataDirPath, newRandom(configuration));
+    }
+
+    /**
+     * Constructor to instantiate HangmanGame object that picks its words with a given source of randomness, which
+     * (like the previous constructor) does not write the game's README.
+     *
+     * @param configuration The specific game configuration; its seed is not used
+     * @param loadedCorpus  Words loaded ahead of time, which are only used if they are from the configuration's file;
+     *                      may be null
+     * @param dataDirPath   The game data directory, which must exist
+     * @param wordRandom    Source of randomness for picking words, which must not be used by anything else
+     * @throws HangmanException If the game's words could not be read
      */
-    public HangmanGame(HangmanConfiguration configuration) {
-        gameDataManager = new HangmanDataManager();
+    public HangmanGame(HangmanConfiguration configuration, HangmanCorpus loadedCorpus, String dataDirPath, SplittableRandom wordRandom) throws HangmanException {
+        gameDataDirPath = dataDirPath;
 
         file = new File(configuration.getFilepath());
         difficulty = configuration.getDifficulty();
@@ -140,9 +295,23 @@ public class HangmanGame {
         keepDuplicates = configuration.isKeepDuplicates();
         minimumWordLength = configuration.getMinimumWordLength();
         displayFilePath = configuration.isDisplayFilePath();
-
-        getWords();
-        getRandomWord();
+        lowMemoryMode = configuration.isLowMemoryMode();
+        watchFile = configuration.isWatchFile();
+        offHeapStorage = configuration.isOffHeapStorage();
+        evilMode = configuration.isEvilMode();
+        matchWordDifficulty = configuration.isMatchWordDifficulty();
+        wordBand = determineWordBand();
+        random = wordRandom;
+        playedWords = new HashSet<String>();
+
+        if (lowMemoryMode) {
+            sampleRandomWord();
+        } else {
+            if (loadedCorpus != null && loadedCorpus.getSourcePath().equals(file.getAbsolutePath()))
+                corpus = loadedCorpus;
+            getWords();
+            getRandomWord();
+        }
         readyUserProgress();
 
         startLives = determineStartLives();
@@ -150,76 +319,32 @@ public class HangmanGame {
 
         numIncorrect = 0;
         incorrectGuesses = new ArrayList<String>();
+        guessedLetters = new HangmanGuessedLetters();
 
         gameStartTime = System.currentTimeMillis();
         gameEndTime = 0;
     }
 
     /**
-     * Gets words from a file
+     * Gets words from a file, unless they were already loaded
+     *
+     * @throws HangmanException If the file could not be read or has no words that meet the settings
      */
-    protected void getWords() {
-
-        //https://stackoverflow.com/questions/19992018/reading-single-quotes-from-text-file-in-java-using-bufferedreader
-        words = new HashMap<Integer, String>();
+    protected void getWords() throws HangmanException {
         try {
-            BufferedReader wordRdr = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
-            String line = null;
-            int wordCounter = 0;
-            try {
-                while ((line = wordRdr.readLine()) != null) {
-                    Scanner lineRdr = new Scanner(line);
-                    while (lineRdr.hasNext()) {
-                        String word = lineRdr.next();
-                        word = filter(word);
-
-                        boolean isClear = false;// is it clear to add next word
-                        if (word.length() >= minimumWordLength) {
-                            isClear = true;
-                            /*
-                                minimum word length determines the minimum word length the user would like.
-                                however, the user can still change these settings, so they have to be
-                                checked.
-                             */
-                            if (!keepDuplicates) {
-                                /*
-                                    checks if the word is a duplicate by checking if the Map holding already added
-                                    words contains this word.
-                                 */
-                                if (containsWord(word))
-                                    isClear = false;
-                            }
-                            if (!keepProperNouns) {
-                                /*
-                                    checks if the word is a proper noun by seeing if the first letter is capitalized
-                                    which is checked by checking if the first letter is the same in the word and in the
-                                    lower case version of the word.
-                                 */
-                                if (!word.substring(0, 1).equals(word.substring(0, 1).toLowerCase()))
-                                    isClear = false;
-                            }
-                            //System.out.println(nextWord + ": " + isClear);
-
-                        }
-                        if (isClear) {
-                            words.put(wordCounter, word);
-                            wordCounter++; // to increment key for each new added word
-                        }
-                    }
-                    lineRdr.close();
-                }
-
-                wordRdr.close();
-            } catch (IOException e) {
-                HangmanDisplay.displayError(e.getMessage());
+            if (corpus == null) {
+                HangmanWordIndexCache cache = new HangmanWordIndexCache(gameDataDirPath);
+                HangmanCorpusLoader loader = new HangmanCorpusLoader();
+                corpus = offHeapStorage ? loader.loadOffHeap(file, cache) : loader.load(file, cache);
             }
+            words = corpus.view(minimumWordLength, keepProperNouns, keepDuplicates);
             if (words.isEmpty())
-                HangmanDisplay.displayError("The selected file \"" + file.getName()
+                throw new HangmanException("The selected file \"" + file.getName()
                         + "\" was found to be empty or could not be read. \n\nPlease restart and choose a new file. ");
-
-
         } catch (FileNotFoundException e) {
-            HangmanDisplay.displayError("There was an error reading the file \"" + file.getName() + "\". Make sure \"" + file.getName() + "\" is not a directory!");
+            throw new HangmanException("There was an error reading the file \"" + file.getName() + "\". Make sure \"" + file.getName() + "\" is not a directory!", e);
+        } catch (IOException e) {
+            throw new HangmanException(e.getMessage(), e);
         }
 
         // FOR DEBUGGING ONLY
@@ -233,100 +358,280 @@ public class HangmanGame {
     }
 
     /**
-     * Removes all/filters out non letter or digit characters from a String
-     * @param sequence A String that has not been filtered.
-     * @return The filtered String
+     * Starts watching the file, if the watch file setting is on, so words added to it are used for the next word
+     * picked. Does nothing in low memory mode, where there are no words to update.
+     *
+     * @throws IOException If the file could not be watched
+     */
+    public void startWatching() throws IOException {
+        if (!watchFile || lowMemoryMode || watcher != null)
+            return;
+        watcher = new HangmanCorpusWatcher(corpus, file, new HangmanWordIndexCache(gameDataDirPath), offHeapStorage,
+                new HangmanCorpusWatcher.CorpusListener() {
+                    @Override
+                    public void corpusChanged(HangmanCorpus changedCorpus) {
+                        watchFailure = null;
+                        setCorpus(changedCorpus);
+                    }
+
+                    @Override
+                    public void corpusRefreshFailed(Exception failure) {
+                        watchFailure = failure;
+                        System.err.println("The words file \"" + file.getName() + "\" changed but could not be read again, "
+                                + "so the words already read are kept: " + failure);
+                    }
+                });
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the file, if it is watched. Called when the game ends, so the watcher's thread does not outlive
+     * it.
      */
-    private String filter(String sequence) {
-        String filteredSequence = "";
-        for (int i = 0; i < sequence.length(); i++) {
-            if (Character.isLetterOrDigit(sequence.charAt(i)))
-                filteredSequence += sequence.charAt(i);
+    public void stopWatching() {
+        HangmanCorpusWatcher stopped = watcher;
+        if (stopped != null) {
+            watcher = null;
+            stopped.stop();
         }
-        return filteredSequence;
     }
 
+    /**
+     * Gets why the file could not be read again the last time it changed, while it is watched.
+     *
+     * @return The failure, or null if the file was read (or has not changed)
+     */
+    public Exception getWatchFailure() {
+        return watchFailure;
+    }
 
     /**
-     * Updated version of containsValue() from HashMap.
-     * <p>
-     * If the word occurs at the beginning of a sentence in the words source file then it will be capitalized.
-     * containsValue() is case-sensitive: this would lead to duplicates still existing as "The" and "the" for example.
+     * Swaps in a new corpus of the file. The word being guessed is not changed.
      *
-     * @param word A word.
-     * @return The occurrence of a word represented as a boolean value
+     * @param newCorpus The new corpus
+     */
+    protected void setCorpus(HangmanCorpus newCorpus) {
+        HangmanCorpus.View newWords = newCorpus.view(minimumWordLength, keepProperNouns, keepDuplicates);
+        if (matchWordDifficulty)
+            newWords.getDifficultyBand(wordBand); // scores the new words on the watcher's thread, not the game's
+        corpus = newCorpus;
+        if (!newWords.isEmpty())
+            words = newWords; // a file emptied while it is rewritten keeps the old words until it has words again
+    }
+
+    /**
+     * Makes a source of randomness for picking the words of a game.
+     *
+     * @param configuration The game's configuration
+     * @return A source seeded with the configuration's seed, or one that picks differently every time if it has none
+     */
+    public static SplittableRandom newRandom(HangmanConfiguration configuration) {
+        return configuration.getSeed() == null ? new SplittableRandom() : new SplittableRandom(configuration.getSeed());
+    }
+
+    /**
+     * Gets a random word straight from the file, without keeping the other words in memory.
+     *
+     * @throws HangmanException If the file could not be read or has no words that meet the settings
      */
-    // https://docs.oracle.com/javase/7/docs/api/java/util/HashMap.html#containsValue(java.lang.Object)
-    // "Returns true if this map maps one or more keys to the specified value".
-    private boolean containsWord(String word) {
-        // if words contains the word all lowercase (as it would appear in the main part of a sentence/phrase)
-        // OR
-        // if words contains the word with its first letter capitalized (as it would appear at the beginning of a sentence/phrase)
-        return (words.containsValue(word.toLowerCase()) || words.containsValue(word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase()));
+    protected void sampleRandomWord() throws HangmanException {
+        try {
+            actualWord = new HangmanWordSampler(minimumWordLength, keepProperNouns, keepDuplicates, random).sample(file);
+            if (actualWord == null)
+                throw new HangmanException("The selected file \"" + file.getName()
+                        + "\" was found to be empty or could not be read. \n\nPlease restart and choose a new file. ");
+        } catch (FileNotFoundException e) {
+            throw new HangmanException("There was an error reading the file \"" + file.getName() + "\". Make sure \"" + file.getName() + "\" is not a directory!", e);
+        } catch (IOException e) {
+            throw new HangmanException(e.getMessage(), e);
+        }
     }
 
     /**
-     * Gets a random word from the Map of words.
+     * Gets a random word from the words that has not been used yet in this session. Once every word has been used,
+     * they are all used again. With the match word difficulty setting, the word is picked from the band of words that
+     * matches the game's difficulty (unless the words are not scored, or the band has fewer than
+     * HangmanWordDifficulty.MINIMUM_BAND_SIZE words).
      */
     protected void getRandomWord() {
-        int randomIdx = (int) (Math.random() * words.size());
-        actualWord = words.get(randomIdx);
-        //words.remove(randomIdx); -> read if a "play again" feature is added, so the same word isn't used.
+        HangmanCorpus.View currentWords = words; // the same words throughout, even if the watcher swaps them
+        if (shuffledWords != currentWords) { // the first word, or the watcher swapped in new words
+            shuffledBand = matchWordDifficulty ? currentWords.getDifficultyBand(wordBand) : null;
+            if (shuffledBand != null && shuffledBand.length < HangmanWordDifficulty.MINIMUM_BAND_SIZE)
+                shuffledBand = null;
+            shuffle = new HangmanWordShuffle(shuffledBand == null ? currentWords.size() : shuffledBand.length, random);
+            shuffledWords = currentWords;
+        }
+        while (true) {
+            if (!shuffle.hasNext()) {
+                shuffle = new HangmanWordShuffle(shuffledBand == null ? currentWords.size() : shuffledBand.length, random);
+                playedWords.clear();
+            }
+            int index = shuffle.next();
+            String word = currentWords.get(shuffledBand == null ? index : shuffledBand[index]);
+            if (playedWords.add(word)) {
+                actualWord = word;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts another game with a new word and the same settings, keeping the words that were already read. The word
+     * is one that has not been used in this session (except in low memory mode, where it is picked from the file
+     * again, so it may repeat).
+     *
+     * @throws HangmanException If the file could not be read again in low memory mode
+     */
+    public void newRound() throws HangmanException {
+        if (lowMemoryMode)
+            sampleRandomWord();
+        else
+            getRandomWord();
+        readyUserProgress();
+
+        turns = 0;
+        numIncorrect = 0;
+        incorrectGuesses.clear();
+        guessedLetters.clear();
+
+        gameStartTime = System.currentTimeMillis();
+        gameEndTime = 0;
     }
 
     /**
      * On the screen, the user progress section will be represented as a sequence of hyphens as long as the actual
-     * word's length.
+     * word's length. Also indexes the letters of the word, so guesses don't go through the whole word, and in evil
+     * mode makes every word of the word's length a candidate.
      */
     protected void readyUserProgress() {
-        userProgress = "";
-        for (int i = 0; i < actualWord.length(); i++)
-            userProgress += "-";
+        String lowerCaseWord = actualWord.toLowerCase();
+        letterIndex = new HangmanLetterIndex(lowerCaseWord);
+        hiddenLetters = lowerCaseWord.length();
+        progress = new char[actualWord.length()];
+        Arrays.fill(progress, '-');
+        progressView = CharBuffer.wrap(progress);
+        revealedPositions = new int[progress.length];
+        revealedCount = 0;
+        userProgress = null;
+
+        wordFamilies = null;
+        HangmanCorpus.View currentWords = words;
+        if (evilMode && currentWords != null && lowerCaseWord.length() == actualWord.length()
+                && actualWord.length() <= HangmanWordFamilies.MAXIMUM_WORD_LENGTH) {
+            wordFamilies = new HangmanWordFamilies(currentWords, actualWord.length());
+            if (wordFamilies.getCandidateCount() == 0) // the watcher swapped in words without the word's length
+                wordFamilies = null;
+        }
+    }
+
+    /**
+     * In evil mode, changes the actual word to another word that fits every guess so far, and reindexes it.
+     *
+     * @param word The new actual word
+     */
+    private void changeActualWord(String word) {
+        if (word.equals(actualWord))
+            return;
+        actualWord = word;
+        letterIndex = new HangmanLetterIndex(word.toLowerCase());
     }
 
     /**
      * Returns the status of the guess' occurrence in the actual word.
-     * Note - Initially used boolean but due to various return possibilities, switched to String return
+     * Note - Initially used boolean but due to various return possibilities, switched to String return. Kept for
+     * callers of the string form; makeGuess() returns the outcome as a HangmanGuessResult.
      */
     public String isInWord(String guess) {
+        return guessOutcome(guess).getCode();
+    }
+
+    /**
+     * Makes a guess, which is either a single letter or the whole word.
+     *
+     * @param guess The guess, in lower case
+     * @return What the guess did
+     */
+    public HangmanGuessResult makeGuess(String guess) {
+        HangmanGuessResult.Outcome outcome = guessOutcome(guess);
+        int[] revealed = revealedCount == 0 ? null : Arrays.copyOf(revealedPositions, revealedCount);
+        return new HangmanGuessResult(guess, outcome, revealed, startLives - numIncorrect, getUserProgress());
+    }
+
+    /**
+     * Makes a guess like makeGuess(), but only gives its outcome. Nothing is allocated for the result, so callers that
+     * make many guesses and only need the outcome (e.g. the simulator) should use this.
+     *
+     * @param guess The guess, in lower case
+     * @return The guess' outcome
+     */
+    public HangmanGuessResult.Outcome guessOutcome(String guess) {
+        revealedCount = 0;
         if (guess.length() == 1) {
-            if (actualWord.toLowerCase().indexOf(guess) == -1) {
-                if (incorrectGuesses.indexOf(guess) == -1) {
-                    incorrectGuesses.add(guess);
-                    loseLife();
-                    if (numIncorrect == startLives)
-                        return "out of lives";
+            char letter = guess.charAt(0);
+            if (!guessedLetters.add(letter))
+                return HangmanGuessResult.Outcome.REPEAT; // right or wrong, costs no turn
+            if (wordFamilies != null) // the word becomes one of the largest family of words for the letter
+                changeActualWord(wordFamilies.guess(letter));
+            int position = letterIndex.firstPosition(letter);
+            if (position == HangmanLetterIndex.NONE) {
+                incorrectGuesses.add(guess);
+                loseLife();
+                if (numIncorrect == startLives)
+                    return HangmanGuessResult.Outcome.OUT_OF_LIVES;
+                turns++;
+                return HangmanGuessResult.Outcome.NOT_IN_WORD;
+            } else {
+                for (; position != HangmanLetterIndex.NONE; position = letterIndex.nextPosition(position)) {
+                    // a word whose lower case is longer (e.g. with a dotted capital I) is only got by guessing it
+                    if (position >= progress.length)
+                        continue;
+                    progress[position] = letter;
+                    hiddenLetters--;
+                    userProgress = null;
+                    revealedPositions[revealedCount++] = position;
                     turns++;
-                    return "not in word";
                 }
-                return "repeat";
-            } else {
-
-                for (int i = 0; i < actualWord.length(); i++)
-                    if (actualWord.toLowerCase().substring(i, i + 1).equals(guess)) {
-                        userProgress = userProgress.substring(0, i) + guess + userProgress.substring(i + 1);
-                        turns++;
-                    }
-                if (actualWord.toLowerCase().equals(userProgress))
-                    return "got word";
-                return "added to word";
+                if (hiddenLetters == 0)
+                    return HangmanGuessResult.Outcome.GOT_WORD;
+                return HangmanGuessResult.Outcome.ADDED_TO_WORD;
             }
         } else {
+            if (wordFamilies != null) // a guessed word is only right once it is the only word left
+                changeActualWord(wordFamilies.avoid(guess));
             if (!guess.equalsIgnoreCase(actualWord)) {
                 numIncorrect = startLives; // to set lives to 0 in UI updater
                 // method if the first condition is
                 // the one that is met
                 incorrectGuesses.add(guess);
                 turns++;
-                return "wrong word";
+                return HangmanGuessResult.Outcome.WRONG_WORD;
             } else {
+                for (int i = 0; i < progress.length; i++) // same length, as it equals the actual word
+                    revealedPositions[i] = i;
+                revealedCount = progress.length;
+                guess.getChars(0, progress.length, progress, 0);
+                hiddenLetters = 0;
                 userProgress = guess;
                 turns++;
-                return "got word";
+                return HangmanGuessResult.Outcome.GOT_WORD;
             }
         }
     }
 
+    /**
+     * Determines the difficulty band words are picked from based on difficulty
+     */
+    private int determineWordBand() {
+        if (difficulty.equals("Extreme"))
+            return 3;
+        if (difficulty.equals("Hard"))
+            return 2;
+        if (difficulty.equals("Medium"))
+            return 1;
+        return 0;
+    }
+
     /**
      * Determines startLives based on difficulty
      */
@@ -436,9 +741,20 @@ public class HangmanGame {
      * @return the user's progress.
      */
     public String getUserProgress() {
+        if (userProgress == null)
+            userProgress = new String(progress);
         return userProgress;
     }
 
+    /**
+     * Gets the user's progress without making a String of it.
+     *
+     * @return A view of the user's progress, which changes as guesses are made, until the next round
+     */
+    public CharSequence getProgressView() {
+        return progressView;
+    }
+
     /**
      * Gets the user's choice on whether or not to keep duplicates.
      *
@@ -486,12 +802,66 @@ public class HangmanGame {
     }
 
     /**
-     * Gets game's data manager.
+     * Gets the low memory mode configuration property
+     *
+     * @return The low memory mode configuration property
+     */
+    public boolean isLowMemoryMode() {
+        return lowMemoryMode;
+    }
+
+    /**
+     * Gets the watch file configuration property
+     *
+     * @return The watch file configuration property
+     */
+    public boolean isWatchFile() {
+        return watchFile;
+    }
+
+    /**
+     * Gets the off-heap storage configuration property
+     *
+     * @return The off-heap storage configuration property
+     */
+    public boolean isOffHeapStorage() {
+        return offHeapStorage;
+    }
+
+    /**
+     * Gets the evil mode configuration property
+     *
+     * @return The evil mode configuration property
+     */
+    public boolean isEvilMode() {
+        return evilMode;
+    }
+
+    /**
+     * Gets the match word difficulty configuration property
+     *
+     * @return The match word difficulty configuration property
+     */
+    public boolean isMatchWordDifficulty() {
+        return matchWordDifficulty;
+    }
+
+    /**
+     * Gets the words read from the game's file.
+     *
+     * @return The game's words, or null in low memory mode, where they are not kept
+     */
+    public HangmanCorpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Gets game's data directory.
      *
-     * @return The game's data manager.
+     * @return The game's data directory path.
      */
-    public HangmanDataManager getGameDataManager() {
-        return gameDataManager;
+    public String getGameDataDirPath() {
+        return gameDataDirPath;
     }
 
 
@@ -0,0 +1,180 @@
+package hangman;
+
+/**
+ * Class that holds what a guess did: its outcome, the positions of the word it matched, the lives the user has left
+ * and the user's progress after it. Callers can act on a guess from its result, without comparing strings or asking
+ * the game again.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanGuessResult {
+    /**
+     * The possible outcomes of a guess.
+     */
+    public enum Outcome {
+        /**
+         * The letter is not in the word.
+         */
+        NOT_IN_WORD("not in word", false),
+        /**
+         * The letter was already guessed, whether or not it is in the word; it costs no turn.
+         */
+        REPEAT("repeat", false),
+        /**
+         * The letter is in the word, and there are letters left to guess.
+         */
+        ADDED_TO_WORD("added to word", false),
+        /**
+         * The user got the word, either by its last letter or by guessing it whole; the game is won.
+         */
+        GOT_WORD("got word", true),
+        /**
+         * The letter is not in the word and the user has no lives left; the game is lost.
+         */
+        OUT_OF_LIVES("out of lives", true),
+        /**
+         * The user guessed the whole word and it is not the word; the game is lost.
+         */
+        WRONG_WORD("wrong word", true);
+
+        /**
+         * The string HangmanGame.isInWord() returns for the outcome.
+         */
+        private final String code;
+        /**
+         * Whether or not the outcome ends the game.
+         */
+        private final boolean terminal;
+
+        /**
+         * Constructor to instantiate Outcome constants
+         *
+         * @param code     The string isInWord() returns for the outcome
+         * @param terminal Whether or not the outcome ends the game
+         */
+        Outcome(String code, boolean terminal) {
+            this.code = code;
+            this.terminal = terminal;
+        }
+
+        /**
+         * Gets the string HangmanGame.isInWord() returns for the outcome.
+         *
+         * @return The outcome's string
+         */
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Checks if the outcome ends the game.
+         *
+         * @return Whether or not the outcome ends the game
+         */
+        public boolean isTerminal() {
+            return terminal;
+        }
+    }
+
+    /**
+     * Used for guesses that match no positions.
+     */
+    private static final int[] NO_POSITIONS = new int[0];
+    /**
+     * The guess, as it was made.
+     */
+    private String guess;
+    /**
+     * What the guess did.
+     */
+    private Outcome outcome;
+    /**
+     * The positions of the word the guess matched, in order.
+     */
+    private int[] revealedPositions;
+    /**
+     * The number of lives the user has left after the guess.
+     */
+    private int livesLeft;
+    /**
+     * The user's progress after the guess.
+     */
+    private String userProgress;
+
+    /**
+     * Constructor to instantiate HangmanGuessResult objects
+     *
+     * @param guess             The guess
+     * @param outcome           What the guess did
+     * @param revealedPositions The positions of the word the guess matched in order, or null if it matched none
+     * @param livesLeft         The number of lives left after the guess
+     * @param userProgress      The user's progress after the guess
+     */
+    public HangmanGuessResult(String guess, Outcome outcome, int[] revealedPositions, int livesLeft, String userProgress) {
+        this.guess = guess;
+        this.outcome = outcome;
+        this.revealedPositions = revealedPositions == null ? NO_POSITIONS : revealedPositions;
+        this.livesLeft = livesLeft;
+        this.userProgress = userProgress;
+    }
+
+    /**
+     * Gets the guess.
+     *
+     * @return The guess, as it was made
+     */
+    public String getGuess() {
+        return guess;
+    }
+
+    /**
+     * Gets what the guess did.
+     *
+     * @return The guess' outcome
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the positions of the word the guess matched: every position of a newly guessed letter, or every position of
+     * the word if it was guessed whole.
+     *
+     * @return The matched positions in order, which must not be changed
+     */
+    public int[] getRevealedPositions() {
+        return revealedPositions;
+    }
+
+    /**
+     * Gets the number of lives the user has left.
+     *
+     * @return The number of lives left after the guess
+     */
+    public int getLivesLeft() {
+        return livesLeft;
+    }
+
+    /**
+     * Gets the user's progress.
+     *
+     * @return The user's progress after the guess
+     */
+    public String getUserProgress() {
+        return userProgress;
+    }
+
+    /**
+     * Checks if the guess ended the game.
+     *
+     * @return Whether or not the game is over
+     */
+    public boolean isTerminal() {
+        return outcome.isTerminal();
+    }
+
+    @Override
+    public String toString() {
+        return outcome.getCode();
+    }
+}
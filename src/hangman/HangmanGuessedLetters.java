@@ -0,0 +1,74 @@
+package hangman;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Class that keeps the letters guessed in a game, right or wrong, so a repeated guess is found in O(1) time.
+ * <p>
+ * Letters are kept by code point. ASCII letters and digits, which make up most guesses, are bits in a BitSet; any
+ * other letter goes in a HashSet.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanGuessedLetters {
+    /**
+     * Number of code points kept in the BitSet.
+     */
+    private static final int ASCII_SIZE = 128;
+    /**
+     * The guessed ASCII letters.
+     */
+    private BitSet asciiLetters;
+    /**
+     * The guessed letters outside ASCII, created when the first one is guessed.
+     */
+    private Set<Integer> otherLetters;
+
+    /**
+     * Constructor to instantiate HangmanGuessedLetters objects, with no letters guessed
+     */
+    public HangmanGuessedLetters() {
+        asciiLetters = new BitSet(ASCII_SIZE);
+    }
+
+    /**
+     * Adds a guessed letter.
+     *
+     * @param codePoint The letter's code point
+     * @return Whether or not the letter is new, i.e. false if it was already guessed
+     */
+    public boolean add(int codePoint) {
+        if (codePoint < ASCII_SIZE) {
+            if (asciiLetters.get(codePoint))
+                return false;
+            asciiLetters.set(codePoint);
+            return true;
+        }
+        if (otherLetters == null)
+            otherLetters = new HashSet<Integer>();
+        return otherLetters.add(codePoint);
+    }
+
+    /**
+     * Checks if a letter was guessed.
+     *
+     * @param codePoint The letter's code point
+     * @return Whether or not the letter was guessed
+     */
+    public boolean contains(int codePoint) {
+        if (codePoint < ASCII_SIZE)
+            return asciiLetters.get(codePoint);
+        return otherLetters != null && otherLetters.contains(codePoint);
+    }
+
+    /**
+     * Forgets every guessed letter, for a new game.
+     */
+    public void clear() {
+        asciiLetters.clear();
+        if (otherLetters != null)
+            otherLetters.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package hangman;
+
+import java.util.Arrays;
+
+/**
+ * Class that indexes where each letter appears in a word, so a guessed letter can be looked up without going through
+ * the whole word.
+ * <p>
+ * The distinct letters of the word are kept sorted, each with the position it first appears at, and every position
+ * holds the next position of the same letter. Finding a letter is a binary search over the distinct letters (at most
+ * a few dozen), and going through its positions costs one step per occurrence. Looking up a letter allocates nothing.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanLetterIndex {
+    /**
+     * Marks that there are no more positions.
+     */
+    public static final int NONE = -1;
+    /**
+     * The distinct letters of the word, sorted.
+     */
+    private char[] letters;
+    /**
+     * The position each of the distinct letters first appears at.
+     */
+    private int[] firstPositions;
+    /**
+     * The number of times each of the distinct letters appears.
+     */
+    private int[] counts;
+    /**
+     * The next position of the letter at each position, or NONE if it is the letter's last position.
+     */
+    private int[] nextPositions;
+
+    /**
+     * Constructor to instantiate HangmanLetterIndex objects
+     *
+     * @param word The word to index, as the letters it is guessed with (e.g. in lower case)
+     */
+    public HangmanLetterIndex(String word) {
+        char[] sorted = word.toCharArray();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[distinct++] = sorted[i];
+        letters = Arrays.copyOf(sorted, distinct);
+
+        // goes backwards so each position is linked to the next one of its letter
+        firstPositions = new int[distinct];
+        Arrays.fill(firstPositions, NONE);
+        counts = new int[distinct];
+        nextPositions = new int[word.length()];
+        for (int i = word.length() - 1; i >= 0; i--) {
+            int letter = Arrays.binarySearch(letters, word.charAt(i));
+            nextPositions[i] = firstPositions[letter];
+            firstPositions[letter] = i;
+            counts[letter]++;
+        }
+    }
+
+    /**
+     * Gets the first position of a letter in the word.
+     *
+     * @param letter The letter
+     * @return The first position of the letter, or NONE if the letter is not in the word
+     */
+    public int firstPosition(char letter) {
+        int i = Arrays.binarySearch(letters, letter);
+        return i < 0 ? NONE : firstPositions[i];
+    }
+
+    /**
+     * Gets the next position of the letter at a position.
+     *
+     * @param position A position in the word
+     * @return The next position holding the same letter, or NONE if there is none
+     */
+    public int nextPosition(int position) {
+        return nextPositions[position];
+    }
+
+    /**
+     * Checks if a letter is in the word.
+     *
+     * @param letter The letter
+     * @return Whether or not the letter is in the word
+     */
+    public boolean contains(char letter) {
+        return Arrays.binarySearch(letters, letter) >= 0;
+    }
+
+    /**
+     * Gets the number of times a letter appears in the word.
+     *
+     * @param letter The letter
+     * @return The number of positions holding the letter
+     */
+    public int count(char letter) {
+        int i = Arrays.binarySearch(letters, letter);
+        return i < 0 ? 0 : counts[i];
+    }
+
+    /**
+     * Gets the length of the indexed word.
+     *
+     * @return The length of the word
+     */
+    public int length() {
+        return nextPositions.length;
+    }
+}
@@ -0,0 +1,251 @@
+package hangman;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Class that puts load on a HangmanServer: it opens many connections at once and plays games on all of them, then
+ * reports how many commands the server handled per second and how long replies took.
+ * <p>
+ * Every connection plays the same way: it starts a game, guesses letters from most to least common in English until
+ * the game is over, and starts the next game, until it has played its share. Like the server, it uses a single thread
+ * with a Selector, so it can open thousands of connections.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanLoadClient {
+    /**
+     * Letters from most to least common in English.
+     */
+    private static final String LETTERS_BY_FREQUENCY = "etaoinshrdlcumwfgypbvkjxqz";
+    /**
+     * Longest reply time kept exactly, in microseconds; longer replies are counted as this long.
+     */
+    private static final int MAXIMUM_LATENCY_MICROS = 1000000;
+    /**
+     * The server's address.
+     */
+    private InetSocketAddress server;
+    /**
+     * Number of connections.
+     */
+    private int connectionCount;
+    /**
+     * Number of games played on each connection.
+     */
+    private int gamesPerConnection;
+    /**
+     * Number of replies that took each number of microseconds.
+     */
+    private long[] latencies;
+    /**
+     * Number of replies.
+     */
+    private long replies;
+    /**
+     * Number of games won.
+     */
+    private long wins;
+    /**
+     * Number of games played.
+     */
+    private long games;
+    /**
+     * Number of ERROR replies.
+     */
+    private long errors;
+
+    /**
+     * Constructor to instantiate HangmanLoadClient objects
+     *
+     * @param serverAddress The server's address
+     * @param connections   Number of connections
+     * @param games         Number of games played on each connection
+     */
+    public HangmanLoadClient(InetSocketAddress serverAddress, int connections, int games) {
+        server = serverAddress;
+        connectionCount = connections;
+        gamesPerConnection = games;
+        latencies = new long[MAXIMUM_LATENCY_MICROS + 1];
+    }
+
+    /**
+     * Plays every game on every connection.
+     *
+     * @return How long it took, in nanoseconds
+     * @throws IOException If a connection could not be made or broke
+     */
+    public long run() throws IOException {
+        Selector selector = Selector.open();
+        long start = System.nanoTime();
+        for (int i = 0; i < connectionCount; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.connect(server);
+            channel.register(selector, SelectionKey.OP_CONNECT, new Player());
+        }
+        int open = connectionCount;
+        while (open > 0) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                SocketChannel channel = (SocketChannel) key.channel();
+                Player player = (Player) key.attachment();
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                    player.send(channel, "NEW");
+                } else if (key.isReadable()) {
+                    if (channel.read(player.in) == -1 || !player.received(channel)) {
+                        channel.close();
+                        open--;
+                    }
+                }
+            }
+        }
+        selector.close();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Gets a percentile of the reply times.
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The reply time, in microseconds
+     */
+    public int getLatencyPercentile(double percentile) {
+        long target = (long) Math.ceil(replies * percentile / 100);
+        long seen = 0;
+        for (int micros = 0; micros < latencies.length; micros++) {
+            seen += latencies[micros];
+            if (seen >= Math.max(1, target))
+                return micros;
+        }
+        return MAXIMUM_LATENCY_MICROS;
+    }
+
+    /**
+     * A connection playing games.
+     */
+    private class Player {
+        /**
+         * What the server sent that has not been handled yet.
+         */
+        private ByteBuffer in = ByteBuffer.allocate(HangmanServer.MAXIMUM_LINE_LENGTH * 2);
+        /**
+         * When the last command was sent, in nanoseconds.
+         */
+        private long sentAt;
+        /**
+         * Number of letters guessed in the current game.
+         */
+        private int guessed;
+        /**
+         * Number of games finished.
+         */
+        private int finished;
+
+        /**
+         * Sends a command.
+         *
+         * @param channel The connection
+         * @param command The command, without its line ending
+         * @throws IOException If the command could not be sent
+         */
+        private void send(SocketChannel channel, String command) throws IOException {
+            ByteBuffer out = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8));
+            sentAt = System.nanoTime();
+            while (out.hasRemaining()) // commands are tiny, so this does not wait in practice
+                channel.write(out);
+        }
+
+        /**
+         * Handles the complete replies received, sending the next command for each.
+         *
+         * @param channel The connection
+         * @return Whether or not the connection stays open
+         * @throws IOException If a command could not be sent
+         */
+        private boolean received(SocketChannel channel) throws IOException {
+            in.flip();
+            int lineStart = 0;
+            boolean stayOpen = true;
+            for (int i = 0; i < in.limit(); i++) {
+                if (in.get(i) != '\n')
+                    continue;
+                String reply = new String(in.array(), lineStart, i - lineStart, StandardCharsets.UTF_8);
+                lineStart = i + 1;
+                stayOpen = next(channel, reply);
+            }
+            in.position(lineStart);
+            in.compact();
+            return stayOpen;
+        }
+
+        /**
+         * Records a reply and sends the next command.
+         *
+         * @param channel The connection
+         * @param reply   The reply
+         * @return Whether or not the connection stays open
+         * @throws IOException If a command could not be sent
+         */
+        private boolean next(SocketChannel channel, String reply) throws IOException {
+            long micros = (System.nanoTime() - sentAt) / 1000;
+            latencies[(int) Math.min(micros, MAXIMUM_LATENCY_MICROS)]++;
+            replies++;
+            if (reply.startsWith("BYE"))
+                return false;
+            if (reply.startsWith("ERROR"))
+                errors++;
+            boolean over = reply.startsWith("ERROR") || reply.startsWith("RESULT " + HangmanGuessResult.Outcome.GOT_WORD)
+                    || reply.startsWith("RESULT " + HangmanGuessResult.Outcome.OUT_OF_LIVES)
+                    || guessed == LETTERS_BY_FREQUENCY.length();
+            if (!reply.startsWith("GAME") && over) {
+                games++;
+                if (reply.startsWith("RESULT " + HangmanGuessResult.Outcome.GOT_WORD))
+                    wins++;
+                guessed = 0;
+                send(channel, ++finished < gamesPerConnection ? "NEW" : "QUIT");
+            } else {
+                send(channel, "GUESS " + LETTERS_BY_FREQUENCY.charAt(guessed++));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Puts load on a server and prints the results.
+     *
+     * @param args Optionally the host (localhost if not given), the port (7070), the number of connections (1000)
+     *             and the number of games per connection (10)
+     */
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        HangmanLoadClient client = new HangmanLoadClient(new InetSocketAddress(host, port), connections, games);
+        try {
+            long nanos = client.run();
+            double seconds = nanos / 1e9;
+            System.out.printf("%d connections, %d games (%d won), %d commands in %.2f s: %.0f commands/s%n",
+                    connections, client.games, client.wins, client.replies, seconds, client.replies / seconds);
+            System.out.printf("Reply time: p50 %d us, p99 %d us, p99.9 %d us; %d errors%n",
+                    client.getLatencyPercentile(50), client.getLatencyPercentile(99), client.getLatencyPercentile(99.9),
+                    client.errors);
+        } catch (IOException e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package hangman;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Class that is a set of words kept off the heap, in a memory-mapped temporary file, so the first occurrences of a
+ * file with more distinct words than fit on the heap can still be worked out.
+ * <p>
+ * The file is mapped privately: changes to it are kept in memory and never written back, as writing back pages the
+ * random updates keep changing made a 250 MB file take minutes to load instead of seconds. The file only reserves the
+ * space, so the set is outside the heap (and not limited by -Xmx) but still in memory.
+ * <p>
+ * Only a 128-bit fingerprint of each word is kept, in an open-addressing hash table that doubles (into a new file)
+ * when it is half full. Two different words have the same fingerprint with a chance of about 2^-128, which is taken to
+ * be never. As the words themselves are not kept, the set can't be iterated.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanMappedWordSet extends AbstractSet<String> implements Closeable {
+    /**
+     * Bytes per slot: the two halves of a fingerprint.
+     */
+    private static final int SLOT_SIZE = 16;
+    /**
+     * Slots per mapped segment, so each segment is under the 2 GB a buffer can map.
+     */
+    private static final long SEGMENT_SLOTS = 1L << 26;
+    /**
+     * Slots of a new table.
+     */
+    private static final long INITIAL_SLOTS = 1L << 16;
+    /**
+     * Directory the table files are created in.
+     */
+    private File directory;
+    /**
+     * The file holding the table.
+     */
+    private File file;
+    /**
+     * The open table file.
+     */
+    private RandomAccessFile table;
+    /**
+     * The table, mapped in segments of SEGMENT_SLOTS slots.
+     */
+    private MappedByteBuffer[] segments;
+    /**
+     * Number of slots, a power of 2.
+     */
+    private long slots;
+    /**
+     * Number of words in the set.
+     */
+    private int count;
+
+    /**
+     * Constructor to instantiate HangmanMappedWordSet objects, which creates an empty table
+     *
+     * @param tempDirectory Directory to create the table files in
+     * @throws IOException If the table file could not be created
+     */
+    public HangmanMappedWordSet(File tempDirectory) throws IOException {
+        directory = tempDirectory;
+        count = 0;
+        createTable(INITIAL_SLOTS);
+    }
+
+    /**
+     * Creates and maps an empty table file.
+     *
+     * @param slotCount Number of slots, a power of 2
+     * @throws IOException If the file could not be created
+     */
+    private void createTable(long slotCount) throws IOException {
+        file = File.createTempFile("hangman_words_", ".set", directory);
+        table = new RandomAccessFile(file, "rw");
+        slots = slotCount;
+        segments = new MappedByteBuffer[(int) ((slots + SEGMENT_SLOTS - 1) / SEGMENT_SLOTS)];
+        FileChannel channel = table.getChannel();
+        for (int s = 0; s < segments.length; s++) {
+            long segmentSlots = Math.min(SEGMENT_SLOTS, slots - s * SEGMENT_SLOTS);
+            segments[s] = channel.map(FileChannel.MapMode.PRIVATE, s * SEGMENT_SLOTS * SLOT_SIZE, segmentSlots * SLOT_SIZE);
+        }
+    }
+
+    /**
+     * Works out the first half of a word's fingerprint.
+     *
+     * @param word A word
+     * @return The first half, never 0 with the second half also 0
+     */
+    private static long firstHalf(String word) {
+        long hash = 0xcbf29ce484222325L ^ word.length(); // FNV-1a
+        for (int i = 0; i < word.length(); i++)
+            hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+        return mix(hash);
+    }
+
+    /**
+     * Works out the second half of a word's fingerprint, with a hash unlike the first half's.
+     *
+     * @param word A word
+     * @return The second half, never 0
+     */
+    private static long secondHalf(String word) {
+        long hash = 0x9E3779B97F4A7C15L + word.length();
+        for (int i = 0; i < word.length(); i++)
+            hash = Long.rotateLeft(hash + word.charAt(i) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        hash = mix(hash);
+        return hash == 0 ? 1 : hash; // an all-zero slot is empty
+    }
+
+    /**
+     * Spreads the bits of a hash (the finalizer of MurmurHash3).
+     *
+     * @param hash A hash
+     * @return The spread hash
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Finds the slot of a fingerprint, which is either its slot or the empty slot it goes in.
+     *
+     * @param first  The fingerprint's first half
+     * @param second The fingerprint's second half
+     * @return The slot
+     */
+    private long slotOf(long first, long second) {
+        long mask = slots - 1;
+        long slot = first & mask;
+        while (true) {
+            MappedByteBuffer segment = segments[(int) (slot / SEGMENT_SLOTS)];
+            int position = (int) (slot % SEGMENT_SLOTS) * SLOT_SIZE;
+            long storedSecond = segment.getLong(position + 8);
+            if (storedSecond == 0 || (storedSecond == second && segment.getLong(position) == first))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Checks whether a slot is empty.
+     *
+     * @param slot A slot
+     * @return Whether or not nothing is stored in the slot
+     */
+    private boolean isEmpty(long slot) {
+        return segments[(int) (slot / SEGMENT_SLOTS)].getLong((int) (slot % SEGMENT_SLOTS) * SLOT_SIZE + 8) == 0;
+    }
+
+    /**
+     * Stores a fingerprint in a slot.
+     *
+     * @param slot   An empty slot
+     * @param first  The fingerprint's first half
+     * @param second The fingerprint's second half
+     */
+    private void store(long slot, long first, long second) {
+        MappedByteBuffer segment = segments[(int) (slot / SEGMENT_SLOTS)];
+        int position = (int) (slot % SEGMENT_SLOTS) * SLOT_SIZE;
+        segment.putLong(position, first);
+        segment.putLong(position + 8, second);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String))
+            return false;
+        String word = (String) o;
+        return !isEmpty(slotOf(firstHalf(word), secondHalf(word)));
+    }
+
+    /**
+     * Adds a word to the set.
+     *
+     * @param word A word
+     * @return Whether or not the word was not already in the set
+     * @throws UncheckedIOException If the table had to grow and a bigger one could not be created
+     */
+    @Override
+    public boolean add(String word) {
+        long first = firstHalf(word);
+        long second = secondHalf(word);
+        long slot = slotOf(first, second);
+        if (!isEmpty(slot))
+            return false;
+        store(slot, first, second);
+        count++;
+        if (2L * count > slots) {
+            try {
+                grow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the fingerprints into a table twice as big.
+     *
+     * @throws IOException If the new table could not be created
+     */
+    private void grow() throws IOException {
+        File oldFile = file;
+        RandomAccessFile oldTable = table;
+        MappedByteBuffer[] oldSegments = segments;
+        long oldSlots = slots;
+        createTable(oldSlots * 2);
+        for (long slot = 0; slot < oldSlots; slot++) {
+            MappedByteBuffer segment = oldSegments[(int) (slot / SEGMENT_SLOTS)];
+            int position = (int) (slot % SEGMENT_SLOTS) * SLOT_SIZE;
+            long second = segment.getLong(position + 8);
+            if (second != 0) {
+                long first = segment.getLong(position);
+                store(slotOf(first, second), first, second);
+            }
+        }
+        oldTable.close();
+        if (!oldFile.delete())
+            oldFile.deleteOnExit(); // some systems can't delete a file that is still mapped
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Not supported, as the words themselves are not kept.
+     *
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public Iterator<String> iterator() {
+        throw new UnsupportedOperationException("The words of a mapped word set are not kept");
+    }
+
+    /**
+     * Closes and deletes the table file. The set can't be used afterwards.
+     *
+     * @throws IOException If the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        segments = null;
+        table.close();
+        if (!file.delete())
+            file.deleteOnExit();
+    }
+}
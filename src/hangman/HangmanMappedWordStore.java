@@ -0,0 +1,201 @@
+package hangman;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Class that reads the words of a store from a memory-mapped file instead of the heap.
+ * <p>
+ * The file holds the same offset table and packed characters as a HangmanWordStore (4 byte big-endian offsets, then
+ * 2 byte big-endian characters), as written in a word index file. Only the word asked for is decoded into a String,
+ * so the heap used does not grow with the number of words; the operating system keeps as much of the file in memory
+ * as it has room for.
+ * <p>
+ * The store can only be read: it is not a HangmanWordStore, which can be added to and gives access to its arrays.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanMappedWordStore implements HangmanReadOnlyWordStore {
+    /**
+     * Where the offset table starts in the file.
+     */
+    private Region offsets;
+    /**
+     * Where the packed characters start in the file.
+     */
+    private Region chars;
+    /**
+     * Number of words in the store.
+     */
+    private int wordCount;
+
+    /**
+     * Constructor to instantiate HangmanMappedWordStore objects
+     *
+     * @param offsetTable The offset table, with one extra offset for the end of the last word
+     * @param packedChars The packed characters
+     * @param count       Number of words
+     */
+    HangmanMappedWordStore(Region offsetTable, Region packedChars, int count) {
+        offsets = offsetTable;
+        chars = packedChars;
+        wordCount = count;
+    }
+
+    @Override
+    public int size() {
+        return wordCount;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return wordCount == 0;
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index);
+        int start = offset(index);
+        char[] word = new char[offset(index + 1) - start];
+        for (int i = 0; i < word.length; i++)
+            word[i] = chars.getChar(2L * (start + i));
+        return new String(word);
+    }
+
+    @Override
+    public int length(int index) {
+        checkIndex(index);
+        return offset(index + 1) - offset(index);
+    }
+
+    @Override
+    public char charAt(int index, int position) {
+        checkIndex(index);
+        return chars.getChar(2L * (offset(index) + position));
+    }
+
+    @Override
+    public int charCount() {
+        return offsets.getInt(4L * wordCount);
+    }
+
+    @Override
+    public int offset(int index) {
+        if (index < 0 || index > wordCount)
+            throw new IndexOutOfBoundsException("Word " + index + " of " + wordCount);
+        return offsets.getInt(4L * index);
+    }
+
+    @Override
+    public void copyChars(int start, int end, char[] destination, int destinationStart) {
+        if (start < 0 || end > charCount() || start > end)
+            throw new IndexOutOfBoundsException("Characters " + start + " to " + end + " of " + charCount());
+        for (int i = start; i < end; i++)
+            destination[destinationStart + i - start] = chars.getChar(2L * i);
+    }
+
+    @Override
+    public long getHeapFootprint() {
+        return 24 + offsets.getHeapFootprint() + chars.getHeapFootprint();
+    }
+
+    /**
+     * Checks that a word index is in range, so a bad index can't read bytes of the file that are not part of a word.
+     *
+     * @param index A word index
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= wordCount)
+            throw new IndexOutOfBoundsException("Word " + index + " of " + wordCount);
+    }
+
+    /**
+     * Part of a file mapped into memory. A file can be larger than a single MappedByteBuffer (2 GB), so it is mapped
+     * in segments; values are never split between segments, as the segment size is a multiple of every value size.
+     */
+    static class Region {
+        /**
+         * Size, in bytes, of each segment but the last.
+         */
+        private static final int SEGMENT_SIZE = 1 << 30;
+        /**
+         * The mapped segments, in order.
+         */
+        private MappedByteBuffer[] segments;
+
+        /**
+         * Constructor to instantiate Region objects, which maps the region
+         *
+         * @param channel  The file's channel, which can be closed once the region is mapped
+         * @param position Position of the region in the file
+         * @param size     Size of the region in bytes
+         * @param mode     READ_ONLY, or READ_WRITE for filling the region in
+         * @throws IOException If the file could not be mapped
+         */
+        Region(FileChannel channel, long position, long size, FileChannel.MapMode mode) throws IOException {
+            segments = new MappedByteBuffer[(int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(mode, position + start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+
+        /**
+         * Gets a big-endian int.
+         *
+         * @param position Position of the int in the region, a multiple of 4
+         * @return The int
+         */
+        int getInt(long position) {
+            return segments[(int) (position / SEGMENT_SIZE)].getInt((int) (position % SEGMENT_SIZE));
+        }
+
+        /**
+         * Gets a big-endian char.
+         *
+         * @param position Position of the char in the region, a multiple of 2
+         * @return The char
+         */
+        char getChar(long position) {
+            return segments[(int) (position / SEGMENT_SIZE)].getChar((int) (position % SEGMENT_SIZE));
+        }
+
+        /**
+         * Puts a big-endian int.
+         *
+         * @param position Position of the int in the region, a multiple of 4
+         * @param value    The int
+         */
+        void putInt(long position, int value) {
+            segments[(int) (position / SEGMENT_SIZE)].putInt((int) (position % SEGMENT_SIZE), value);
+        }
+
+        /**
+         * Puts a big-endian char.
+         *
+         * @param position Position of the char in the region, a multiple of 2
+         * @param value    The char
+         */
+        void putChar(long position, char value) {
+            segments[(int) (position / SEGMENT_SIZE)].putChar((int) (position % SEGMENT_SIZE), value);
+        }
+
+        /**
+         * Writes changes made to the region to the file.
+         */
+        void force() {
+            for (MappedByteBuffer segment : segments)
+                segment.force();
+        }
+
+        /**
+         * Estimates the heap memory used by the region, which is only the buffer objects, not the mapped bytes.
+         *
+         * @return Estimated heap footprint in bytes
+         */
+        long getHeapFootprint() {
+            return 16 + 4L * segments.length + 64L * segments.length;
+        }
+    }
+}
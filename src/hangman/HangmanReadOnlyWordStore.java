@@ -0,0 +1,83 @@
+package hangman;
+
+/**
+ * Interface of a store of words that can only be read, so words kept on the heap (HangmanWordStore) and words kept in a
+ * memory-mapped file (HangmanMappedWordStore) can be read the same way. The words are packed one after another, so a
+ * word can also be read by its position among the packed characters.
+ * <p>
+ * A word index out of range throws an IndexOutOfBoundsException.
+ *
+ * @author Chami Lamelas
+ */
+public interface HangmanReadOnlyWordStore {
+    /**
+     * Gets the number of words in the store.
+     *
+     * @return The number of words
+     */
+    int size();
+
+    /**
+     * Checks if the store has no words.
+     *
+     * @return Whether or not the store is empty
+     */
+    boolean isEmpty();
+
+    /**
+     * Gets a word.
+     *
+     * @param index The word's index, from 0 to size - 1
+     * @return The word
+     */
+    String get(int index);
+
+    /**
+     * Gets the number of characters in a word.
+     *
+     * @param index The word's index, from 0 to size - 1
+     * @return The word's length
+     */
+    int length(int index);
+
+    /**
+     * Gets one character of a word, without creating a String for it.
+     *
+     * @param index    The word's index, from 0 to size - 1
+     * @param position Position of the character in the word
+     * @return The character
+     */
+    char charAt(int index, int position);
+
+    /**
+     * Gets the total number of characters in the store.
+     *
+     * @return The total number of characters
+     */
+    int charCount();
+
+    /**
+     * Gets where a word starts among the packed characters, or where the last word ends.
+     *
+     * @param index A word index, from 0 to size (for the end of the last word)
+     * @return Position of the word's first character
+     */
+    int offset(int index);
+
+    /**
+     * Copies packed characters into an array, such as every character of a run of words.
+     *
+     * @param start            Position of the first character to copy
+     * @param end              Position after the last character to copy
+     * @param destination      Array to copy the characters into
+     * @param destinationStart Where the first character goes in the array
+     */
+    void copyChars(int start, int end, char[] destination, int destinationStart);
+
+    /**
+     * Estimates the heap memory used by the store.
+     *
+     * @return Estimated heap footprint in bytes
+     */
+    long getHeapFootprint();
+}
@@ -9,6 +9,11 @@ import java.util.ArrayList;
  * @author Chami Lamelas
  */
 public class HangmanScoreList implements Serializable {
+    /**
+     * Serialization version, fixed so score lists saved before new methods or constants were added can still be read.
+     */
+    private static final long serialVersionUID = -4753355625719281045L;
+
     /**
      * Data set of scores.
      */
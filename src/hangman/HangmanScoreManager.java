@@ -35,8 +35,10 @@ public class HangmanScoreManager implements Serializable {
 
     /**
      * Read's user score data from the file.
+     *
+     * @throws HangmanException If the file could not be read
      */
-    public void readData() {
+    public void readData() throws HangmanException {
         try {
             if (file.exists()) {
                 ObjectInputStream readData = new ObjectInputStream(new FileInputStream(file));
@@ -46,13 +48,13 @@ public class HangmanScoreManager implements Serializable {
                 data = new HangmanScoreList();
             }
         } catch (ClassNotFoundException e) {
-            HangmanDisplay.displayError("<html>ClassNotFoundException: " + e.getMessage()
-                    + "<br><br>There was an error reading the data. </html>");
+            throw new HangmanException("<html>ClassNotFoundException: " + e.getMessage()
+                    + "<br><br>There was an error reading the data. </html>", e);
         } catch (FileNotFoundException e) {
-            HangmanDisplay.displayError("<html>FileNotFoundException: " + e.getMessage()
-                    + "<br><br>There was an error with the file </html>" + file.getName() + ".");
+            throw new HangmanException("<html>FileNotFoundException: " + e.getMessage()
+                    + "<br><br>There was an error with the file </html>" + file.getName() + ".", e);
         } catch (IOException e) {
-            HangmanDisplay.displayError("IOException: " + e.getMessage());
+            throw new HangmanException("IOException: " + e.getMessage(), e);
         }
     }
 
@@ -60,15 +62,16 @@ public class HangmanScoreManager implements Serializable {
      * Writes the new user score data to the file.
      *
      * @param newScore - new score to be added to the file.
+     * @throws HangmanException If the file could not be written
      */
-    public void writeData(HangmanScorer newScore) {
+    public void writeData(HangmanScorer newScore) throws HangmanException {
         try {
             data.addScore(newScore);
             ObjectOutputStream dataWriter = new ObjectOutputStream(new FileOutputStream(file));
             dataWriter.writeObject(data);
             dataWriter.close();
         } catch (IOException e) {
-            HangmanDisplay.displayError("Auto-generated Error: " + e.getMessage());
+            throw new HangmanException("Auto-generated Error: " + e.getMessage(), e);
         }
     }
 }
@@ -8,6 +8,11 @@ import java.io.Serializable;
  * @author Chami Lamelas
  */
 public class HangmanScorer implements Serializable {
+    /**
+     * Serialization version, fixed so scores saved before new methods or constants were added can still be read.
+     */
+    private static final long serialVersionUID = 3127234975871834139L;
+
     /**
      * Conversion factor for generating the score based on number of turns left.
      */
@@ -32,6 +37,10 @@ public class HangmanScorer implements Serializable {
      * Extreme difficulty multiplier.
      */
     public static final int EXTREME_DIFFICULTY_MULTIPLIER = 4;
+    /**
+     * Evil mode multiplier, added to the difficulty multiplier.
+     */
+    public static final int EVIL_MODE_MULTIPLIER = 2;
     /**
      * User score.
      */
@@ -68,6 +77,20 @@ public class HangmanScorer implements Serializable {
         }
     }
 
+    /**
+     * Calculates score based on difficulty, turns used, and whether the game was in evil mode, which scores
+     * DIFFICULTY_CONVERSION * EVIL_MODE_MULTIPLIER more.
+     *
+     * @param usedTurns            - number of used turns
+     * @param userChosenDifficulty - difficulty chosen by the user
+     * @param evilMode             - whether or not the game was in evil mode
+     */
+    public void calculateScore(int usedTurns, String userChosenDifficulty, boolean evilMode) {
+        calculateScore(usedTurns, userChosenDifficulty);
+        if (evilMode)
+            userScore += DIFFICULTY_CONVERSION * EVIL_MODE_MULTIPLIER;
+    }
+
     /**
      * Gets the user's score.
      *
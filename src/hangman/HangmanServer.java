@@ -0,0 +1,523 @@
+package hangman;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Class that lets players play hangman over a network connection instead of in a window, so one process can host the
+ * games of many players.
+ * <p>
+ * Players send commands as lines of UTF-8 text, and get one line back for each:
+ * <ul>
+ * <li>NEW [difficulty] - starts a game, or a new round with a word not used yet on the connection. Replies
+ * "GAME progress lives".</li>
+ * <li>GUESS letter-or-word - makes a guess. Replies "RESULT outcome progress lives", where outcome is a
+ * HangmanGuessResult.Outcome name, followed by the word if the guess ended the game.</li>
+ * <li>STATE - replies "STATE progress lives turns incorrect-guesses", where incorrect-guesses are separated by commas
+ * ("-" if there are none).</li>
+ * <li>QUIT - replies "BYE" and closes the connection.</li>
+ * </ul>
+ * Anything that goes wrong is replied to with "ERROR message", and the connection stays open.
+ * <p>
+ * All connections are handled by a single thread with a non-blocking Selector, so thousands of connections don't need
+ * thousands of threads. Each connection has its own game, which lives as long as the connection, and its commands are
+ * carried out right on that thread, so every other connection waits while one is handled. A guess usually takes a
+ * few microseconds, but in evil mode a guess sorts the words still possible into families, which takes up to several
+ * milliseconds, and so does starting a round; evil mode therefore suits a server with few players. Words are loaded
+ * once by a HangmanEngine and shared by every game. Low memory mode should not be used, as it reads the words file
+ * for every new word.
+ * <p>
+ * A connection that sends commands faster than it reads the replies is not read from while more than
+ * MAXIMUM_PENDING_REPLIES bytes of replies wait to be written, so its replies can't use up the memory.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanServer {
+    /**
+     * Longest command accepted, in bytes.
+     */
+    public static final int MAXIMUM_LINE_LENGTH = 1024;
+    /**
+     * Size of each connection's read buffer.
+     */
+    private static final int READ_BUFFER_SIZE = MAXIMUM_LINE_LENGTH + 1;
+    /**
+     * Initial size of each connection's write buffer, which grows if replies pile up.
+     */
+    private static final int WRITE_BUFFER_SIZE = 256;
+    /**
+     * Bytes of replies waiting to be written past which a connection's commands are not handled or read until the
+     * replies are written, so its write buffer grows to at most this plus one reply.
+     */
+    public static final int MAXIMUM_PENDING_REPLIES = 64 * 1024;
+    /**
+     * The difficulties, as the game spells them.
+     */
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard", "Extreme"};
+    /**
+     * Runs the games.
+     */
+    private HangmanEngine engine;
+    /**
+     * Configuration of every game, except for its difficulty.
+     */
+    private HangmanConfiguration configuration;
+    /**
+     * The port to listen on, or 0 for any free port.
+     */
+    private int port;
+    /**
+     * Waits for connections, reads and writes.
+     */
+    private Selector selector;
+    /**
+     * Accepts connections.
+     */
+    private ServerSocketChannel serverChannel;
+    /**
+     * Runs the selector loop.
+     */
+    private Thread thread;
+    /**
+     * Whether or not the server has been told to stop.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructor to instantiate HangmanServer objects
+     *
+     * @param gameEngine        Runs the games
+     * @param gameConfiguration Configuration of every game; NEW can change the difficulty
+     * @param serverPort        The port to listen on, or 0 for any free port
+     */
+    public HangmanServer(HangmanEngine gameEngine, HangmanConfiguration gameConfiguration, int serverPort) {
+        engine = gameEngine;
+        configuration = gameConfiguration;
+        port = serverPort;
+    }
+
+    /**
+     * Loads the words and starts listening on a thread of its own.
+     *
+     * @throws HangmanException If the words file could not be read or has no words that meet the configuration
+     * @throws IOException      If the port could not be listened on
+     */
+    public void start() throws HangmanException, IOException {
+        engine.newGame(configuration); // loads the words and checks there are some, before anyone connects
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), MAXIMUM_LINE_LENGTH);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        }, "Hangman server");
+        thread.start();
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     *
+     * @throws InterruptedException If interrupted while waiting for the server to stop
+     */
+    public void stop() throws InterruptedException {
+        stopped = true;
+        selector.wakeup();
+        thread.join();
+    }
+
+    /**
+     * Gets the port the server listens on, which is chosen when it starts if it was given 0.
+     *
+     * @return The port
+     * @throws IOException If the port could not be found
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Handles connections until the server is stopped.
+     */
+    private void serve() {
+        try {
+            while (!stopped) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable())
+                            accept();
+                        else {
+                            if (key.isReadable())
+                                read(key);
+                            if (key.isValid() && key.isWritable())
+                                write(key);
+                        }
+                    } catch (IOException e) {
+                        if (key.channel() != serverChannel)
+                            close(key); // the player hung up or the connection broke; other connections go on
+                    } catch (RuntimeException e) {
+                        System.err.println("Hangman server error: " + e);
+                        if (key.channel() != serverChannel)
+                            fail(key, e); // only this connection is closed
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Hangman server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys())
+                close(key);
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // already closing
+            }
+        }
+    }
+
+    /**
+     * Accepts the waiting connections.
+     *
+     * @throws IOException If a connection could not be set up
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    /**
+     * Reads what a connection sent and replies to each complete command.
+     *
+     * @param key The connection's key
+     * @throws IOException If the connection could not be read
+     */
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(connection.in) == -1) {
+            close(key);
+            return;
+        }
+        handleLines(connection);
+        write(key);
+    }
+
+    /**
+     * Replies to each complete command a connection sent, until the connection is closing or too many of its replies
+     * wait to be written, in which case the rest of its commands are kept until its replies are written.
+     *
+     * @param connection The connection
+     */
+    private void handleLines(Connection connection) {
+        ByteBuffer in = connection.in;
+        in.flip();
+        int lineStart = 0;
+        for (int i = 0; i < in.limit() && !connection.closing && !connection.isFull(); i++) {
+            if (in.get(i) != '\n')
+                continue;
+            int end = i > lineStart && in.get(i - 1) == '\r' ? i - 1 : i;
+            String line = new String(in.array(), lineStart, end - lineStart, StandardCharsets.UTF_8);
+            lineStart = i + 1;
+            if (connection.skipping) { // the end of a line that was too long
+                connection.skipping = false;
+                continue;
+            }
+            connection.reply(handle(connection, line.trim()));
+        }
+        connection.paused = connection.isFull() && !connection.closing;
+        in.position(lineStart);
+        in.compact();
+        if (!in.hasRemaining() && !connection.paused && !connection.closing) { // a line that does not fit is skipped
+            in.clear();
+            if (!connection.skipping)
+                connection.reply("ERROR Commands can't be longer than " + MAXIMUM_LINE_LENGTH + " bytes");
+            connection.skipping = true;
+        }
+    }
+
+    /**
+     * Writes as much of a connection's replies as the connection takes, and waits to write the rest. Once all of them
+     * are written, the commands kept while they piled up are handled. The connection is only read from while its
+     * replies are not piled up and it is not closing.
+     *
+     * @param key The connection's key
+     * @throws IOException If the connection could not be written
+     */
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        boolean written = flush(key);
+        while (written && connection.paused) {
+            handleLines(connection);
+            written = flush(key);
+        }
+        if (written && connection.closing) {
+            close(key);
+            return;
+        }
+        int interest = connection.closing || connection.paused ? 0 : SelectionKey.OP_READ;
+        key.interestOps(written ? interest : interest | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Writes as much of a connection's replies as the connection takes.
+     *
+     * @param key The connection's key
+     * @return Whether or not all the replies were written
+     * @throws IOException If the connection could not be written
+     */
+    private boolean flush(SelectionKey key) throws IOException {
+        ByteBuffer out = ((Connection) key.attachment()).out;
+        out.flip();
+        ((SocketChannel) key.channel()).write(out);
+        boolean written = !out.hasRemaining();
+        out.compact();
+        return written;
+    }
+
+    /**
+     * Replies to a connection whose command failed unexpectedly, and closes it once the reply is written.
+     *
+     * @param key The connection's key
+     * @param e   The failure
+     */
+    private void fail(SelectionKey key, RuntimeException e) {
+        Connection connection = (Connection) key.attachment();
+        connection.reply("ERROR The server failed: " + String.valueOf(e).replace('\n', ' '));
+        connection.closing = true;
+        connection.paused = false;
+        try {
+            write(key);
+        } catch (IOException | RuntimeException writeError) {
+            close(key);
+        }
+    }
+
+    /**
+     * Closes a connection.
+     *
+     * @param key The connection's key
+     */
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // the connection is gone either way
+        }
+    }
+
+    /**
+     * Carries out a command.
+     *
+     * @param connection The connection that sent it
+     * @param line       The command
+     * @return The reply
+     */
+    private String handle(Connection connection, String line) {
+        int space = line.indexOf(' ');
+        String command = (space == -1 ? line : line.substring(0, space)).toUpperCase();
+        String argument = space == -1 ? "" : line.substring(space + 1).trim();
+        try {
+            if (command.equals("NEW"))
+                return newGame(connection, argument);
+            if (command.equals("GUESS"))
+                return guess(connection, argument);
+            if (command.equals("STATE"))
+                return state(connection);
+            if (command.equals("QUIT")) {
+                connection.closing = true;
+                return "BYE";
+            }
+            return "ERROR Unknown command \"" + command + "\"; use NEW, GUESS, STATE or QUIT";
+        } catch (HangmanException e) {
+            return "ERROR " + e.getMessage().replace('\n', ' ');
+        }
+    }
+
+    /**
+     * Starts a game, or a new round of the connection's game if the difficulty is the same.
+     *
+     * @param connection The connection
+     * @param difficulty The difficulty, or "" for the server's
+     * @return The reply
+     * @throws HangmanException If the difficulty is not known or the game could not be started
+     */
+    private String newGame(Connection connection, String difficulty) throws HangmanException {
+        String gameDifficulty = configuration.getDifficulty();
+        if (!difficulty.isEmpty()) {
+            gameDifficulty = null;
+            for (String known : DIFFICULTIES)
+                if (known.equalsIgnoreCase(difficulty))
+                    gameDifficulty = known;
+            if (gameDifficulty == null)
+                throw new HangmanException("Unknown difficulty \"" + difficulty + "\"; use Easy, Medium, Hard or Extreme");
+        }
+        if (connection.game != null && connection.game.getDifficulty().equals(gameDifficulty))
+            engine.newRound(connection.game);
+        else
+            connection.game = engine.newGame(configurationFor(gameDifficulty));
+        connection.over = false;
+        return "GAME " + connection.game.getUserProgress() + " " + connection.game.getStartLives();
+    }
+
+    /**
+     * Makes a guess in the connection's game.
+     *
+     * @param connection The connection
+     * @param guess      A letter or the whole word
+     * @return The reply
+     * @throws HangmanException If there is no game going on, or the game's score could not be saved
+     */
+    private String guess(Connection connection, String guess) throws HangmanException {
+        if (connection.game == null || connection.over)
+            throw new HangmanException("There is no game going on; use NEW to start one");
+        if (guess.isEmpty() || guess.indexOf(' ') != -1)
+            throw new HangmanException("Guess a single letter or word");
+        HangmanGuessResult result = engine.guess(connection.game, guess);
+        connection.over = result.isTerminal();
+        String reply = "RESULT " + result.getOutcome().name() + " " + result.getUserProgress() + " " + result.getLivesLeft();
+        return connection.over ? reply + " " + connection.game.getActualWord() : reply;
+    }
+
+    /**
+     * Describes the connection's game.
+     *
+     * @param connection The connection
+     * @return The reply
+     * @throws HangmanException If no game was started
+     */
+    private String state(Connection connection) throws HangmanException {
+        HangmanGame game = connection.game;
+        if (game == null)
+            throw new HangmanException("There is no game yet; use NEW to start one");
+        List<String> incorrect = game.getIncorrectGuesses();
+        StringBuilder reply = new StringBuilder("STATE ").append(game.getUserProgress()).append(' ')
+                .append(game.getStartLives() - game.getNumIncorrect()).append(' ').append(game.getTurns()).append(' ');
+        if (incorrect.isEmpty())
+            reply.append('-');
+        for (int i = 0; i < incorrect.size(); i++)
+            reply.append(i == 0 ? "" : ",").append(incorrect.get(i));
+        return reply.toString();
+    }
+
+    /**
+     * Makes a copy of the server's configuration with another difficulty.
+     *
+     * @param difficulty The difficulty
+     * @return The configuration
+     */
+    private HangmanConfiguration configurationFor(String difficulty) {
+        HangmanConfiguration copy = new HangmanConfiguration(difficulty, configuration.isKeepDuplicates(),
+                configuration.isKeepProperNouns(), configuration.getMinimumWordLength(), configuration.getFilepath(),
+                configuration.isDisplayFilePath());
+        copy.setLowMemoryMode(configuration.isLowMemoryMode());
+        copy.setOffHeapStorage(configuration.isOffHeapStorage());
+        copy.setEvilMode(configuration.isEvilMode());
+        copy.setMatchWordDifficulty(configuration.isMatchWordDifficulty());
+        copy.setSeed(configuration.getSeed());
+        return copy;
+    }
+
+    /**
+     * A player's connection.
+     */
+    private static class Connection {
+        /**
+         * What the player sent that has not been handled yet.
+         */
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        /**
+         * Replies that have not been written yet.
+         */
+        private ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        /**
+         * The player's game, or null before the first NEW.
+         */
+        private HangmanGame game;
+        /**
+         * Whether or not the game is over.
+         */
+        private boolean over;
+        /**
+         * Whether or not the rest of a line that was too long is being thrown away.
+         */
+        private boolean skipping;
+        /**
+         * Whether or not the connection is closed once its replies are written.
+         */
+        private boolean closing;
+        /**
+         * Whether or not commands are being kept until the replies that piled up are written.
+         */
+        private boolean paused;
+
+        /**
+         * Checks whether too many replies wait to be written to handle more commands.
+         *
+         * @return Whether or not more than MAXIMUM_PENDING_REPLIES bytes of replies wait to be written
+         */
+        private boolean isFull() {
+            return out.position() > MAXIMUM_PENDING_REPLIES;
+        }
+
+        /**
+         * Adds a reply to be written.
+         *
+         * @param reply The reply, without its line ending
+         */
+        private void reply(String reply) {
+            byte[] bytes = (reply + "\n").getBytes(StandardCharsets.UTF_8);
+            if (out.remaining() < bytes.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * out.capacity(), out.position() + bytes.length));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+            out.put(bytes);
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args The words file, then optionally the port (7070 if not given), the difficulty and the game data
+     *             directory ("Hangman Data" if not given)
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: HangmanServer words-file [port [difficulty [data-directory]]]");
+            System.exit(1);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        String difficulty = args.length > 2 ? args[2] : HangmanGame.DEFAULT_DIFFICULTY;
+        String dataDirPath = args.length > 3 ? args[3] : "Hangman Data";
+        HangmanConfiguration configuration = new HangmanConfiguration(difficulty, HangmanGame.DEFAULT_DUPLICATES_SETTING,
+                HangmanGame.DEFAULT_PROPER_NOUNS_SETTING, HangmanGame.DEFAULT_MINIMUM_WORD_LENGTH,
+                new File(args[0]).getAbsolutePath(), HangmanGame.DEFAULT_FILE_PATH_DISPLAY_SETTING);
+        try {
+            HangmanServer server = new HangmanServer(new HangmanEngine(dataDirPath, false), configuration, port);
+            server.start();
+            System.out.println("Hangman server listening on port " + server.getPort());
+        } catch (HangmanException | IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
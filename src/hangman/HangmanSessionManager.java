@@ -0,0 +1,377 @@
+package hangman;
+
+import java.lang.reflect.Method;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class that hosts many hangman games at once, each in its own session. Sessions are created, looked up by id, and
+ * expire after going unused for a set time.
+ * <p>
+ * Sessions share the words loaded by a HangmanEngine, which are never changed, and nothing else: each session has its
+ * own game and its own lock, so guesses in different sessions never wait for each other, and guesses in the same
+ * session are handled one at a time. Guesses run on virtual threads when the Java version has them (21 and later),
+ * found by reflection so the game still runs on older versions, which use a fixed pool of threads instead.
+ * <p>
+ * Each session's game also picks its words with a source of randomness of its own, made from the session's seed. The
+ * seed is the configuration's, if it has one, or else a new one for each session, so the games of a session that went
+ * wrong can be played again by setting the configuration's seed to the session's.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanSessionManager {
+    /**
+     * Number of threads per processor used to handle guesses when there are no virtual threads.
+     */
+    private static final int THREADS_PER_PROCESSOR = 2;
+    /**
+     * Runs the games.
+     */
+    private HangmanEngine engine;
+    /**
+     * The sessions, by id.
+     */
+    private ConcurrentMap<String, Session> sessions;
+    /**
+     * How long, in milliseconds, a session is kept after it was last used.
+     */
+    private long timeToLive;
+    /**
+     * Handles the guesses.
+     */
+    private ExecutorService executor;
+    /**
+     * Whether or not the guesses are handled on virtual threads.
+     */
+    private boolean virtualThreads;
+    /**
+     * Removes expired sessions.
+     */
+    private ScheduledExecutorService evictor;
+
+    /**
+     * Constructor to instantiate HangmanSessionManager objects, which starts removing expired sessions
+     *
+     * @param gameEngine       Runs the games
+     * @param timeToLiveMillis How long, in milliseconds, a session is kept after it was last used
+     */
+    public HangmanSessionManager(HangmanEngine gameEngine, long timeToLiveMillis) {
+        engine = gameEngine;
+        sessions = new ConcurrentHashMap<String, Session>();
+        timeToLive = timeToLiveMillis;
+
+        executor = newVirtualThreadExecutor();
+        virtualThreads = executor != null;
+        if (!virtualThreads)
+            executor = Executors.newFixedThreadPool(THREADS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors(),
+                    daemonThreads("Hangman session worker"));
+
+        evictor = Executors.newSingleThreadScheduledExecutor(daemonThreads("Hangman session evictor"));
+        long period = Math.max(1, timeToLive / 2); // a session is removed at most 1.5 times its time to live after use
+        evictor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                evictExpired(System.currentTimeMillis());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes an executor that runs each task on a new virtual thread, if the Java version has them.
+     *
+     * @return The executor, or null if there are no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null; // before Java 21, or virtual threads are not available
+        }
+    }
+
+    /**
+     * Makes a factory of daemon threads, so the pools don't keep the program running.
+     *
+     * @param name The threads' name
+     * @return The thread factory
+     */
+    private static ThreadFactory daemonThreads(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, name + " " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Starts a game in a new session. The words are loaded the first time a file is used, on the calling thread.
+     *
+     * @param configuration The game's configuration
+     * @return The new session's id
+     * @throws HangmanException If the words file could not be read or has no words that meet the configuration
+     */
+    public String createSession(HangmanConfiguration configuration) throws HangmanException {
+        long seed = configuration.getSeed() != null ? configuration.getSeed() : ThreadLocalRandom.current().nextLong();
+        HangmanGame game = engine.newGame(configuration, new SplittableRandom(seed));
+        Session session = new Session(UUID.randomUUID().toString(), game, seed);
+        sessions.put(session.getId(), session);
+        return session.getId();
+    }
+
+    /**
+     * Gets a session.
+     *
+     * @param sessionId The session's id
+     * @return The session, or null if there is no such session or it expired
+     */
+    public Session getSession(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * Makes a guess in a session's game. If the guess ends the game, its score is saved by the engine.
+     *
+     * @param sessionId The session's id
+     * @param guess     A letter or the whole word, in any case
+     * @return The result of the guess, to come; getting it throws an ExecutionException caused by a HangmanException
+     * if there is no such session or the guess failed
+     */
+    public Future<HangmanGuessResult> guess(final String sessionId, final String guess) {
+        return executor.submit(new Callable<HangmanGuessResult>() {
+            @Override
+            public HangmanGuessResult call() throws HangmanException {
+                Session session = lock(sessionId);
+                try {
+                    return engine.guess(session.game, guess);
+                } finally {
+                    session.touch();
+                    session.lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts another round with a new word in a session's game.
+     *
+     * @param sessionId The session's id
+     * @return The round's new user progress, to come; getting it throws an ExecutionException caused by a
+     * HangmanException if there is no such session or the round could not be started
+     */
+    public Future<String> newRound(final String sessionId) {
+        return executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws HangmanException {
+                Session session = lock(sessionId);
+                try {
+                    engine.newRound(session.game);
+                    return session.game.getUserProgress();
+                } finally {
+                    session.touch();
+                    session.lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets a session that must exist.
+     *
+     * @param sessionId The session's id
+     * @return The session
+     * @throws HangmanException If there is no such session or it expired
+     */
+    private Session lookUp(String sessionId) throws HangmanException {
+        Session session = sessions.get(sessionId);
+        if (session == null)
+            throw noSession(sessionId);
+        return session;
+    }
+
+    /**
+     * Gets a session that must exist and locks it. The session is marked as used before waiting for the lock, so it
+     * does not expire meanwhile, and is checked to still be there once locked, in case it expired or ended before.
+     *
+     * @param sessionId The session's id
+     * @return The session, locked
+     * @throws HangmanException If there is no such session or it expired
+     */
+    private Session lock(String sessionId) throws HangmanException {
+        Session session = lookUp(sessionId);
+        session.touch();
+        session.lock.lock();
+        if (sessions.get(sessionId) != session) {
+            session.lock.unlock();
+            throw noSession(sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Makes the error for a session that does not exist.
+     *
+     * @param sessionId The session's id
+     * @return The error
+     */
+    private static HangmanException noSession(String sessionId) {
+        return new HangmanException("There is no game session \"" + sessionId + "\"; it may have expired.");
+    }
+
+    /**
+     * Ends a session, and stops watching its game's file if it is watched.
+     *
+     * @param sessionId The session's id
+     * @return Whether or not there was such a session
+     */
+    public boolean endSession(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null)
+            return false;
+        session.game.stopWatching();
+        return true;
+    }
+
+    /**
+     * Removes the sessions that have not been used within their time to live. A session is checked and removed while
+     * holding its lock, so it is never removed while a guess is being handled; a session that is locked is in use.
+     *
+     * @param now The current time in milliseconds
+     * @return The number of sessions removed
+     */
+    int evictExpired(long now) {
+        int evicted = 0;
+        for (Session session : sessions.values()) {
+            if (now - session.lastUsed <= timeToLive || !session.lock.tryLock())
+                continue;
+            try {
+                if (now - session.lastUsed > timeToLive && sessions.remove(session.getId(), session)) {
+                    session.game.stopWatching();
+                    evicted++;
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Gets the number of sessions.
+     *
+     * @return The number of sessions that have not ended or expired
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Checks whether guesses are handled on virtual threads.
+     *
+     * @return Whether or not virtual threads are used
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops handling guesses and removing sessions. Guesses already made are finished.
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+        executor.shutdown();
+    }
+
+    /**
+     * A game being played in a session.
+     */
+    public static class Session {
+        /**
+         * The session's id.
+         */
+        private String id;
+        /**
+         * The session's game.
+         */
+        private HangmanGame game;
+        /**
+         * Held while the game is being played, so its guesses are handled one at a time.
+         */
+        private ReentrantLock lock;
+        /**
+         * When the session was last used, in milliseconds.
+         */
+        private volatile long lastUsed;
+        /**
+         * The seed the session's game picks its words with.
+         */
+        private long seed;
+
+        /**
+         * Constructor to instantiate Session objects
+         *
+         * @param sessionId   The session's id
+         * @param sessionGame The session's game
+         * @param sessionSeed The seed the session's game picks its words with
+         */
+        Session(String sessionId, HangmanGame sessionGame, long sessionSeed) {
+            id = sessionId;
+            game = sessionGame;
+            seed = sessionSeed;
+            lock = new ReentrantLock();
+            touch();
+        }
+
+        /**
+         * Marks the session as used now.
+         */
+        private void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * Gets the session's id.
+         *
+         * @return The session's id
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the session's game. The game must only be read, and only when no guess in the session is being
+         * handled; guesses go through the session manager.
+         *
+         * @return The session's game
+         */
+        public HangmanGame getGame() {
+            return game;
+        }
+
+        /**
+         * Gets when the session was last used.
+         *
+         * @return When the session was last used, in milliseconds
+         */
+        public long getLastUsed() {
+            return lastUsed;
+        }
+
+        /**
+         * Gets the seed the session's game picks its words with, which replays the session's words when set as a
+         * configuration's seed.
+         *
+         * @return The session's seed
+         */
+        public long getSeed() {
+            return seed;
+        }
+    }
+}
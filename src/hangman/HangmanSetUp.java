@@ -5,6 +5,8 @@ import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
@@ -64,6 +66,26 @@ public class HangmanSetUp extends JDialog {
      * Checkbox to select keep proper nouns setting.
      */
     private JCheckBox optionKeepProperNouns;
+    /**
+     * Checkbox to select low memory mode setting.
+     */
+    private JCheckBox optionLowMemoryMode;
+    /**
+     * Checkbox to select watch file setting.
+     */
+    private JCheckBox optionWatchFile;
+    /**
+     * Checkbox to select off-heap storage setting.
+     */
+    private JCheckBox optionOffHeapStorage;
+    /**
+     * Checkbox to select evil mode setting.
+     */
+    private JCheckBox optionEvilMode;
+    /**
+     * Checkbox to select match word difficulty setting.
+     */
+    private JCheckBox optionMatchWordDifficulty;
     /**
      * File path label.
      */
@@ -76,6 +98,14 @@ public class HangmanSetUp extends JDialog {
      * For user to control file path display area
      */
     private JScrollPane filePathDisplayCtrl;
+    /**
+     * Loads the words of the configuration's file in the background, or null
+     */
+    private HangmanCorpusPreloader preloader;
+    /**
+     * Shows how much of the configuration's file has been loaded
+     */
+    private JProgressBar loadProgressBar;
     /**
      * Check box to display file path or not
      */
@@ -121,13 +151,15 @@ public class HangmanSetUp extends JDialog {
      * Constructor to instantiate object
      *
      * @param config - configuration used to set up window
+     * @param loader - loader of the configuration's file, or null if it is not being loaded
      * @param width  - width of display
      * @param height - height of display
      * @param img    - image icon
      */
 
-    public HangmanSetUp(HangmanConfiguration config, int width, int height, Image img) {
+    public HangmanSetUp(HangmanConfiguration config, HangmanCorpusPreloader loader, int width, int height, Image img) {
         setUpConfiguration = config;
+        preloader = loader;
         setTitle("Hangman - Set-up");
         setBounds((int) (0.2 * width), (int) (0.14 * height), (int) (0.6 * width), (int) (0.72 * height));
         setResizable(true);
@@ -174,7 +206,7 @@ public class HangmanSetUp extends JDialog {
     private void buildUIElements() {
         rules = new JTextArea(15, 95);
         rules.setEditable(false);
-        rules.setText("Hangman - Version: BETA \n\nRules\n\n1. The program will stop you if you try to type more than one word or if you don't enter \nanything. This is following the idea that a human opponent would do the same for you.\n2. If you guess an incorrect character twice, the program will not deduct you of lives more \nthan once.\n3. If you type in a word instead of a letter, which is legal, you will NOT be warned. However, \nyou will lose entirely if the word is not the actual word.\n4. In addition, if you guess a word that is not the same length as the actual word, the \nprogram will still not correct you.\n\nScoring System\n\n-15 points for guessing the word in 1 turn\n-2 points for each turn you have not used.\n-5 points for easy difficulty\n-10 points for medium difficulty\n-15 points for hard difficulty\n-20 points for extreme difficulty\n\nSet-up\n\n1. The first set-up portion is to choose the configuration you would like for the game. This \nincludes five parts: the choice of difficulty, which determines your number of lives: easy: \n" + HangmanGame.LIVES_ON_EASY_DIFFICULTY + " lives, medium: " + HangmanGame.LIVES_ON_MEDIUM_DIFFICULTY + " lives, hard:" + HangmanGame.LIVES_ON_HARD_DIFFICULTY + " lives, extreme: " + HangmanGame.LIVES_ON_EXTREME_DIFFICULTY + " lives; whether or not you wish to \nkeep duplicate words; whether or not you wish to keep proper nouns; whether or not to display \nthe file path; and lastly the minimum word length you would like to be allowed. \nHowever, for minimum word length, the minimum is 2, NOT 0. Also, as an idea, the largest word \nin most english dictionaries is " + HangmanGame.MAXIMUM_MINIMUM_WORD_LENGTH + " letters. \n\n2. The next part of the set-up allows you to reset the configuration and scores saved on the \ncomputer. This would erase all configuration data (including the last file you chose if you \nhad one chosen). \n\nNow you can start the game. If there is no file specified, then a dialog window will open \nallowing you to choose a file from your computer. \nIf you wish to change the file between games, click \"Restore Game Settings\". \nIf you have not yet downloaded a file, you can click the \"Browse Web\" button to open your \nbrowser to search for a source file. \n\nThe program will remove punctuation, related characters, and words that are less than the \nminimum word length you specify. ");
+        rules.setText("Hangman - Version: BETA \n\nRules\n\n1. The program will stop you if you try to type more than one word or if you don't enter \nanything. This is following the idea that a human opponent would do the same for you.\n2. If you guess an incorrect character twice, the program will not deduct you of lives more \nthan once.\n3. If you type in a word instead of a letter, which is legal, you will NOT be warned. However, \nyou will lose entirely if the word is not the actual word.\n4. In addition, if you guess a word that is not the same length as the actual word, the \nprogram will still not correct you.\n\nScoring System\n\n-15 points for guessing the word in 1 turn\n-2 points for each turn you have not used.\n-5 points for easy difficulty\n-10 points for medium difficulty\n-15 points for hard difficulty\n-20 points for extreme difficulty\n-" + HangmanScorer.DIFFICULTY_CONVERSION * HangmanScorer.EVIL_MODE_MULTIPLIER + " points for evil mode\n\nSet-up\n\n1. The first set-up portion is to choose the configuration you would like for the game. This \nincludes five parts: the choice of difficulty, which determines your number of lives: easy: \n" + HangmanGame.LIVES_ON_EASY_DIFFICULTY + " lives, medium: " + HangmanGame.LIVES_ON_MEDIUM_DIFFICULTY + " lives, hard:" + HangmanGame.LIVES_ON_HARD_DIFFICULTY + " lives, extreme: " + HangmanGame.LIVES_ON_EXTREME_DIFFICULTY + " lives; whether or not you wish to \nkeep duplicate words; whether or not you wish to keep proper nouns; whether or not to display \nthe file path; and lastly the minimum word length you would like to be allowed. \nHowever, for minimum word length, the minimum is 2, NOT 0. Also, as an idea, the largest word \nin most english dictionaries is " + HangmanGame.MAXIMUM_MINIMUM_WORD_LENGTH + " letters. \n\n2. The next part of the set-up allows you to reset the configuration and scores saved on the \ncomputer. This would erase all configuration data (including the last file you chose if you \nhad one chosen). \n\nNow you can start the game. If there is no file specified, then a dialog window will open \nallowing you to choose a file from your computer. \nIf you wish to change the file between games, click \"Restore Game Settings\". \nIf you have not yet downloaded a file, you can click the \"Browse Web\" button to open your \nbrowser to search for a source file. \n\nThe program will remove punctuation, related characters, and words that are less than the \nminimum word length you specify. ");
         rulesCtrl = new JScrollPane(rules);
 
         minWordLabel = new JLabel("Enter desired minimum word length: ");
@@ -199,6 +231,21 @@ public class HangmanSetUp extends JDialog {
         optionKeepDuplicates.setToolTipText("All words that are ");
         optionKeepProperNouns = new JCheckBox("Keep Proper Nouns");
         optionKeepProperNouns.setSelected(setUpConfiguration.isKeepProperNouns());
+        optionLowMemoryMode = new JCheckBox("Low Memory Mode");
+        optionLowMemoryMode.setSelected(setUpConfiguration.isLowMemoryMode());
+        optionLowMemoryMode.setToolTipText("Picks the word while reading the file instead of keeping every word in memory. Use for very large files.");
+        optionWatchFile = new JCheckBox("Watch File");
+        optionWatchFile.setSelected(setUpConfiguration.isWatchFile());
+        optionWatchFile.setToolTipText("Picks up words added to the file while the game is running. Not used in low memory mode.");
+        optionOffHeapStorage = new JCheckBox("Off-Heap Storage");
+        optionOffHeapStorage.setSelected(setUpConfiguration.isOffHeapStorage());
+        optionOffHeapStorage.setToolTipText("Keeps the words in a memory-mapped index file instead of in Java's memory. Use for files too large to load.");
+        optionEvilMode = new JCheckBox("Evil Mode");
+        optionEvilMode.setSelected(setUpConfiguration.isEvilMode());
+        optionEvilMode.setToolTipText("Changes the word after every guess to give away as little as possible. Scores more. Not used in low memory mode.");
+        optionMatchWordDifficulty = new JCheckBox("Match Word Difficulty");
+        optionMatchWordDifficulty.setSelected(setUpConfiguration.isMatchWordDifficulty());
+        optionMatchWordDifficulty.setToolTipText("Picks harder words (rarer letters, fewer distinct letters, more look-alikes) at harder difficulties. Not used in low memory mode or with off-heap storage.");
 
         filePathLabel = new JLabel("File path: ");
 
@@ -213,6 +260,23 @@ public class HangmanSetUp extends JDialog {
 
         filePathDisplayCtrl = new JScrollPane(filepathDisplay);
 
+        loadProgressBar = new JProgressBar(0, 100);
+        loadProgressBar.setStringPainted(true);
+        loadProgressBar.setToolTipText("Loading the words of this file, so the game starts faster");
+        if (preloader == null) {
+            loadProgressBar.setVisible(false);
+        } else {
+            loadProgressBar.setIndeterminate(true); // until the file starts being read
+            loadProgressBar.setString("Loading words...");
+            preloader.addPropertyChangeListener(new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    updateLoadProgress();
+                }
+            });
+            updateLoadProgress(); // in case the load finished before the listener was added
+        }
+
         filePathDisplaySelection = new JCheckBox("Show File Path");
         filePathDisplaySelection.setSelected(setUpConfiguration.isDisplayFilePath());
 
@@ -256,6 +320,9 @@ public class HangmanSetUp extends JDialog {
                 // update RAM data (setUpConfiguration)
                 setUpConfiguration.reset();
 
+                // a new file will be chosen, so the last one doesn't need to be loaded
+                cancelPreload();
+
                 resetUI();
             }
         });
@@ -319,7 +386,7 @@ public class HangmanSetUp extends JDialog {
                         // builds game configuration
                         String tempFP = setUpConfiguration.getFilepath();
                         // System.out.println(tempFP);
-                        if (tempFP != null && !new File(setUpConfiguration.getFilepath()).exists()) {
+                        if (tempFP != null && !HangmanCorpusLoader.sourceExists(setUpConfiguration.getFilepath())) {
                             tempFP = null;
                             JLabel fileNotFoundText = new JLabel("<html>File \"" + tempFP + "\"not found. <br/>Will now open file chooser utility.</html>");
                             fileNotFoundText.setFont(new Font("book antiqua", Font.BOLD, 16));
@@ -329,6 +396,14 @@ public class HangmanSetUp extends JDialog {
                         }
 
                         gameConfiguration = new HangmanConfiguration(difficultyMenu.getSelectedItem().toString(), optionKeepDuplicates.isSelected(), optionKeepProperNouns.isSelected(), minLength, tempFP, filePathDisplaySelection.isSelected());
+                        gameConfiguration.setLowMemoryMode(optionLowMemoryMode.isSelected());
+                        gameConfiguration.setWatchFile(optionWatchFile.isSelected());
+                        gameConfiguration.setOffHeapStorage(optionOffHeapStorage.isSelected());
+                        gameConfiguration.setEvilMode(optionEvilMode.isSelected());
+                        gameConfiguration.setMatchWordDifficulty(optionMatchWordDifficulty.isSelected());
+                        if (tempFP == null || gameConfiguration.isLowMemoryMode()
+                                || (preloader != null && preloader.isOffHeap() != gameConfiguration.isOffHeapStorage()))
+                            cancelPreload();
 
                         dispose();
                     } else {
@@ -364,12 +439,39 @@ public class HangmanSetUp extends JDialog {
         helpInfo.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                JOptionPane.showMessageDialog(null, new JLabel("<html>Rules<br/><br/>1. The program will stop you if you try to type more than one word or if you don't enter <br/>anything. This is following the idea that a human opponent would do the same for you.<br/>2. If you guess an incorrect character twice, the program will not deduct you of lives more <br/>than once.<br/>3. If you type in a word instead of a letter, which is legal, you will NOT be warned. However, <br/>you will lose entirely if the word is not the actual word.<br/>4. In addition, if you guess a word that is not the same length as the actual word, the <br/>program will still not correct you.<br/><br/>Scoring System<br/><br/>-15 points for guessing the word in 1 turn<br/>-2 points for each turn you have not used.<br/>-5 points for easy difficulty<br/>-10 points for medium difficulty<br/>-15 points for hard difficulty<br/>-20 points for extreme difficulty<br/><br/>Set-up<br/><br/>1. The first set-up portion is to choose the configuration you would like for the game. This <br/>includes five parts: the choice of difficulty, which determines your number of lives: easy: <br/>" + HangmanGame.LIVES_ON_EASY_DIFFICULTY + " lives, medium: " + HangmanGame.LIVES_ON_MEDIUM_DIFFICULTY + " lives, hard:" + HangmanGame.LIVES_ON_HARD_DIFFICULTY + " lives, extreme: " + HangmanGame.LIVES_ON_EXTREME_DIFFICULTY + " lives; whether or not you wish to <br/>keep duplicate words; whether or not you wish to keep proper nouns; whether or not to <br/>display the file path; and lastly the minimum word length you would like to be allowed. <br/>However, for minimum word length, the minimum is 2, NOT 0. Also, as an idea, the largest word <br/>in most english dictionaries <br/>is " + HangmanGame.MAXIMUM_MINIMUM_WORD_LENGTH + " letters. <br/><br/>2. The next part of the set-up allows you to reset the configuration and scores saved on the <br/>computer. This would erase all configuration data (including the last file you chose if you <br/>had one chosen). <br/><br/>Now you can start the game. If there is no file specified, then a dialog window will open <br/>allowing you to choose a file from your computer. <br/>If you wish to change the file between games, click \"Restore Game Settings\".<br/>If you have not yet downloaded a file, you <br/>can click the \"Browse Web\" button to open your browser to search for a source file. <br/><br/>The program will remove punctuation, related characters, and words that are less than the <br/>minimum word length you specify. </html>"), "Hangman - Help", JOptionPane.INFORMATION_MESSAGE);
+                JOptionPane.showMessageDialog(null, new JLabel("<html>Rules<br/><br/>1. The program will stop you if you try to type more than one word or if you don't enter <br/>anything. This is following the idea that a human opponent would do the same for you.<br/>2. If you guess an incorrect character twice, the program will not deduct you of lives more <br/>than once.<br/>3. If you type in a word instead of a letter, which is legal, you will NOT be warned. However, <br/>you will lose entirely if the word is not the actual word.<br/>4. In addition, if you guess a word that is not the same length as the actual word, the <br/>program will still not correct you.<br/><br/>Scoring System<br/><br/>-15 points for guessing the word in 1 turn<br/>-2 points for each turn you have not used.<br/>-5 points for easy difficulty<br/>-10 points for medium difficulty<br/>-15 points for hard difficulty<br/>-20 points for extreme difficulty<br/>-" + HangmanScorer.DIFFICULTY_CONVERSION * HangmanScorer.EVIL_MODE_MULTIPLIER + " points for evil mode<br/><br/>Set-up<br/><br/>1. The first set-up portion is to choose the configuration you would like for the game. This <br/>includes five parts: the choice of difficulty, which determines your number of lives: easy: <br/>" + HangmanGame.LIVES_ON_EASY_DIFFICULTY + " lives, medium: " + HangmanGame.LIVES_ON_MEDIUM_DIFFICULTY + " lives, hard:" + HangmanGame.LIVES_ON_HARD_DIFFICULTY + " lives, extreme: " + HangmanGame.LIVES_ON_EXTREME_DIFFICULTY + " lives; whether or not you wish to <br/>keep duplicate words; whether or not you wish to keep proper nouns; whether or not to <br/>display the file path; and lastly the minimum word length you would like to be allowed. <br/>However, for minimum word length, the minimum is 2, NOT 0. Also, as an idea, the largest word <br/>in most english dictionaries <br/>is " + HangmanGame.MAXIMUM_MINIMUM_WORD_LENGTH + " letters. <br/><br/>2. The next part of the set-up allows you to reset the configuration and scores saved on the <br/>computer. This would erase all configuration data (including the last file you chose if you <br/>had one chosen). <br/><br/>Now you can start the game. If there is no file specified, then a dialog window will open <br/>allowing you to choose a file from your computer. <br/>If you wish to change the file between games, click \"Restore Game Settings\".<br/>If you have not yet downloaded a file, you <br/>can click the \"Browse Web\" button to open your browser to search for a source file. <br/><br/>The program will remove punctuation, related characters, and words that are less than the <br/>minimum word length you specify. </html>"), "Hangman - Help", JOptionPane.INFORMATION_MESSAGE);
             }
         });
         helpInfo.setToolTipText("Click to get help about how Hangman works!");
     }
 
+    /**
+     * Updates the load progress bar from the preloader. Called on the event dispatch thread.
+     */
+    private void updateLoadProgress() {
+        if (preloader.isCancelled()) {
+            loadProgressBar.setVisible(false);
+        } else if (preloader.isDone()) {
+            loadProgressBar.setIndeterminate(false);
+            loadProgressBar.setValue(100);
+            loadProgressBar.setString("Words loaded");
+        } else if (preloader.getProgress() > 0) {
+            loadProgressBar.setIndeterminate(false);
+            loadProgressBar.setValue(preloader.getProgress());
+            loadProgressBar.setString("Loading words... " + preloader.getProgress() + "%");
+        }
+    }
+
+    /**
+     * Stops loading the configuration's file, if it is being loaded.
+     */
+    private void cancelPreload() {
+        if (preloader != null) {
+            preloader.cancel(true);
+            loadProgressBar.setVisible(false);
+        }
+    }
+
     /**
      * Resets user input fields.
      */
@@ -377,6 +479,11 @@ public class HangmanSetUp extends JDialog {
         filepathDisplay.setText(FILE_PATH_ERROR_TXT);
         optionKeepDuplicates.setSelected(HangmanGame.DEFAULT_DUPLICATES_SETTING);
         optionKeepProperNouns.setSelected(HangmanGame.DEFAULT_PROPER_NOUNS_SETTING);
+        optionLowMemoryMode.setSelected(HangmanGame.DEFAULT_LOW_MEMORY_SETTING);
+        optionWatchFile.setSelected(HangmanGame.DEFAULT_WATCH_FILE_SETTING);
+        optionOffHeapStorage.setSelected(HangmanGame.DEFAULT_OFF_HEAP_SETTING);
+        optionEvilMode.setSelected(HangmanGame.DEFAULT_EVIL_MODE_SETTING);
+        optionMatchWordDifficulty.setSelected(HangmanGame.DEFAULT_WORD_DIFFICULTY_SETTING);
         difficultyMenu.setSelectedItem(HangmanGame.DEFAULT_DIFFICULTY);
         minWordLengthTxtEntry.setText("" + HangmanGame.DEFAULT_MINIMUM_WORD_LENGTH);
         filePathDisplaySelection.setSelected(HangmanGame.DEFAULT_FILE_PATH_DISPLAY_SETTING);
@@ -421,6 +528,11 @@ public class HangmanSetUp extends JDialog {
         optionsPanel.add(difficultyMenu);
         optionsPanel.add(optionKeepDuplicates);
         optionsPanel.add(optionKeepProperNouns);
+        optionsPanel.add(optionLowMemoryMode);
+        optionsPanel.add(optionWatchFile);
+        optionsPanel.add(optionOffHeapStorage);
+        optionsPanel.add(optionEvilMode);
+        optionsPanel.add(optionMatchWordDifficulty);
 
         JPanel minWordLengthPanel = new JPanel();
         minWordLengthPanel.add(minWordLabel);
@@ -430,6 +542,7 @@ public class HangmanSetUp extends JDialog {
         filePanel.add(filePathLabel);
         filePanel.add(filePathDisplayCtrl);
         filePanel.add(filePathDisplaySelection);
+        filePanel.add(loadProgressBar);
 
         JPanel buttonsPanel = new JPanel();
         buttonsPanel.add(resetConfig);
@@ -0,0 +1,520 @@
+package hangman;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Class that plays many games at each difficulty with a bot, to see how the number of lives and the scoring constants
+ * play out: how often games are won, how many turns they take, and what they score.
+ * <p>
+ * The games are split with fork/join into batches that each play with a game of their own, so the only things the
+ * threads share are the loaded words and the solver's index, which are never changed. Each batch counts its results
+ * on its own and the counts are added up as the batches join, so the threads never wait for each other and the
+ * simulation speeds up with the number of cores.
+ * <p>
+ * Randomness is split the same way: each batch splits a SplittableRandom of its own off its parent's before it is
+ * forked, and picks its words and random guesses with it. No thread shares a source of randomness, and which batch
+ * gets which source does not depend on which thread runs it, so with a seed in the configuration a simulation plays
+ * the same games every time it is run with the same number of games and threads.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanSimulator {
+    /**
+     * The difficulties, from easiest to hardest.
+     */
+    public static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard", "Extreme"};
+    /**
+     * Fewest games a batch plays, so a batch's setup cost is spread over its games.
+     */
+    private static final int MINIMUM_BATCH_SIZE = 200;
+    /**
+     * Number of batches per thread, so threads that finish early can take work from the others.
+     */
+    private static final int BATCHES_PER_THREAD = 8;
+    /**
+     * Letters guessed by the random guesser.
+     */
+    private static final String RANDOM_LETTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+    /**
+     * Each of RANDOM_LETTERS as a guess, so random guesses don't make a String each time.
+     */
+    private static final String[] RANDOM_GUESSES = new String[RANDOM_LETTERS.length()];
+
+    static {
+        for (int i = 0; i < RANDOM_GUESSES.length; i++)
+            RANDOM_GUESSES[i] = String.valueOf(RANDOM_LETTERS.charAt(i));
+    }
+
+    /**
+     * Runs the games.
+     */
+    private HangmanEngine engine;
+    /**
+     * Configuration of the games, except for their difficulty.
+     */
+    private HangmanConfiguration configuration;
+    /**
+     * Picks the guesses, or null if guesses are random letters.
+     */
+    private HangmanSolver solver;
+    /**
+     * Runs the batches.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Constructor to instantiate HangmanSimulator objects, which loads the words (and indexes them for the bot)
+     *
+     * @param gameEngine        Runs the games
+     * @param gameConfiguration Configuration of the games; its difficulty is not used
+     * @param useBot            Whether the games are played by a HangmanSolver, or by guessing random letters that
+     *                          were not guessed yet
+     * @param forkJoinPool      Runs the batches
+     * @throws HangmanException If the words file could not be read or has no words that meet the configuration
+     */
+    public HangmanSimulator(HangmanEngine gameEngine, HangmanConfiguration gameConfiguration, boolean useBot, ForkJoinPool forkJoinPool) throws HangmanException {
+        engine = gameEngine;
+        configuration = gameConfiguration;
+        pool = forkJoinPool;
+        HangmanGame game = engine.newGame(configuration);
+        if (useBot)
+            solver = HangmanSolver.forGame(game);
+    }
+
+    /**
+     * Plays games at a difficulty.
+     *
+     * @param difficulty The difficulty
+     * @param games      Number of games to play
+     * @return The results
+     * @throws HangmanException If a game could not be started
+     */
+    public Results simulate(String difficulty, int games) throws HangmanException {
+        HangmanConfiguration gameConfiguration = new HangmanConfiguration(difficulty, configuration.isKeepDuplicates(),
+                configuration.isKeepProperNouns(), configuration.getMinimumWordLength(), configuration.getFilepath(),
+                configuration.isDisplayFilePath());
+        gameConfiguration.setOffHeapStorage(configuration.isOffHeapStorage());
+        gameConfiguration.setEvilMode(configuration.isEvilMode());
+        gameConfiguration.setMatchWordDifficulty(configuration.isMatchWordDifficulty());
+        gameConfiguration.setSeed(configuration.getSeed());
+        int batchSize = Math.max(MINIMUM_BATCH_SIZE, games / (BATCHES_PER_THREAD * pool.getParallelism()));
+        long start = System.nanoTime();
+        Results results = pool.invoke(new Batch(gameConfiguration, 0, games, batchSize, HangmanGame.newRandom(gameConfiguration)));
+        if (results.error != null)
+            throw results.error;
+        results.difficulty = difficulty;
+        results.nanos = System.nanoTime() - start;
+        return results;
+    }
+
+    /**
+     * Plays one game to its end.
+     *
+     * @param game   A game that was just started
+     * @param player Picks the guesses, or null to guess random letters
+     * @param random Source of randomness for random guesses
+     * @return The outcome of the guess that ended the game
+     */
+    private static HangmanGuessResult.Outcome play(HangmanGame game, HangmanSolver.Player player, SplittableRandom random) {
+        String[] letters = RANDOM_GUESSES.clone();
+        int left = letters.length;
+        while (true) {
+            String guess;
+            if (player != null) {
+                guess = player.nextGuess(game);
+            } else if (left > 0) { // a random letter that was not guessed yet
+                int pick = random.nextInt(left);
+                guess = letters[pick];
+                letters[pick] = letters[--left];
+            } else {
+                guess = game.getUserProgress(); // gives up on a word with other letters by guessing the progress as the word
+            }
+            HangmanGuessResult.Outcome outcome = game.guessOutcome(guess); // only the outcome, so nothing is allocated
+            if (outcome.isTerminal())
+                return outcome;
+        }
+    }
+
+    /**
+     * A range of games, played by a single thread or split in two.
+     */
+    private class Batch extends RecursiveTask<Results> {
+        /**
+         * Serialization version; batches are never serialized, but ForkJoinTask is Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Configuration of the games.
+         */
+        private HangmanConfiguration gameConfiguration;
+        /**
+         * First game of the range.
+         */
+        private int from;
+        /**
+         * End of the range.
+         */
+        private int to;
+        /**
+         * Most games played without splitting the range.
+         */
+        private int batchSize;
+        /**
+         * Source of randomness of the range's games and guesses.
+         */
+        private SplittableRandom random;
+
+        /**
+         * Constructor to instantiate Batch objects
+         *
+         * @param gameConfiguration Configuration of the games
+         * @param from              First game of the range
+         * @param to                End of the range
+         * @param batchSize         Most games played without splitting the range
+         * @param random            Source of randomness of the range's games and guesses, used by no other batch
+         */
+        private Batch(HangmanConfiguration gameConfiguration, int from, int to, int batchSize, SplittableRandom random) {
+            this.gameConfiguration = gameConfiguration;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.random = random;
+        }
+
+        @Override
+        protected Results compute() {
+            if (to - from > batchSize) {
+                int middle = (from + to) >>> 1;
+                Batch second = new Batch(gameConfiguration, middle, to, batchSize, random.split());
+                second.fork();
+                Results results = new Batch(gameConfiguration, from, middle, batchSize, random).compute();
+                results.add(second.join());
+                return results;
+            }
+            Results results = new Results();
+            try {
+                HangmanGame game = engine.newGame(gameConfiguration, random.split());
+                HangmanSolver.Player player = solver == null ? null : solver.newPlayer();
+                for (int i = from; i < to; i++) {
+                    if (i > from)
+                        game.newRound();
+                    HangmanGuessResult.Outcome outcome = play(game, player, random);
+                    HangmanScorer scorer = engine.score(game, outcome);
+                    results.record(outcome == HangmanGuessResult.Outcome.GOT_WORD, game.getTurns(), scorer.getUserScore());
+                }
+            } catch (HangmanException e) {
+                results.error = e;
+            }
+            return results;
+        }
+    }
+
+    /**
+     * The results of the games played at a difficulty.
+     */
+    public static class Results {
+        /**
+         * The difficulty.
+         */
+        private String difficulty;
+        /**
+         * Number of games played.
+         */
+        private long games;
+        /**
+         * Number of games won.
+         */
+        private long wins;
+        /**
+         * Number of turns of every game.
+         */
+        private Histogram turns = new Histogram();
+        /**
+         * Number of turns of the games won.
+         */
+        private Histogram winningTurns = new Histogram();
+        /**
+         * Score of every game (0 for games lost, as in the display).
+         */
+        private Histogram scores = new Histogram();
+        /**
+         * Score of the games won.
+         */
+        private Histogram winningScores = new Histogram();
+        /**
+         * How long the games took, in nanoseconds.
+         */
+        private long nanos;
+        /**
+         * The first error of a batch, or null.
+         */
+        private HangmanException error;
+
+        /**
+         * Records a game.
+         *
+         * @param won   Whether or not the game was won
+         * @param turns Number of turns the game took
+         * @param score The game's score
+         */
+        private void record(boolean won, int turns, int score) {
+            games++;
+            this.turns.add(turns);
+            scores.add(score);
+            if (won) {
+                wins++;
+                winningTurns.add(turns);
+                winningScores.add(score);
+            }
+        }
+
+        /**
+         * Adds the results of other games.
+         *
+         * @param other Results of other games at the same difficulty
+         */
+        private void add(Results other) {
+            games += other.games;
+            wins += other.wins;
+            turns.add(other.turns);
+            winningTurns.add(other.winningTurns);
+            scores.add(other.scores);
+            winningScores.add(other.winningScores);
+            if (error == null)
+                error = other.error;
+        }
+
+        /**
+         * Gets the number of games played.
+         *
+         * @return The number of games
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Gets the share of games won.
+         *
+         * @return The win rate, from 0 to 1
+         */
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        /**
+         * Gets the number of turns of every game.
+         *
+         * @return The distribution of turns
+         */
+        public Histogram getTurns() {
+            return turns;
+        }
+
+        /**
+         * Gets the number of turns of the games won.
+         *
+         * @return The distribution of turns of games won
+         */
+        public Histogram getWinningTurns() {
+            return winningTurns;
+        }
+
+        /**
+         * Gets the scores of every game, where games lost score 0.
+         *
+         * @return The distribution of scores
+         */
+        public Histogram getScores() {
+            return scores;
+        }
+
+        /**
+         * Gets the scores of the games won, as worked out by HangmanScorer.calculateScore().
+         *
+         * @return The distribution of scores of games won
+         */
+        public Histogram getWinningScores() {
+            return winningScores;
+        }
+
+        /**
+         * Gets how long the games took.
+         *
+         * @return The time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d games in %.2f s (%.0f games/s), won %.1f%%%n"
+                            + "  turns, all games: %s%n  turns, games won: %s%n"
+                            + "  score, all games: %s%n  score, games won: %s",
+                    difficulty, games, nanos / 1e9, games / (nanos / 1e9), 100 * getWinRate(),
+                    turns, winningTurns, scores, winningScores);
+        }
+    }
+
+    /**
+     * Counts how many times each whole number was seen.
+     */
+    public static class Histogram {
+        /**
+         * The smallest number that can be counted without growing the counts.
+         */
+        private int minimum;
+        /**
+         * Number of times each number was seen, from the minimum up.
+         */
+        private long[] counts = new long[0];
+        /**
+         * Number of numbers seen.
+         */
+        private long total;
+        /**
+         * Sum of the numbers seen.
+         */
+        private long sum;
+
+        /**
+         * Counts a number.
+         *
+         * @param value The number
+         */
+        public void add(int value) {
+            add(value, 1);
+        }
+
+        /**
+         * Counts a number several times.
+         *
+         * @param value The number
+         * @param count How many times it was seen
+         */
+        private void add(int value, long count) {
+            if (counts.length == 0) {
+                minimum = value;
+                counts = new long[16];
+            } else if (value < minimum) {
+                int shift = minimum - value;
+                long[] grown = new long[counts.length + shift];
+                System.arraycopy(counts, 0, grown, shift, counts.length);
+                counts = grown;
+                minimum = value;
+            } else if (value - minimum >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(2 * counts.length, value - minimum + 1));
+            }
+            counts[value - minimum] += count;
+            total += count;
+            sum += value * count;
+        }
+
+        /**
+         * Adds the counts of another histogram.
+         *
+         * @param other The other histogram
+         */
+        public void add(Histogram other) {
+            for (int i = 0; i < other.counts.length; i++)
+                if (other.counts[i] != 0)
+                    add(other.minimum + i, other.counts[i]);
+        }
+
+        /**
+         * Gets the number of times a number was seen.
+         *
+         * @param value The number
+         * @return How many times it was seen
+         */
+        public long getCount(int value) {
+            int index = value - minimum;
+            return index < 0 || index >= counts.length ? 0 : counts[index];
+        }
+
+        /**
+         * Gets the number of numbers seen.
+         *
+         * @return The number of numbers seen
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Gets the mean of the numbers seen.
+         *
+         * @return The mean, or 0 if none were seen
+         */
+        public double getMean() {
+            return total == 0 ? 0 : (double) sum / total;
+        }
+
+        /**
+         * Gets a percentile of the numbers seen.
+         *
+         * @param percentile The percentile, from 0 to 100
+         * @return The smallest number that at least that percent of the numbers are at most, or 0 if none were seen
+         */
+        public int getPercentile(double percentile) {
+            long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target)
+                    return minimum + i;
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            if (total == 0)
+                return "none";
+            return String.format("mean %.2f, min %d, p10 %d, p50 %d, p90 %d, p99 %d, max %d", getMean(),
+                    getPercentile(0), getPercentile(10), getPercentile(50), getPercentile(90), getPercentile(99),
+                    getPercentile(100));
+        }
+    }
+
+    /**
+     * Plays games at every difficulty and prints the results.
+     *
+     * @param args The words file, then optionally the number of games per difficulty (1000000), the guesser ("bot"
+     *             or "random"), the minimum word length, the number of threads (every core if not given) and a seed
+     *             (different games every run if not given)
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: HangmanSimulator words-file [games [bot|random [minimum-word-length [threads [seed]]]]]");
+            System.exit(1);
+        }
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        boolean useBot = args.length <= 2 || !args[2].equalsIgnoreCase("random");
+        int minimumWordLength = args.length > 3 ? Integer.parseInt(args[3]) : HangmanGame.DEFAULT_MINIMUM_WORD_LENGTH;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        HangmanConfiguration configuration = new HangmanConfiguration(HangmanGame.DEFAULT_DIFFICULTY,
+                HangmanGame.DEFAULT_DUPLICATES_SETTING, HangmanGame.DEFAULT_PROPER_NOUNS_SETTING, minimumWordLength,
+                new File(args[0]).getAbsolutePath(), HangmanGame.DEFAULT_FILE_PATH_DISPLAY_SETTING);
+        if (args.length > 5)
+            configuration.setSeed(Long.parseLong(args[5]));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            HangmanSimulator simulator = new HangmanSimulator(new HangmanEngine("Hangman Data", false), configuration, useBot, pool);
+            System.out.println("Playing " + games + " games per difficulty with " + (useBot ? "the bot" : "random guesses")
+                    + " on " + threads + " thread(s)");
+            for (String difficulty : DIFFICULTIES)
+                System.out.println(simulator.simulate(difficulty, games));
+        } catch (HangmanException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package hangman;
+
+import java.util.*;
+
+/**
+ * Class that plays hangman by itself, picking each guess from what the user's progress and incorrect guesses say the
+ * word could still be.
+ * <p>
+ * The words a game picks from are indexed once, by length. For every length there is a bitset (one bit per distinct
+ * word of that length) for each position and letter, with the bits of the words that have the letter at the
+ * position, and one for each letter, with the bits of the words that have the letter anywhere. A Player keeps the
+ * bitset of the words the game's word could still be, and narrows it after each guess with bitwise ANDs: a shown
+ * letter keeps the words with that letter at its positions and not at any hidden position, and an incorrect letter
+ * removes the words that have it. The next guess is the letter not yet guessed that the most candidate words have
+ * (counted with bit counts), or the word itself once only one candidate is left.
+ * <p>
+ * A solver is never changed once built, so one can be shared by the players of many games; a Player belongs to one
+ * game at a time.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanSolver {
+    /**
+     * Letters and digits from most to least common in English, guessed in order when no word fits the game.
+     */
+    private static final String FALLBACK_ORDER = "etaoinshrdlcumwfgypbvkjxqz0123456789";
+    /**
+     * Each of FALLBACK_ORDER as a guess, so guesses don't make a String each time.
+     */
+    private static final String[] FALLBACK_GUESSES = new String[FALLBACK_ORDER.length()];
+
+    static {
+        for (int i = 0; i < FALLBACK_GUESSES.length; i++)
+            FALLBACK_GUESSES[i] = String.valueOf(FALLBACK_ORDER.charAt(i));
+    }
+
+    /**
+     * The indexed words of each length.
+     */
+    private Map<Integer, Bucket> buckets;
+
+    /**
+     * Constructor to instantiate HangmanSolver objects, which indexes the words
+     *
+     * @param words The words a game picks from
+     */
+    public HangmanSolver(HangmanCorpus.View words) {
+        Map<Integer, Set<String>> distinctWords = new HashMap<Integer, Set<String>>();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i).toLowerCase(); // guesses and progress are in lower case
+            Set<String> sameLength = distinctWords.get(word.length());
+            if (sameLength == null) {
+                sameLength = new HashSet<String>();
+                distinctWords.put(word.length(), sameLength);
+            }
+            sameLength.add(word);
+        }
+        buckets = new HashMap<Integer, Bucket>();
+        for (Map.Entry<Integer, Set<String>> entry : distinctWords.entrySet())
+            buckets.put(entry.getKey(), new Bucket(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Makes a solver for the words of a game.
+     *
+     * @param game A game that is not in low memory mode
+     * @return A solver for the game's words
+     * @throws IllegalArgumentException If the game is in low memory mode, so its words are not loaded
+     */
+    public static HangmanSolver forGame(HangmanGame game) {
+        if (game.getCorpus() == null)
+            throw new IllegalArgumentException("A game in low memory mode has no words to solve with");
+        return new HangmanSolver(game.getCorpus().view(game.getMinimumWordLength(), game.isKeepProperNouns(), game.isKeepDuplicates()));
+    }
+
+    /**
+     * Starts a player, which can play any number of games one after another.
+     *
+     * @return A new player
+     */
+    public Player newPlayer() {
+        return new Player();
+    }
+
+    /**
+     * Gets the number of distinct words of a length.
+     *
+     * @param length A word length
+     * @return The number of distinct words (in lower case) of the length
+     */
+    public int getWordCount(int length) {
+        Bucket bucket = buckets.get(length);
+        return bucket == null ? 0 : bucket.words.length;
+    }
+
+    /**
+     * The index of the words of one length.
+     */
+    private static class Bucket {
+        /**
+         * The words, in the order of their bits.
+         */
+        private String[] words;
+        /**
+         * The letters the words have, sorted.
+         */
+        private char[] alphabet;
+        /**
+         * Each letter of alphabet as a guess.
+         */
+        private String[] alphabetGuesses;
+        /**
+         * The bits of the words with each letter at each position, at position * alphabet length + letter; null if no
+         * word has the letter at the position.
+         */
+        private long[][] positionLetters;
+        /**
+         * The bits of the words with each letter anywhere.
+         */
+        private long[][] containsLetter;
+        /**
+         * Number of longs in each bitset.
+         */
+        private int bitsetLength;
+
+        /**
+         * Constructor to instantiate Bucket objects, which indexes the words
+         *
+         * @param length         The words' length
+         * @param distinctWords  The distinct words of the length
+         */
+        private Bucket(int length, Set<String> distinctWords) {
+            words = distinctWords.toArray(new String[distinctWords.size()]);
+            Arrays.sort(words); // so a solver plays the same way every time
+            bitsetLength = (words.length + 63) / 64;
+
+            StringBuilder letters = new StringBuilder();
+            BitSet seen = new BitSet();
+            for (String word : words)
+                for (int i = 0; i < length; i++)
+                    if (!seen.get(word.charAt(i))) {
+                        seen.set(word.charAt(i));
+                        letters.append(word.charAt(i));
+                    }
+            alphabet = letters.toString().toCharArray();
+            Arrays.sort(alphabet);
+            alphabetGuesses = new String[alphabet.length];
+            for (int letter = 0; letter < alphabet.length; letter++)
+                alphabetGuesses[letter] = String.valueOf(alphabet[letter]);
+
+            positionLetters = new long[length * alphabet.length][];
+            containsLetter = new long[alphabet.length][];
+            for (int j = 0; j < words.length; j++) {
+                long bit = 1L << j;
+                for (int i = 0; i < length; i++) {
+                    int letter = Arrays.binarySearch(alphabet, words[j].charAt(i));
+                    int slot = i * alphabet.length + letter;
+                    if (positionLetters[slot] == null)
+                        positionLetters[slot] = new long[bitsetLength];
+                    positionLetters[slot][j >>> 6] |= bit;
+                    if (containsLetter[letter] == null)
+                        containsLetter[letter] = new long[bitsetLength];
+                    containsLetter[letter][j >>> 6] |= bit;
+                }
+            }
+        }
+
+        /**
+         * Gets the bits of the words with a letter at a position.
+         *
+         * @param position A position
+         * @param letter   A letter
+         * @return The bitset, or null if no word has the letter at the position
+         */
+        private long[] atPosition(int position, char letter) {
+            int index = Arrays.binarySearch(alphabet, letter);
+            return index < 0 ? null : positionLetters[position * alphabet.length + index];
+        }
+
+        /**
+         * Gets the bits of the words with a letter anywhere.
+         *
+         * @param letter A letter
+         * @return The bitset, or null if no word has the letter
+         */
+        private long[] containing(char letter) {
+            int index = Arrays.binarySearch(alphabet, letter);
+            return index < 0 ? null : containsLetter[index];
+        }
+    }
+
+    /**
+     * Plays a game: keeps the words the game's word could still be, and picks guesses.
+     */
+    public class Player {
+        /**
+         * The index of the words the game's word could be, or null if no words are that long.
+         */
+        private Bucket bucket;
+        /**
+         * The bits of the words the game's word could still be.
+         */
+        private long[] candidates;
+        /**
+         * The user's progress the candidates were narrowed with, or null before the first guess of a game.
+         */
+        private char[] progress;
+        /**
+         * Number of the game's incorrect guesses the candidates were narrowed with.
+         */
+        private int incorrectCount;
+        /**
+         * The letters guessed in the game.
+         */
+        private HangmanGuessedLetters guessed;
+        /**
+         * The letters shown since the candidates were last narrowed, reused from guess to guess.
+         */
+        private StringBuilder shownLetters;
+
+        /**
+         * Constructor to instantiate Player objects
+         */
+        private Player() {
+            guessed = new HangmanGuessedLetters();
+            shownLetters = new StringBuilder();
+        }
+
+        /**
+         * Picks the next guess for a game.
+         *
+         * @param game A game that is not over
+         * @return A letter, or the whole word once only one word fits
+         */
+        public String nextGuess(HangmanGame game) {
+            return nextGuess(game.getProgressView(), game.getIncorrectGuesses());
+        }
+
+        /**
+         * Picks the next guess from a game's state. A new game is noticed when the progress no longer follows from
+         * the last one given (e.g. its length changed or a shown letter is hidden again).
+         *
+         * @param userProgress     The user's progress, with '-' for hidden letters
+         * @param incorrectGuesses The incorrect guesses, in the order they were made
+         * @return A letter, or the whole word once only one word fits
+         */
+        public String nextGuess(CharSequence userProgress, List<String> incorrectGuesses) {
+            if (!continues(userProgress, incorrectGuesses))
+                startGame(userProgress.length());
+            narrow(userProgress, incorrectGuesses);
+            return pick();
+        }
+
+        /**
+         * Gets the number of words the game's word could still be.
+         *
+         * @return The number of candidate words
+         */
+        public int getCandidateCount() {
+            int count = 0;
+            if (candidates != null)
+                for (long bits : candidates)
+                    count += Long.bitCount(bits);
+            return count;
+        }
+
+        /**
+         * Checks whether a game's state follows from the state the candidates were narrowed with.
+         *
+         * @param userProgress     The user's progress
+         * @param incorrectGuesses The incorrect guesses
+         * @return Whether or not it is the same game
+         */
+        private boolean continues(CharSequence userProgress, List<String> incorrectGuesses) {
+            if (progress == null || progress.length != userProgress.length() || incorrectGuesses.size() < incorrectCount)
+                return false;
+            for (int i = 0; i < progress.length; i++)
+                if (progress[i] != '-' && progress[i] != userProgress.charAt(i))
+                    return false;
+            return true;
+        }
+
+        /**
+         * Starts a game, where any word of the length could be the game's word.
+         *
+         * @param length The length of the game's word
+         */
+        private void startGame(int length) {
+            bucket = buckets.get(length);
+            candidates = null;
+            if (bucket != null) {
+                candidates = new long[bucket.bitsetLength];
+                Arrays.fill(candidates, -1L);
+                int extra = candidates.length * 64 - bucket.words.length;
+                if (extra > 0)
+                    candidates[candidates.length - 1] = -1L >>> extra;
+            }
+            progress = new char[length];
+            Arrays.fill(progress, '-');
+            incorrectCount = 0;
+            guessed.clear();
+        }
+
+        /**
+         * Narrows the candidates with what the game learned since they were last narrowed.
+         *
+         * @param userProgress     The user's progress
+         * @param incorrectGuesses The incorrect guesses
+         */
+        private void narrow(CharSequence userProgress, List<String> incorrectGuesses) {
+            shownLetters.setLength(0);
+            for (int i = 0; i < progress.length; i++) {
+                char letter = userProgress.charAt(i);
+                if (progress[i] != '-' || letter == '-')
+                    continue;
+                progress[i] = letter;
+                and(bucket == null ? null : bucket.atPosition(i, letter));
+                if (guessed.add(letter))
+                    shownLetters.append(letter);
+            }
+            // every position of a shown letter is shown, so the hidden positions have other letters
+            for (int k = 0; k < shownLetters.length(); k++)
+                for (int i = 0; i < progress.length; i++)
+                    if (progress[i] == '-')
+                        andNot(bucket == null ? null : bucket.atPosition(i, shownLetters.charAt(k)));
+            for (; incorrectCount < incorrectGuesses.size(); incorrectCount++) {
+                String incorrect = incorrectGuesses.get(incorrectCount);
+                if (incorrect.length() == 1 && guessed.add(incorrect.charAt(0)))
+                    andNot(bucket == null ? null : bucket.containing(incorrect.charAt(0)));
+            }
+        }
+
+        /**
+         * Keeps only the candidates in a bitset.
+         *
+         * @param bits The bitset, or null for none
+         */
+        private void and(long[] bits) {
+            if (candidates == null)
+                return;
+            for (int i = 0; i < candidates.length; i++)
+                candidates[i] &= bits == null ? 0 : bits[i];
+        }
+
+        /**
+         * Removes the candidates in a bitset.
+         *
+         * @param bits The bitset, or null for none
+         */
+        private void andNot(long[] bits) {
+            if (candidates == null || bits == null)
+                return;
+            for (int i = 0; i < candidates.length; i++)
+                candidates[i] &= ~bits[i];
+        }
+
+        /**
+         * Picks the next guess from the candidates.
+         *
+         * @return The guess
+         */
+        private String pick() {
+            int count = getCandidateCount();
+            if (count == 1) {
+                for (int i = 0; i < candidates.length; i++)
+                    if (candidates[i] != 0)
+                        return bucket.words[i * 64 + Long.numberOfTrailingZeros(candidates[i])];
+            }
+            if (count > 0) {
+                int best = -1;
+                int bestCount = 0;
+                for (int letter = 0; letter < bucket.alphabet.length; letter++) {
+                    if (guessed.contains(bucket.alphabet[letter]))
+                        continue;
+                    long[] bits = bucket.containsLetter[letter];
+                    int letterCount = 0;
+                    for (int i = 0; i < candidates.length; i++)
+                        letterCount += Long.bitCount(candidates[i] & bits[i]);
+                    if (letterCount > bestCount) {
+                        best = letter;
+                        bestCount = letterCount;
+                    }
+                }
+                if (best != -1)
+                    return bucket.alphabetGuesses[best];
+            }
+            // no known word fits, e.g. the word is not in the indexed words
+            for (int i = 0; i < FALLBACK_ORDER.length(); i++)
+                if (!guessed.contains(FALLBACK_ORDER.charAt(i)))
+                    return FALLBACK_GUESSES[i];
+            return new String(progress); // every letter and digit was guessed, so it gives up by guessing a wrong word
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package hangman;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class that scores how hard each word of a word store is to guess, so games can pick words that match their
+ * difficulty. A higher score is a harder word. A word's score adds up:
+ * <ul>
+ * <li>how rare its letters are: the mean, over its distinct letters, of -log2 of the share of words that have the
+ * letter, so a word of letters few words have costs more wrong guesses;</li>
+ * <li>how many words share its pattern: the word with its letters that are not among the most common letters of the
+ * words hidden, e.g. "-i-ht" for both "fight" and "might". log2 of the number of words with the pattern is added, as
+ * the more words look the same once the common letters are guessed, the more guesses it takes to tell them
+ * apart;</li>
+ * <li>less DISTINCT_LETTER_WEIGHT for each distinct letter, as each one is another letter a guess can hit.</li>
+ * </ul>
+ * Letter shares and pattern counts are over distinct words only (the first occurrences of the corpus), so a word
+ * that appears many times in a file does not count as many words with its letters and pattern. A score only depends
+ * on the word in lower case and those counts, so a repeat scores the same as its first occurrence.
+ * <p>
+ * The words are scored with fork/join in three passes: counting how many words have each letter, scoring each word
+ * and hashing its pattern, then sorting the hashes to count the words with each pattern. Each pass splits the words
+ * into ranges that are worked on without sharing anything but their inputs, so the passes use every core; a million
+ * words are scored in about a second even on one.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordDifficulty {
+    /**
+     * Number of bands games pick words from, one per difficulty from Easy to Extreme.
+     */
+    public static final int BANDS = 4;
+    /**
+     * Fewest words a band needs for games to pick from it, so the few words of a small file are not repeated.
+     */
+    public static final int MINIMUM_BAND_SIZE = 10;
+    /**
+     * Number of the most common letters of the words that are shown in a word's pattern.
+     */
+    public static final int PATTERN_LETTER_COUNT = 8;
+    /**
+     * How much each distinct letter of a word takes off its score.
+     */
+    public static final double DISTINCT_LETTER_WEIGHT = 0.5;
+    /**
+     * Fewest words scored in a range without splitting it.
+     */
+    private static final int MINIMUM_RANGE_SIZE = 8192;
+    /**
+     * Letters counted one by one; lower case letters past them are counted together as one letter.
+     */
+    private static final int COUNTED_LETTERS = 128;
+    /**
+     * Letter used for every letter past the ones counted one by one.
+     */
+    private static final int OTHER_LETTER = COUNTED_LETTERS;
+    /**
+     * The words.
+     */
+    private HangmanReadOnlyWordStore words;
+    /**
+     * Number of words with each letter, by lower case letter (OTHER_LETTER for any letter past COUNTED_LETTERS).
+     */
+    private long[] letterCounts;
+    /**
+     * Whether or not each letter is shown in patterns.
+     */
+    private boolean[] patternLetters;
+    /**
+     * The score of each word.
+     */
+    private float[] scores;
+    /**
+     * The hash of each word's length and pattern.
+     */
+    private long[] patterns;
+    /**
+     * The words that are counted as distinct words.
+     */
+    private BitSet distinctWords;
+    /**
+     * Number of distinct words.
+     */
+    private int distinctCount;
+
+    /**
+     * Constructor to instantiate HangmanWordDifficulty objects, which scores every word of a store
+     *
+     * @param store    The words
+     * @param distinct The words counted as distinct words, i.e. the first occurrence of each word; every other word
+     *                 must repeat one of them
+     * @param pool     Runs the passes
+     */
+    public HangmanWordDifficulty(HangmanReadOnlyWordStore store, BitSet distinct, ForkJoinPool pool) {
+        words = store;
+        distinctWords = distinct;
+        distinctCount = distinct.cardinality();
+        int size = words.size();
+        scores = new float[size];
+        patterns = new long[size];
+
+        Pass counting = new Pass(Pass.COUNT_LETTERS, 0, size);
+        pool.invoke(counting);
+        letterCounts = counting.counts;
+        patternLetters = mostCommonLetters(letterCounts, PATTERN_LETTER_COUNT);
+
+        pool.invoke(new Pass(Pass.SCORE_WORDS, 0, size));
+
+        long[] sortedPatterns = new long[distinctCount];
+        int next = 0;
+        for (int w = distinctWords.nextSetBit(0); w >= 0 && w < size; w = distinctWords.nextSetBit(w + 1))
+            sortedPatterns[next++] = patterns[w];
+        Arrays.parallelSort(sortedPatterns, 0, next); // sorts on the common pool
+        Pass sharing = new Pass(Pass.COUNT_PATTERNS, 0, size);
+        sharing.sortedPatterns = sortedPatterns;
+        pool.invoke(sharing);
+        patterns = null; // only needed while scoring
+        distinctWords = null;
+    }
+
+    /**
+     * Scores the words of a store with the common pool.
+     *
+     * @param store    The words
+     * @param distinct The words counted as distinct words
+     * @return The scores
+     */
+    public static HangmanWordDifficulty analyze(HangmanReadOnlyWordStore store, BitSet distinct) {
+        return new HangmanWordDifficulty(store, distinct, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Picks the letters most words have.
+     *
+     * @param counts Number of words with each letter
+     * @param count  Number of letters to pick
+     * @return Whether or not each letter was picked
+     */
+    private static boolean[] mostCommonLetters(long[] counts, int count) {
+        boolean[] picked = new boolean[counts.length];
+        for (int n = 0; n < count; n++) {
+            int best = -1;
+            for (int letter = 0; letter < OTHER_LETTER; letter++) // the other letters are not one letter, so never shown
+                if (!picked[letter] && counts[letter] > 0 && (best == -1 || counts[letter] > counts[best]))
+                    best = letter;
+            if (best == -1)
+                break;
+            picked[best] = true;
+        }
+        return picked;
+    }
+
+    /**
+     * Gets a word's letter, as counted.
+     *
+     * @param c A character of a word
+     * @return Its lower case letter, or OTHER_LETTER for a letter past the ones counted one by one
+     */
+    private static int letterOf(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower < COUNTED_LETTERS ? lower : OTHER_LETTER;
+    }
+
+    /**
+     * Gets the score of a word.
+     *
+     * @param index The word's index in the store
+     * @return The word's score; higher is harder
+     */
+    public float getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Gets the number of words scored.
+     *
+     * @return The number of words
+     */
+    public int size() {
+        return scores.length;
+    }
+
+    /**
+     * A pass over a range of the words, done by one thread or split in two.
+     */
+    private class Pass extends RecursiveAction {
+        /**
+         * Serialization version; passes are never serialized, but ForkJoinTask is Serializable.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Pass that counts the words with each letter.
+         */
+        private static final int COUNT_LETTERS = 0;
+        /**
+         * Pass that scores each word by its letters and hashes its pattern.
+         */
+        private static final int SCORE_WORDS = 1;
+        /**
+         * Pass that adds how many words share each word's pattern to its score.
+         */
+        private static final int COUNT_PATTERNS = 2;
+        /**
+         * Which pass this is.
+         */
+        private int kind;
+        /**
+         * First word of the range.
+         */
+        private int from;
+        /**
+         * End of the range.
+         */
+        private int to;
+        /**
+         * Number of words of the range with each letter, for the counting pass.
+         */
+        private long[] counts;
+        /**
+         * Every word's pattern hash, sorted, for the pattern pass.
+         */
+        private long[] sortedPatterns;
+
+        /**
+         * Constructor to instantiate Pass objects
+         *
+         * @param passKind Which pass this is
+         * @param start    First word of the range
+         * @param end      End of the range
+         */
+        private Pass(int passKind, int start, int end) {
+            kind = passKind;
+            from = start;
+            to = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MINIMUM_RANGE_SIZE) {
+                int middle = (from + to) >>> 1;
+                Pass first = new Pass(kind, from, middle);
+                Pass second = new Pass(kind, middle, to);
+                first.sortedPatterns = second.sortedPatterns = sortedPatterns;
+                invokeAll(first, second);
+                if (kind == COUNT_LETTERS) {
+                    counts = first.counts;
+                    for (int letter = 0; letter < counts.length; letter++)
+                        counts[letter] += second.counts[letter];
+                }
+                return;
+            }
+            if (kind == COUNT_LETTERS)
+                countLetters();
+            else if (kind == SCORE_WORDS)
+                scoreWords();
+            else
+                countPatterns();
+        }
+
+        /**
+         * Counts the distinct words of the range with each letter.
+         */
+        private void countLetters() {
+            counts = new long[COUNTED_LETTERS + 1];
+            boolean[] seen = new boolean[COUNTED_LETTERS + 1];
+            for (int w = distinctWords.nextSetBit(from); w >= 0 && w < to; w = distinctWords.nextSetBit(w + 1)) {
+                int length = words.length(w);
+                for (int i = 0; i < length; i++) {
+                    int letter = letterOf(words.charAt(w, i));
+                    if (!seen[letter]) {
+                        seen[letter] = true;
+                        counts[letter]++;
+                    }
+                }
+                for (int i = 0; i < length; i++) // clears only what was set, rather than the whole array
+                    seen[letterOf(words.charAt(w, i))] = false;
+            }
+        }
+
+        /**
+         * Scores the words of the range by their letters, and hashes their patterns.
+         */
+        private void scoreWords() {
+            double total = Math.max(1, distinctCount);
+            double[] rarity = new double[letterCounts.length];
+            for (int letter = 0; letter < rarity.length; letter++)
+                rarity[letter] = letterCounts[letter] == 0 ? 0 : -Math.log(letterCounts[letter] / total) / Math.log(2);
+            boolean[] seen = new boolean[COUNTED_LETTERS + 1];
+            for (int w = from; w < to; w++) {
+                int length = words.length(w);
+                long hash = 0xcbf29ce484222325L ^ length; // FNV-1a, starting from the length
+                int distinct = 0;
+                double rarities = 0;
+                for (int i = 0; i < length; i++) {
+                    int letter = letterOf(words.charAt(w, i));
+                    if (!seen[letter]) {
+                        seen[letter] = true;
+                        distinct++;
+                        rarities += rarity[letter];
+                    }
+                    hash = (hash ^ (patternLetters[letter] ? letter : '-')) * 0x100000001b3L;
+                }
+                for (int i = 0; i < length; i++)
+                    seen[letterOf(words.charAt(w, i))] = false;
+                patterns[w] = hash;
+                scores[w] = (float) ((distinct == 0 ? 0 : rarities / distinct) - DISTINCT_LETTER_WEIGHT * distinct);
+            }
+        }
+
+        /**
+         * Adds how many distinct words share each word's pattern to the scores of the range's words.
+         */
+        private void countPatterns() {
+            for (int w = from; w < to; w++) {
+                long pattern = patterns[w];
+                int sharing = upperBound(sortedPatterns, pattern) - lowerBound(sortedPatterns, pattern);
+                scores[w] += (float) (Math.log(Math.max(1, sharing)) / Math.log(2));
+            }
+        }
+    }
+
+    /**
+     * Finds the first element of a sorted array that is at least a value.
+     *
+     * @param sorted A sorted array
+     * @param value  A value
+     * @return The element's index, or the array's length if there is none
+     */
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first element of a sorted array that is greater than a value.
+     *
+     * @param sorted A sorted array
+     * @param value  A value
+     * @return The element's index, or the array's length if there is none
+     */
+    private static int upperBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
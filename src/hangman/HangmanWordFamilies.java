@@ -0,0 +1,216 @@
+package hangman;
+
+/**
+ * Class that keeps the words an evil mode game's word could still be, so the game can put off picking its word until
+ * it has to. After each guessed letter, the candidate words are split into families by where the letter appears in
+ * them (a bitmask of positions), and only the largest family is kept: the guess reveals the positions its family
+ * shares, and the word stays any one of the family's words.
+ * <p>
+ * The candidates are kept as their lower case letters packed into one array, in place of the words themselves, so a
+ * guess reads them in order without going back to the words (which may be off-heap). Each guess makes one pass to
+ * count the families in a reused hash table and one to move the chosen family's words to the front, so it takes time
+ * linear in the candidates left and allocates nothing.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordFamilies {
+    /**
+     * Longest word that can be split into families, as a family's positions are kept in a long.
+     */
+    public static final int MAXIMUM_WORD_LENGTH = 64;
+    /**
+     * Fewest slots of the family table.
+     */
+    private static final int MINIMUM_TABLE_SIZE = 16;
+    /**
+     * The words the candidates are from.
+     */
+    private HangmanCorpus.View words;
+    /**
+     * Length of the candidate words.
+     */
+    private int length;
+    /**
+     * The lower case letters of the candidates, one after another.
+     */
+    private char[] letters;
+    /**
+     * The index in words of each candidate.
+     */
+    private int[] indices;
+    /**
+     * Number of candidates left.
+     */
+    private int count;
+    /**
+     * The family of each candidate for the current guess.
+     */
+    private long[] families;
+    /**
+     * The families of the family table, by slot.
+     */
+    private long[] tableFamilies;
+    /**
+     * Number of candidates in the family at each slot of the family table; 0 if the slot is empty.
+     */
+    private int[] tableCounts;
+    /**
+     * The slots of the family table in use, so they can be emptied without going through the whole table.
+     */
+    private int[] usedSlots;
+
+    /**
+     * Constructor to instantiate HangmanWordFamilies objects, in which every word of a length is a candidate
+     *
+     * @param wordsView The words a game picks from
+     * @param wordLength The length of the game's word, in lower case, at most MAXIMUM_WORD_LENGTH
+     */
+    public HangmanWordFamilies(HangmanCorpus.View wordsView, int wordLength) {
+        if (wordLength > MAXIMUM_WORD_LENGTH)
+            throw new IllegalArgumentException("Words longer than " + MAXIMUM_WORD_LENGTH + " letters can't be split into families");
+        words = wordsView;
+        length = wordLength;
+        count = 0;
+        for (int i = 0; i < words.size(); i++)
+            if (isCandidate(words.get(i)))
+                count++;
+        letters = new char[count * length];
+        indices = new int[count];
+        int candidate = 0;
+        for (int i = 0; i < words.size() && candidate < count; i++) {
+            String word = words.get(i);
+            if (!isCandidate(word))
+                continue;
+            word.toLowerCase().getChars(0, length, letters, candidate * length);
+            indices[candidate++] = i;
+        }
+        count = candidate; // in case the words were fewer the second time around
+        families = new long[count];
+        int tableSize = Integer.highestOneBit(Math.max(MINIMUM_TABLE_SIZE, count * 2 - 1)) * 2;
+        tableFamilies = new long[tableSize];
+        tableCounts = new int[tableSize];
+        usedSlots = new int[Math.min(count, tableSize)];
+    }
+
+    /**
+     * Checks whether a word can be the game's word: its length, in lower case, is the game's word's, and making it
+     * lower case did not change its length (so its letters line up with its positions).
+     *
+     * @param word A word
+     * @return Whether or not the word is a candidate
+     */
+    private boolean isCandidate(String word) {
+        return word.length() == length && word.toLowerCase().length() == length;
+    }
+
+    /**
+     * Keeps the largest family of candidates for a guessed letter. Of families of the same size, the one that shows
+     * the fewest positions is kept, so a letter no candidate has left costs the player a life.
+     *
+     * @param letter A letter, in lower case, that has not been guessed yet
+     * @return A word of the family that was kept, which has the letter at the positions the family shares
+     */
+    public String guess(char letter) {
+        if (count == 0)
+            throw new IllegalStateException("There are no words to guess");
+        int mask = tableFamilies.length - 1;
+        int slotsUsed = 0;
+        for (int i = 0; i < count; i++) {
+            long family = 0;
+            int start = i * length;
+            for (int position = 0; position < length; position++)
+                if (letters[start + position] == letter)
+                    family |= 1L << position;
+            families[i] = family;
+            int slot = slotFor(family, mask);
+            if (tableCounts[slot] == 0) {
+                tableFamilies[slot] = family;
+                usedSlots[slotsUsed++] = slot;
+            }
+            tableCounts[slot]++;
+        }
+
+        long kept = 0;
+        int keptCount = 0;
+        for (int i = 0; i < slotsUsed; i++) {
+            int slot = usedSlots[i];
+            long family = tableFamilies[slot];
+            int familyCount = tableCounts[slot];
+            tableCounts[slot] = 0; // empties the table for the next guess
+            if (familyCount > keptCount || (familyCount == keptCount && (Long.bitCount(family) < Long.bitCount(kept)
+                    || (Long.bitCount(family) == Long.bitCount(kept) && family < kept)))) {
+                kept = family;
+                keptCount = familyCount;
+            }
+        }
+
+        int left = 0;
+        for (int i = 0; i < count; i++) {
+            if (families[i] != kept)
+                continue;
+            if (left != i) {
+                System.arraycopy(letters, i * length, letters, left * length, length);
+                indices[left] = indices[i];
+            }
+            left++;
+        }
+        count = left;
+        return words.get(indices[0]);
+    }
+
+    /**
+     * Finds the slot of a family in the family table, which is either the family's slot or the empty slot it goes in.
+     *
+     * @param family A family
+     * @param mask   The table's size minus 1
+     * @return The slot
+     */
+    private int slotFor(long family, int mask) {
+        long hash = family * 0x9E3779B97F4A7C15L; // spreads the positions, which are mostly low bits, over the slots
+        int slot = (int) (hash >>> 32) & mask;
+        while (tableCounts[slot] != 0 && tableFamilies[slot] != family)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Picks a candidate other than a guessed word, if there is one, so guessing a word is only right once it is the
+     * only candidate.
+     *
+     * @param guess A guessed word
+     * @return A candidate that is not the guess (ignoring case), or the guess' candidate if it is the only one
+     */
+    public String avoid(String guess) {
+        String lowerCaseGuess = guess.toLowerCase();
+        for (int i = 0; i < count; i++)
+            if (!matches(i, lowerCaseGuess))
+                return words.get(indices[i]);
+        return count == 0 ? null : words.get(indices[0]);
+    }
+
+    /**
+     * Checks whether a candidate is a word.
+     *
+     * @param candidate      A candidate
+     * @param lowerCaseWord  A word, in lower case
+     * @return Whether or not the candidate is the word
+     */
+    private boolean matches(int candidate, String lowerCaseWord) {
+        if (lowerCaseWord.length() != length)
+            return false;
+        int start = candidate * length;
+        for (int position = 0; position < length; position++)
+            if (letters[start + position] != lowerCaseWord.charAt(position))
+                return false;
+        return true;
+    }
+
+    /**
+     * Gets the number of words the game's word could still be.
+     *
+     * @return The number of candidates
+     */
+    public int getCandidateCount() {
+        return count;
+    }
+}
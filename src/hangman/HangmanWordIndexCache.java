@@ -0,0 +1,622 @@
+package hangman;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Class that stores the corpus of a words file in a binary index file in the game data directory, so the words file
+ * does not have to be read again the next time it is used.
+ * <p>
+ * An index is only used if the words file's path, size, last modified time and content hash are all the same as when
+ * it was written. The corpus holds the words for every setting, so changing settings does not need a new index. Each
+ * index ends with a CRC32 checksum of its contents, so an index that was cut short or damaged is ignored and written
+ * again.
+ * <p>
+ * An index can also be memory-mapped instead of read (see map() and writeMapped()), in which case the index file
+ * itself holds the words while the game runs and they are not copied onto the heap.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordIndexCache {
+    /**
+     * Value at the start of every index file.
+     */
+    private static final int MAGIC_NUMBER = 0x48474D49; // "HGMI"
+    /**
+     * Version of the index file format.
+     */
+    private static final int FORMAT_VERSION = 3;
+    /**
+     * Size of the blocks arrays are read and written in.
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+    /**
+     * Directory the index files are stored in.
+     */
+    private File directory;
+
+    /**
+     * Constructor to instantiate HangmanWordIndexCache objects
+     *
+     * @param dirPath The game data directory
+     */
+    public HangmanWordIndexCache(String dirPath) {
+        directory = new File(dirPath);
+    }
+
+    /**
+     * Identifies a words file and the version of its contents.
+     */
+    public static class Key {
+        /**
+         * Absolute path of the words file.
+         */
+        private String path;
+        /**
+         * Size of the words file.
+         */
+        private long size;
+        /**
+         * Last modified time of the words file.
+         */
+        private long lastModified;
+        /**
+         * SHA-256 hash of the words file's contents.
+         */
+        private byte[] contentHash;
+        /**
+         * Whether or not any of the files is compressed, in which case the size does not bound the number of
+         * characters.
+         */
+        private boolean compressed;
+
+        /**
+         * Constructor to instantiate Key objects, which reads the whole file to hash it. A source made of several files
+         * has the total size, latest last modified time and a hash of every file's path and contents.
+         *
+         * @param file The words file, or a source: a directory, or several of them separated by File.pathSeparator
+         * @throws IOException If the file could not be read
+         */
+        public Key(File file) throws IOException {
+            path = file.getAbsolutePath();
+            List<File> files = HangmanCorpusLoader.listSourceFiles(file.getPath());
+            if (files.size() == 1 && files.get(0).equals(file)) {
+                size = file.length();
+                lastModified = file.lastModified();
+                contentHash = hashContent(file);
+                compressed = HangmanDecompressor.isCompressed(file);
+            } else {
+                MessageDigest digest = newDigest();
+                for (File sourceFile : files) {
+                    size += sourceFile.length();
+                    lastModified = Math.max(lastModified, sourceFile.lastModified());
+                    digest.update(sourceFile.getAbsolutePath().getBytes("UTF-8"));
+                    digest.update(hashContent(sourceFile));
+                    compressed |= HangmanDecompressor.isCompressed(sourceFile);
+                }
+                contentHash = digest.digest();
+            }
+        }
+
+        /**
+         * Writes the key to an index file.
+         *
+         * @param out Stream to the index file
+         * @throws IOException If the key could not be written
+         */
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(path);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeInt(contentHash.length);
+            out.write(contentHash);
+        }
+
+        /**
+         * Reads a key from an index file and checks if it is the same as this key.
+         *
+         * @param in Stream from the index file
+         * @return Whether or not the keys are the same
+         * @throws IOException If the key could not be read
+         */
+        private boolean matches(DataInputStream in) throws IOException {
+            if (!in.readUTF().equals(path) || in.readLong() != size || in.readLong() != lastModified)
+                return false;
+            int hashLength = in.readInt();
+            if (hashLength != contentHash.length)
+                return false;
+            byte[] hash = new byte[hashLength];
+            in.readFully(hash);
+            return Arrays.equals(hash, contentHash);
+        }
+    }
+
+    /**
+     * Reads the corpus stored for a key.
+     *
+     * @param key A words file
+     * @return The corpus, or null if there is no index for the key or it is stale or corrupt
+     */
+    public HangmanCorpus read(Key key) {
+        File indexFile = getIndexFile(key);
+        if (!indexFile.isFile())
+            return null;
+        try {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(new FileInputStream(indexFile)), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            try {
+                Header header = readHeader(in, key);
+                if (header == null)
+                    return null;
+                byte[] block = new byte[BLOCK_SIZE];
+                int[] offsets = readInts(in, block, header.count + 1);
+                char[] chars = readChars(in, block, header.charCount);
+                long checksum = checked.getChecksum().getValue();
+                if (in.readLong() != checksum || !isConsistent(offsets, header.charCount))
+                    return null;
+                return new HangmanCorpus(key.path, HangmanWordStore.wrap(chars, offsets), header.lengths, header.groupStarts);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null; // a corrupt index is treated the same as a missing one
+        }
+    }
+
+    /**
+     * Memory-maps the corpus stored for a key, so its words stay in the index file instead of being read onto the
+     * heap. The whole index is still read once to check its checksum.
+     *
+     * @param key A words file
+     * @return The corpus, or null if there is no index for the key or it is stale or corrupt
+     */
+    public HangmanCorpus map(Key key) {
+        File indexFile = getIndexFile(key);
+        if (!indexFile.isFile())
+            return null;
+        try {
+            FileChannel channel = new FileInputStream(indexFile).getChannel();
+            try {
+                // not buffered, so the channel's position is where the header ends
+                CheckedInputStream checked = new CheckedInputStream(Channels.newInputStream(channel), new CRC32());
+                DataInputStream in = new DataInputStream(checked);
+                Header header = readHeader(in, key);
+                if (header == null)
+                    return null;
+                long offsetsPosition = channel.position();
+                long charsPosition = offsetsPosition + 4L * (header.count + 1);
+                long end = charsPosition + 2L * header.charCount;
+                if (channel.size() != end + 8)
+                    return null;
+                byte[] block = new byte[BLOCK_SIZE];
+                for (long position = offsetsPosition; position < end; position += block.length)
+                    in.readFully(block, 0, (int) Math.min(block.length, end - position));
+                long checksum = checked.getChecksum().getValue();
+                if (in.readLong() != checksum)
+                    return null;
+                HangmanMappedWordStore.Region offsets = new HangmanMappedWordStore.Region(channel, offsetsPosition, charsPosition - offsetsPosition, FileChannel.MapMode.READ_ONLY);
+                HangmanMappedWordStore.Region chars = new HangmanMappedWordStore.Region(channel, charsPosition, end - charsPosition, FileChannel.MapMode.READ_ONLY);
+                if (offsets.getInt(0) != 0 || offsets.getInt(4L * header.count) != header.charCount)
+                    return null;
+                return new HangmanCorpus(key.path, new HangmanMappedWordStore(offsets, chars, header.count), header.lengths, header.groupStarts);
+            } finally {
+                channel.close(); // the mappings stay valid after the channel is closed
+            }
+        } catch (IOException e) {
+            return null; // a corrupt index is treated the same as a missing one
+        }
+    }
+
+    /**
+     * The sizes, lengths and groups at the start of an index.
+     */
+    private static class Header {
+        /**
+         * Number of words.
+         */
+        private int count;
+        /**
+         * Number of characters.
+         */
+        private int charCount;
+        /**
+         * The distinct word lengths, in increasing order.
+         */
+        private int[] lengths;
+        /**
+         * Where each group of words starts, ending with the number of words.
+         */
+        private int[] groupStarts;
+    }
+
+    /**
+     * Reads the start of an index, up to where the offset table starts, and checks that it is for a key.
+     *
+     * @param in  Stream from the index file
+     * @param key A words file
+     * @return The header, or null if the index is not for the key or the header is not consistent
+     * @throws IOException If the index could not be read
+     */
+    private static Header readHeader(DataInputStream in, Key key) throws IOException {
+        if (in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION || !key.matches(in))
+            return null;
+        // a word has at least one character, and there can't be more characters than bytes in the file (unless it is
+        // compressed)
+        Header header = new Header();
+        header.count = in.readInt();
+        header.charCount = in.readInt();
+        int lengthCount = in.readInt();
+        if (header.count < 0 || header.charCount < header.count || (!key.compressed && header.charCount > key.size)
+                || lengthCount < 0 || lengthCount > header.count)
+            return null;
+        byte[] block = new byte[Math.min(BLOCK_SIZE, 4 * (lengthCount * HangmanCorpus.GROUPS + 1))];
+        header.lengths = readInts(in, block, lengthCount);
+        header.groupStarts = readInts(in, block, lengthCount * HangmanCorpus.GROUPS + 1);
+        return isConsistent(header.lengths, header.groupStarts, header.count) ? header : null;
+    }
+
+    /**
+     * Checks that the lengths and groups read from an index fit together, so a damaged index can't cause errors later.
+     *
+     * @param lengths     The distinct word lengths, in increasing order
+     * @param groupStarts Where each group of words starts, ending with the number of words
+     * @param count       Number of words
+     * @return Whether or not the arrays are consistent
+     */
+    private static boolean isConsistent(int[] lengths, int[] groupStarts, int count) {
+        if (groupStarts[0] != 0 || groupStarts[groupStarts.length - 1] != count)
+            return false;
+        for (int i = 0; i + 1 < groupStarts.length; i++)
+            if (groupStarts[i + 1] < groupStarts[i])
+                return false;
+        for (int i = 0; i < lengths.length; i++)
+            if (lengths[i] <= 0 || (i > 0 && lengths[i] <= lengths[i - 1]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Checks that the offsets read from an index fit together, so a damaged index can't cause errors later.
+     *
+     * @param offsets   Where each word starts, ending with the number of characters
+     * @param charCount Number of characters
+     * @return Whether or not the offsets are consistent
+     */
+    private static boolean isConsistent(int[] offsets, int charCount) {
+        int count = offsets.length - 1;
+        if (offsets[0] != 0 || offsets[count] != charCount)
+            return false;
+        for (int i = 0; i < count; i++)
+            if (offsets[i + 1] <= offsets[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Writes the corpus for a key, replacing any index stored for the same words file.
+     *
+     * @param key    A words file
+     * @param corpus The file's corpus
+     * @throws IOException If the index could not be written
+     */
+    public void write(Key key, HangmanCorpus corpus) throws IOException {
+        File indexFile = getIndexFile(key);
+        File tempFile = createTempFile(indexFile);
+        try {
+            writeIndex(tempFile, key, corpus);
+            // the index is only replaced once it is complete, so a crash can't leave half of one behind
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the index of a corpus to a file.
+     *
+     * @param file   The file to write
+     * @param key    A words file
+     * @param corpus The file's corpus
+     * @throws IOException If the index could not be written
+     */
+    private void writeIndex(File file, Key key, HangmanCorpus corpus) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(file), BLOCK_SIZE), new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        try {
+            HangmanReadOnlyWordStore words = corpus.getWords();
+            int[] lengths = corpus.getLengths();
+            int[] groupStarts = corpus.getGroupStarts();
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(FORMAT_VERSION);
+            key.write(out);
+            out.writeInt(words.size());
+            out.writeInt(words.charCount());
+            out.writeInt(lengths.length);
+            byte[] block = new byte[BLOCK_SIZE];
+            writeInts(out, block, lengths, lengths.length);
+            writeInts(out, block, groupStarts, groupStarts.length);
+            writeOffsets(out, block, words);
+            writeChars(out, block, words);
+            out.writeLong(checked.getChecksum().getValue());
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the corpus built by an OffHeapBuilder for a key, replacing any index stored for the same words file, and
+     * memory-maps it. The words go straight from the builder's spill file into the index, without being put on the
+     * heap.
+     *
+     * @param key     A words file
+     * @param builder Builder that has been given every word of the file
+     * @return The memory-mapped corpus
+     * @throws IOException If the index could not be written
+     */
+    public HangmanCorpus writeMapped(Key key, HangmanCorpus.OffHeapBuilder builder) throws IOException {
+        File indexFile = getIndexFile(key);
+        File tempFile;
+        try {
+            tempFile = createTempFile(indexFile);
+        } catch (IOException e) {
+            builder.discard();
+            throw e;
+        }
+        try {
+            builder.finish();
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(headerBytes);
+            int[] lengths = builder.getLengths();
+            int[] groupStarts = builder.getGroupStarts();
+            header.writeInt(MAGIC_NUMBER);
+            header.writeInt(FORMAT_VERSION);
+            key.write(header);
+            header.writeInt(builder.size());
+            header.writeInt(builder.charCount());
+            header.writeInt(lengths.length);
+            byte[] block = new byte[BLOCK_SIZE];
+            writeInts(header, block, lengths, lengths.length);
+            writeInts(header, block, groupStarts, groupStarts.length);
+
+            RandomAccessFile file = new RandomAccessFile(tempFile, "rw");
+            try {
+                FileChannel channel = file.getChannel();
+                channel.truncate(0);
+                ByteBuffer buffer = ByteBuffer.wrap(headerBytes.toByteArray());
+                while (buffer.hasRemaining())
+                    channel.write(buffer, buffer.position());
+                long offsetsPosition = headerBytes.size();
+                long charsPosition = offsetsPosition + 4L * (builder.size() + 1);
+                builder.writeWords(channel, offsetsPosition, charsPosition);
+
+                // the checksum of everything written, read back in blocks
+                long end = charsPosition + 2L * builder.charCount();
+                CRC32 crc = new CRC32();
+                buffer = ByteBuffer.wrap(block);
+                for (long position = 0; position < end; ) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(block.length, end - position));
+                    int read = channel.read(buffer, position);
+                    if (read <= 0)
+                        throw new EOFException("The word index \"" + tempFile.getName() + "\" was cut short");
+                    crc.update(block, 0, read);
+                    position += read;
+                }
+                buffer.clear();
+                buffer.putLong(crc.getValue());
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    channel.write(buffer, end + buffer.position());
+            } finally {
+                file.close();
+            }
+            // the index is only replaced once it is complete, so a crash can't leave half of one behind
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        } finally {
+            builder.discard();
+        }
+        HangmanCorpus corpus = map(key);
+        if (corpus == null)
+            throw new IOException("The word index \"" + indexFile.getName() + "\" could not be read back");
+        return corpus;
+    }
+
+    /**
+     * Creates a temporary file in the cache's directory to write an index to before it replaces the index file. Each
+     * write gets a file of its own, so processes writing the index of the same words file at once don't write into
+     * the same temporary file.
+     *
+     * @param indexFile The index file
+     * @return The temporary file
+     * @throws IOException If the file could not be created
+     */
+    private File createTempFile(File indexFile) throws IOException {
+        return File.createTempFile(indexFile.getName() + ".", ".tmp", directory);
+    }
+
+    /**
+     * Creates a temporary file in the cache's directory for an OffHeapBuilder to spill words to.
+     *
+     * @return The temporary file
+     * @throws IOException If the file could not be created
+     */
+    public File createSpillFile() throws IOException {
+        return File.createTempFile("hangman_words_", ".spill", directory);
+    }
+
+    /**
+     * Writes ints in blocks, as writing each value separately would update the checksum a byte at a time.
+     *
+     * @param out    Stream to the index file
+     * @param block  Buffer to encode blocks in
+     * @param values The values
+     * @param count  Number of values to write
+     * @throws IOException If the values could not be written
+     */
+    private static void writeInts(DataOutputStream out, byte[] block, int[] values, int count) throws IOException {
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            if (used == block.length) {
+                out.write(block, 0, used);
+                used = 0;
+            }
+            block[used++] = (byte) (values[i] >>> 24);
+            block[used++] = (byte) (values[i] >>> 16);
+            block[used++] = (byte) (values[i] >>> 8);
+            block[used++] = (byte) values[i];
+        }
+        out.write(block, 0, used);
+    }
+
+    /**
+     * Writes the offset table of a store in blocks, as writeInts() does, with one extra offset for the end of the last
+     * word.
+     *
+     * @param out   Stream to the index file
+     * @param block Buffer to encode blocks in
+     * @param words The words
+     * @throws IOException If the offsets could not be written
+     */
+    private static void writeOffsets(DataOutputStream out, byte[] block, HangmanReadOnlyWordStore words) throws IOException {
+        int used = 0;
+        for (int i = 0; i <= words.size(); i++) {
+            if (used == block.length) {
+                out.write(block, 0, used);
+                used = 0;
+            }
+            int offset = words.offset(i);
+            block[used++] = (byte) (offset >>> 24);
+            block[used++] = (byte) (offset >>> 16);
+            block[used++] = (byte) (offset >>> 8);
+            block[used++] = (byte) offset;
+        }
+        out.write(block, 0, used);
+    }
+
+    /**
+     * Writes the packed characters of a store in blocks, as writing each value separately would update the checksum a
+     * byte at a time.
+     *
+     * @param out   Stream to the index file
+     * @param block Buffer to encode blocks in
+     * @param words The words
+     * @throws IOException If the characters could not be written
+     */
+    private static void writeChars(DataOutputStream out, byte[] block, HangmanReadOnlyWordStore words) throws IOException {
+        char[] chars = new char[block.length / 2];
+        int count = words.charCount();
+        for (int start = 0; start < count; start += chars.length) {
+            int length = Math.min(chars.length, count - start);
+            words.copyChars(start, start + length, chars, 0);
+            for (int i = 0; i < length; i++) {
+                block[2 * i] = (byte) (chars[i] >>> 8);
+                block[2 * i + 1] = (byte) chars[i];
+            }
+            out.write(block, 0, 2 * length);
+        }
+    }
+
+    /**
+     * Reads ints written by writeInts().
+     *
+     * @param in    Stream from the index file
+     * @param block Buffer to decode blocks from
+     * @param count Number of values to read
+     * @return The values
+     * @throws IOException If the values could not be read
+     */
+    private static int[] readInts(DataInputStream in, byte[] block, int count) throws IOException {
+        int[] values = new int[count];
+        for (int start = 0; start < count; start += block.length / 4) {
+            int length = Math.min(block.length / 4, count - start);
+            in.readFully(block, 0, 4 * length);
+            for (int j = 0; j < length; j++)
+                values[start + j] = ((block[4 * j] & 0xFF) << 24) | ((block[4 * j + 1] & 0xFF) << 16)
+                        | ((block[4 * j + 2] & 0xFF) << 8) | (block[4 * j + 3] & 0xFF);
+        }
+        return values;
+    }
+
+    /**
+     * Reads chars written by writeChars().
+     *
+     * @param in    Stream from the index file
+     * @param block Buffer to decode blocks from
+     * @param count Number of values to read
+     * @return The values
+     * @throws IOException If the values could not be read
+     */
+    private static char[] readChars(DataInputStream in, byte[] block, int count) throws IOException {
+        char[] values = new char[count];
+        for (int start = 0; start < count; start += block.length / 2) {
+            int length = Math.min(block.length / 2, count - start);
+            in.readFully(block, 0, 2 * length);
+            for (int j = 0; j < length; j++)
+                values[start + j] = (char) (((block[2 * j] & 0xFF) << 8) | (block[2 * j + 1] & 0xFF));
+        }
+        return values;
+    }
+
+    /**
+     * Gets the index file for a key. There is one index file per words file.
+     *
+     * @param key A words file
+     * @return The index file
+     */
+    private File getIndexFile(Key key) {
+        return new File(directory, "hangman_words_" + Integer.toHexString(key.path.hashCode()) + ".idx");
+    }
+
+    /**
+     * Creates a SHA-256 digest.
+     *
+     * @return The digest
+     * @throws IOException If SHA-256 is not supported
+     */
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e); // every Java platform is required to support SHA-256
+        }
+    }
+
+    /**
+     * Hashes the contents of a file.
+     *
+     * @param file A file
+     * @return The SHA-256 hash of the file's contents
+     * @throws IOException If the file could not be read
+     */
+    private static byte[] hashContent(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException("Reading \"" + file.getName() + "\" was cancelled");
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return digest.digest();
+    }
+}
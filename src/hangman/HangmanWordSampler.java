@@ -0,0 +1,188 @@
+package hangman;
+
+import java.io.*;
+import java.util.SplittableRandom;
+
+/**
+ * Class that picks a random word from a words file in a single pass without keeping the words in memory, using
+ * reservoir sampling: the n-th word that meets the user's settings replaces the chosen word with probability 1/n, which
+ * leaves every word equally likely to be chosen.
+ * <p>
+ * When duplicates are removed, the words that have already been seen are remembered in a Bloom filter of fixed size
+ * (DUPLICATE_FILTER_BITS bits, 8 MB) instead of a set, so memory use does not grow with the file. This is an
+ * approximation: a Bloom filter can report a word as already seen when it was not, so a small fraction of distinct
+ * words are skipped as if they were duplicates (under 0.01% of words for a file with one million distinct words, and
+ * about 5% for ten million). It never lets a real duplicate through.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordSampler {
+    /**
+     * Number of bits in the Bloom filter used to detect duplicates.
+     */
+    public static final int DUPLICATE_FILTER_BITS = 1 << 26;
+    /**
+     * Hashes a word as it is.
+     */
+    private static final int AS_IS = 0;
+    /**
+     * Hashes a word in lower case.
+     */
+    private static final int LOWER_CASE = 1;
+    /**
+     * Hashes a word in lower case with its first letter capitalized.
+     */
+    private static final int CAPITALIZED = 2;
+    /**
+     * Number of bits set in the Bloom filter for each word.
+     */
+    private static final int DUPLICATE_FILTER_HASHES = 3;
+    /**
+     * Sampler's minimum word length.
+     */
+    private int minimumWordLength;
+    /**
+     * Whether or not to keep proper nouns.
+     */
+    private boolean keepProperNouns;
+    /**
+     * Whether or not to keep duplicate words.
+     */
+    private boolean keepDuplicates;
+    /**
+     * Source of randomness.
+     */
+    private SplittableRandom random;
+    /**
+     * Bloom filter of the words seen so far, used when duplicates are removed.
+     */
+    private long[] seenWords;
+    /**
+     * Number of words that have met the settings so far.
+     */
+    private long wordCount;
+    /**
+     * The chosen word.
+     */
+    private String chosenWord;
+
+    /**
+     * Constructor to instantiate HangmanWordSampler objects
+     *
+     * @param minWordLength The minimum number of letters in a word
+     * @param keepPropNouns Whether or not to keep proper nouns
+     * @param keepDupes     Whether or not to keep duplicate words
+     * @param rand          Source of randomness
+     */
+    public HangmanWordSampler(int minWordLength, boolean keepPropNouns, boolean keepDupes, SplittableRandom rand) {
+        minimumWordLength = minWordLength;
+        keepProperNouns = keepPropNouns;
+        keepDuplicates = keepDupes;
+        random = rand;
+    }
+
+    /**
+     * Picks a random word from a source. The files of a source with several files are read one after another, as if
+     * they were one file.
+     *
+     * @param source A words file, a directory, or several of them separated by File.pathSeparator (see
+     *               HangmanCorpusLoader.listSourceFiles())
+     * @return The chosen word, or null if no word in the source meets the settings
+     * @throws IOException If a file could not be read
+     */
+    public String sample(File source) throws IOException {
+        seenWords = keepDuplicates ? null : new long[DUPLICATE_FILTER_BITS / 64];
+        wordCount = 0;
+        chosenWord = null;
+        for (File file : HangmanCorpusLoader.listSourceFiles(source.getPath())) {
+            InputStream raw = HangmanDecompressor.isCompressed(file) ? HangmanDecompressor.open(file) : new FileInputStream(file);
+            InputStream in = new BufferedInputStream(raw, HangmanCharsetDetector.SAMPLE_SIZE);
+            try {
+                new HangmanWordTokenizer().tokenize(in, HangmanCharsetDetector.detect(in), new HangmanWordTokenizer.WordHandler() {
+                    @Override
+                    public void handleWord(char[] word, int length) {
+                        offerWord(word, length);
+                    }
+                });
+            } finally {
+                in.close();
+            }
+        }
+        seenWords = null;
+        return chosenWord;
+    }
+
+    /**
+     * Offers a word from the file to the reservoir.
+     *
+     * @param word   Buffer holding a filtered word
+     * @param length Number of characters in the word
+     */
+    private void offerWord(char[] word, int length) {
+        if (length < minimumWordLength)
+            return;
+        if (!keepProperNouns && HangmanWordTokenizer.isProperNoun(word))
+            return;
+        if (!keepDuplicates) {
+            // same forms as HangmanCorpus.Builder.containsWord(): all lower case, or first letter capitalized
+            if (mightContain(hash(word, length, LOWER_CASE)) || mightContain(hash(word, length, CAPITALIZED)))
+                return;
+            add(hash(word, length, AS_IS));
+        }
+        wordCount++;
+        if ((long) (random.nextDouble() * wordCount) == 0)
+            chosenWord = new String(word, 0, length);
+    }
+
+    /**
+     * Hashes a word, optionally changing its case first, without creating any Strings.
+     *
+     * @param word   Buffer holding a word
+     * @param length Number of characters in the word
+     * @param form   AS_IS, LOWER_CASE or CAPITALIZED
+     * @return A 64-bit hash of the word
+     */
+    private static long hash(char[] word, int length, int form) {
+        long h = 0xcbf29ce484222325L; // FNV-1a
+        for (int i = 0; i < length; i++) {
+            char c = word[i];
+            if (form == CAPITALIZED && i == 0)
+                c = Character.toUpperCase(c);
+            else if (form != AS_IS)
+                c = Character.toLowerCase(c);
+            h = (h ^ c) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Checks if a hash may have been added to the Bloom filter.
+     *
+     * @param hash A word's hash
+     * @return false if the hash was definitely not added, true if it may have been
+     */
+    private boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < DUPLICATE_FILTER_HASHES; i++) {
+            int bit = ((h1 + i * h2) & 0x7FFFFFFF) % DUPLICATE_FILTER_BITS;
+            if ((seenWords[bit >>> 6] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a hash to the Bloom filter.
+     *
+     * @param hash A word's hash
+     */
+    private void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < DUPLICATE_FILTER_HASHES; i++) {
+            int bit = ((h1 + i * h2) & 0x7FFFFFFF) % DUPLICATE_FILTER_BITS;
+            seenWords[bit >>> 6] |= 1L << bit;
+        }
+    }
+}
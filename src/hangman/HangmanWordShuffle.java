@@ -0,0 +1,86 @@
+package hangman;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Class that deals out the numbers 0 to size - 1 in a random order, each exactly once, so a session of games never
+ * repeats a word until every word has been used.
+ * <p>
+ * The order is a Fisher-Yates shuffle done one step at a time: each call to next() does the step that picks the next
+ * number. Instead of an array of every number, only the positions the shuffle has moved a number into are kept, so
+ * starting a shuffle costs nothing and each number dealt costs O(1) time and at most two map entries, however many
+ * words there are.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordShuffle {
+    /**
+     * Number of numbers being shuffled.
+     */
+    private int size;
+    /**
+     * Number of numbers dealt so far.
+     */
+    private int dealt;
+    /**
+     * The number at each position that no longer holds its own number; any other position i holds i.
+     */
+    private Map<Integer, Integer> moved;
+    /**
+     * Source of randomness.
+     */
+    private SplittableRandom random;
+
+    /**
+     * Constructor to instantiate HangmanWordShuffle objects
+     *
+     * @param count  Number of numbers to shuffle
+     * @param source Source of randomness
+     */
+    public HangmanWordShuffle(int count, SplittableRandom source) {
+        size = count;
+        dealt = 0;
+        moved = new HashMap<Integer, Integer>();
+        random = source;
+    }
+
+    /**
+     * Checks if there are numbers left to deal.
+     *
+     * @return Whether or not there are numbers left
+     */
+    public boolean hasNext() {
+        return dealt < size;
+    }
+
+    /**
+     * Deals the next number.
+     *
+     * @return A number from 0 to size - 1 that has not been dealt yet
+     */
+    public int next() {
+        if (!hasNext())
+            throw new IllegalStateException("All " + size + " numbers have been dealt");
+        // swaps a random position of the undealt ones into the next position, and deals it
+        int position = dealt + random.nextInt(size - dealt);
+        int number = numberAt(position);
+        if (position != dealt)
+            moved.put(position, numberAt(dealt));
+        moved.remove(dealt); // the position is never looked at again
+        dealt++;
+        return number;
+    }
+
+    /**
+     * Gets the number at a position of the shuffle.
+     *
+     * @param position A position
+     * @return The number at the position
+     */
+    private int numberAt(int position) {
+        Integer number = moved.get(position);
+        return number == null ? position : number;
+    }
+}
@@ -0,0 +1,271 @@
+package hangman;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class that stores a list of words compactly: the characters of every word are packed one after another into a
+ * single char array, and an int array holds where each word starts.
+ * <p>
+ * Storing a word in a Map&lt;Integer, String&gt; costs a map entry, a boxed Integer, a String and its array, which is
+ * around 100 bytes on top of the characters themselves. Here a word costs its characters plus a 4 byte offset.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordStore implements HangmanReadOnlyWordStore {
+    /**
+     * Most characters a store can hold, as the largest array the virtual machine allows is a little under
+     * Integer.MAX_VALUE.
+     */
+    public static final int MAXIMUM_CHARACTERS = Integer.MAX_VALUE - 8;
+    /**
+     * The characters of every word, one after another.
+     */
+    private char[] chars;
+    /**
+     * Where each word starts in chars; offsets[size] is where the next word will start.
+     */
+    private int[] offsets;
+    /**
+     * Number of words in the store.
+     */
+    private int size;
+
+    /**
+     * Constructor to instantiate empty HangmanWordStore objects
+     */
+    public HangmanWordStore() {
+        this(1024, 8192);
+    }
+
+    /**
+     * Constructor to instantiate empty HangmanWordStore objects with room for a number of words and characters
+     *
+     * @param wordCapacity Number of words the store has room for before growing
+     * @param charCapacity Number of characters the store has room for before growing
+     */
+    public HangmanWordStore(int wordCapacity, int charCapacity) {
+        chars = new char[Math.max(charCapacity, 16)];
+        offsets = new int[Math.max(wordCapacity, 16) + 1];
+        size = 0;
+    }
+
+    /**
+     * Adds a word to the end of the store.
+     *
+     * @param word   Array holding the word
+     * @param start  Index of the word's first character
+     * @param length Number of characters in the word
+     * @throws IOException If the store would hold more than MAXIMUM_CHARACTERS characters
+     */
+    public void add(char[] word, int start, int length) throws IOException {
+        int end = offsets[size];
+        ensureCapacity(size + 1, (long) end + length);
+        System.arraycopy(word, start, chars, end, length);
+        offsets[++size] = end + length;
+    }
+
+    /**
+     * Adds a word to the end of the store.
+     *
+     * @param word A word
+     * @throws IOException If the store would hold more than MAXIMUM_CHARACTERS characters
+     */
+    public void add(String word) throws IOException {
+        int end = offsets[size];
+        ensureCapacity(size + 1, (long) end + word.length());
+        word.getChars(0, word.length(), chars, end);
+        offsets[++size] = end + word.length();
+    }
+
+    /**
+     * Adds every word in another store to the end of this store.
+     *
+     * @param other Another store
+     * @throws IOException If the store would hold more than MAXIMUM_CHARACTERS characters
+     */
+    public void addAll(HangmanWordStore other) throws IOException {
+        int end = offsets[size];
+        int otherChars = other.offsets[other.size];
+        ensureCapacity(size + other.size, (long) end + otherChars);
+        System.arraycopy(other.chars, 0, chars, end, otherChars);
+        for (int i = 1; i <= other.size; i++)
+            offsets[size + i] = end + other.offsets[i];
+        size += other.size;
+    }
+
+    /**
+     * Makes sure the arrays have room for a number of words and characters, growing them by at least half if not.
+     *
+     * @param wordCount Number of words needed
+     * @param charCount Number of characters needed
+     * @throws IOException If more than MAXIMUM_CHARACTERS characters are needed
+     */
+    private void ensureCapacity(int wordCount, long charCount) throws IOException {
+        checkCharacters(charCount);
+        if (wordCount + 1 > offsets.length)
+            offsets = Arrays.copyOf(offsets, Math.max(wordCount + 1, offsets.length + (offsets.length >> 1)));
+        if (charCount > chars.length)
+            chars = Arrays.copyOf(chars, (int) Math.min(MAXIMUM_CHARACTERS, Math.max(charCount, chars.length + (long) (chars.length >> 1))));
+    }
+
+    /**
+     * Checks that a number of characters fits in one store.
+     *
+     * @param charCount Number of characters
+     * @throws IOException If there are more than MAXIMUM_CHARACTERS characters
+     */
+    static void checkCharacters(long charCount) throws IOException {
+        if (charCount > MAXIMUM_CHARACTERS)
+            throw new IOException("There are too many words to load: their letters add up to more than "
+                    + MAXIMUM_CHARACTERS + " characters. Please choose a smaller file.");
+    }
+
+    /**
+     * Shrinks the arrays to the words actually stored, once no more words will be added.
+     */
+    public void trimToSize() {
+        chars = Arrays.copyOf(chars, offsets[size]);
+        offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    /**
+     * Gets the number of words in the store.
+     *
+     * @return The number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the store has no words.
+     *
+     * @return Whether or not the store is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets a word.
+     *
+     * @param index The word's index, from 0 to size - 1
+     * @return The word
+     */
+    public String get(int index) {
+        checkIndex(index);
+        return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * Gets the number of characters in a word.
+     *
+     * @param index The word's index, from 0 to size - 1
+     * @return The word's length
+     */
+    public int length(int index) {
+        checkIndex(index);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Gets one character of a word, without creating a String for it.
+     *
+     * @param index    The word's index, from 0 to size - 1
+     * @param position Position of the character in the word
+     * @return The character
+     */
+    public char charAt(int index, int position) {
+        checkIndex(index);
+        return chars[offsets[index] + position];
+    }
+
+    /**
+     * Checks that a word index is in range.
+     *
+     * @param index A word index
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Word " + index + " of " + size);
+    }
+
+    /**
+     * Gets the total number of characters in the store.
+     *
+     * @return The total number of characters
+     */
+    public int charCount() {
+        return offsets[size];
+    }
+
+    /**
+     * Gets where a word starts among the packed characters, or where the last word ends.
+     *
+     * @param index A word index, from 0 to size (for the end of the last word)
+     * @return Position of the word's first character
+     */
+    public int offset(int index) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Word " + index + " of " + size);
+        return offsets[index];
+    }
+
+    /**
+     * Copies packed characters into an array, such as every character of a run of words.
+     *
+     * @param start            Position of the first character to copy
+     * @param end              Position after the last character to copy
+     * @param destination      Array to copy the characters into
+     * @param destinationStart Where the first character goes in the array
+     */
+    public void copyChars(int start, int end, char[] destination, int destinationStart) {
+        if (start < 0 || end > offsets[size] || start > end)
+            throw new IndexOutOfBoundsException("Characters " + start + " to " + end + " of " + offsets[size]);
+        System.arraycopy(chars, start, destination, destinationStart, end - start);
+    }
+
+    /**
+     * Gives direct access to the packed characters, for adding them to another store in bulk. Must not be modified.
+     *
+     * @return The array of packed characters; only the first charCount() are used
+     */
+    char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Gives direct access to the word offsets, for adding them to another store in bulk. Must not be modified.
+     *
+     * @return The array of offsets; only the first size() + 1 are used
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Creates a store from packed characters and offsets, such as those read back from a file.
+     *
+     * @param chars   The characters of every word, one after another
+     * @param offsets Where each word starts, with one extra offset for the end of the last word
+     * @return The store, which takes ownership of the arrays
+     */
+    static HangmanWordStore wrap(char[] chars, int[] offsets) {
+        HangmanWordStore store = new HangmanWordStore(0, 0);
+        store.chars = chars;
+        store.offsets = offsets;
+        store.size = offsets.length - 1;
+        return store;
+    }
+
+    /**
+     * Estimates the heap memory used by the store, including unused capacity.
+     *
+     * @return Estimated heap footprint in bytes
+     */
+    public long getHeapFootprint() {
+        // object header and fields, then each array's header and contents
+        return 24 + (16 + 2L * chars.length) + (16 + 4L * offsets.length);
+    }
+}
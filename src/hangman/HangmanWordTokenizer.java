@@ -0,0 +1,377 @@
+package hangman;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Class that splits text into words the same way the game always has: a word is a run of characters that are not
+ * whitespace, with every character that is not a letter or digit removed.
+ * <p>
+ * The tokenizer reads straight into its own character buffer and builds each word in a second buffer that is reused
+ * for every word, so no Strings are created unless the WordHandler creates them.
+ * <p>
+ * Text in UTF-8 or ISO-8859-1 can be fed as bytes. In those charsets a byte below 0x80 is always an ASCII character on
+ * its own, so ASCII bytes are tokenized directly without decoding, and other characters are decoded in place rather
+ * than through a CharsetDecoder, which costs more than the decoding itself for the short runs of accented letters in
+ * most text. Malformed bytes, and characters outside the Basic Multilingual Plane, are never letters, digits or
+ * whitespace, so they only count as part of a word, as the U+FFFD (or surrogates) a decoder gives for them would. The
+ * words are the same as when decoding all of the text first.
+ *
+ * @author Chami Lamelas
+ */
+public class HangmanWordTokenizer {
+
+    /**
+     * Receives the words found by a HangmanWordTokenizer.
+     */
+    public interface WordHandler {
+        /**
+         * Handles a filtered word. The array is reused for the next word, so it must be copied if it is kept.
+         *
+         * @param word   Buffer holding the word's characters, starting at index 0
+         * @param length Number of characters in the word
+         */
+        void handleWord(char[] word, int length);
+    }
+
+    /**
+     * Size of the buffer text is read into.
+     */
+    public static final int BUFFER_SIZE = 8192;
+    /**
+     * Type of each character below 256 (the ASCII and ISO-8859-1 characters): WHITESPACE, LETTER_OR_DIGIT or OTHER.
+     */
+    private static final byte[] LATIN1_TYPES = new byte[256];
+    /**
+     * Type of a character that Character.isWhitespace() considers whitespace.
+     */
+    private static final byte WHITESPACE = 1;
+    /**
+     * Type of a character that Character.isLetterOrDigit() considers a letter or digit.
+     */
+    private static final byte LETTER_OR_DIGIT = 2;
+    /**
+     * Type of any other character.
+     */
+    private static final byte OTHER = 0;
+
+    static {
+        for (char c = 0; c < LATIN1_TYPES.length; c++) {
+            if (Character.isWhitespace(c))
+                LATIN1_TYPES[c] = WHITESPACE;
+            else if (Character.isLetterOrDigit(c))
+                LATIN1_TYPES[c] = LETTER_OR_DIGIT;
+            else
+                LATIN1_TYPES[c] = OTHER;
+        }
+    }
+
+    /**
+     * Buffer text is read into.
+     */
+    private char[] buffer;
+    /**
+     * Buffer the current word is built in.
+     */
+    private char[] word;
+    /**
+     * Number of characters in the current word.
+     */
+    private int wordLength;
+    /**
+     * Whether or not the last character fed to the tokenizer was part of a word.
+     */
+    private boolean inWord;
+
+    /**
+     * Constructor to instantiate HangmanWordTokenizer objects
+     */
+    public HangmanWordTokenizer() {
+        buffer = new char[BUFFER_SIZE];
+        word = new char[64];
+        wordLength = 0;
+        inWord = false;
+    }
+
+    /**
+     * Reads all of the text from a Reader and passes each word to a handler. The Reader is not closed.
+     *
+     * @param reader  The source of text
+     * @param handler The handler that receives the words
+     * @throws IOException If the Reader could not be read
+     */
+    public void tokenize(Reader reader, WordHandler handler) throws IOException {
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1)
+            feed(buffer, 0, read, handler);
+        finish(handler);
+    }
+
+    /**
+     * Reads all of the bytes of a stream as text in a charset and passes each word to a handler. The stream is not
+     * closed.
+     *
+     * @param in      The source of text
+     * @param charset The text's charset
+     * @param handler The handler that receives the words
+     * @throws IOException If the stream could not be read
+     */
+    public void tokenize(InputStream in, Charset charset, WordHandler handler) throws IOException {
+        if (!isAsciiCompatible(charset)) {
+            tokenize(new InputStreamReader(in, newDecoder(charset)), handler);
+            return;
+        }
+        byte[] bytes = new byte[BUFFER_SIZE];
+        int kept = 0;
+        int read;
+        while ((read = in.read(bytes, kept, bytes.length - kept)) != -1) {
+            int length = kept + read;
+            kept = length - feed(bytes, length, charset, false, handler);
+            System.arraycopy(bytes, length - kept, bytes, 0, kept); // the start of a character cut off at the end
+        }
+        feed(bytes, kept, charset, true, handler);
+        finish(handler);
+    }
+
+    /**
+     * Reads all of the bytes of a buffer, from its position to its limit, as text in a charset and passes each word
+     * to a handler.
+     *
+     * @param in      The source of text, such as part of a memory-mapped file
+     * @param charset The text's charset, which must be ASCII compatible
+     * @param handler The handler that receives the words
+     */
+    public void tokenize(ByteBuffer in, Charset charset, WordHandler handler) {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        int kept = 0;
+        while (in.hasRemaining()) {
+            int read = Math.min(in.remaining(), bytes.length - kept);
+            in.get(bytes, kept, read); // copying in blocks is faster than reading a direct buffer a byte at a time
+            int length = kept + read;
+            kept = length - feed(bytes, length, charset, !in.hasRemaining(), handler);
+            System.arraycopy(bytes, length - kept, bytes, 0, kept);
+        }
+        finish(handler);
+    }
+
+    /**
+     * Passes bytes of text in an ASCII compatible charset to the tokenizer. ASCII bytes are tokenized directly and
+     * other characters are decoded in place. A word that runs off the end of the bytes is continued by the next call.
+     *
+     * @param bytes      Array holding the bytes, starting at index 0
+     * @param length     Number of bytes
+     * @param charset    The text's charset, which must be ASCII compatible
+     * @param endOfInput Whether or not there are no more bytes after these
+     * @param handler    The handler that receives the words
+     * @return Number of bytes used; unless endOfInput is true, a character cut off at the end is not used and must be
+     * passed again with the bytes that follow it
+     */
+    private int feed(byte[] bytes, int length, Charset charset, boolean endOfInput, WordHandler handler) {
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < length; i++)
+                feed(bytes[i], handler);
+            return length;
+        }
+        boolean utf8 = charset.equals(StandardCharsets.UTF_8);
+        int i = 0;
+        while (i < length) {
+            byte b = bytes[i];
+            if (b >= 0) {
+                feed(b, handler);
+                i++;
+            } else if ((b & 0xFE) == 0xC2 && utf8 && i + 1 < length && (bytes[i + 1] & 0xC0) == 0x80) {
+                // a character below 256, e.g. an accented letter
+                feed((byte) ((b << 6) | (bytes[i + 1] & 0x3F)), handler);
+                i += 2;
+            } else {
+                int size = utf8 ? utf8Size(b) : 1;
+                if (size > 1 && i + size > length && !endOfInput)
+                    return i; // the rest of the character comes with the next bytes
+                char c = size == 1 || i + size > length ? 0 : decodeUtf8(bytes, i, size);
+                if (c == 0) {
+                    inWord = true; // a malformed byte (or one of a character outside the BMP), replaced when decoding
+                    i++;
+                } else {
+                    if (c < LATIN1_TYPES.length) // e.g. an accented letter
+                        feed((byte) c, handler);
+                    else
+                        feed(c, handler);
+                    i += size;
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Passes one ISO-8859-1 character of text to the tokenizer, which is the same as feeding the character it decodes
+     * to. This also works for ASCII characters, which are the same in ISO-8859-1.
+     *
+     * @param b       The character's byte
+     * @param handler The handler that receives the words
+     */
+    private void feed(byte b, WordHandler handler) {
+        int value = b & 0xFF;
+        byte type = LATIN1_TYPES[value];
+        if (type == WHITESPACE) {
+            if (inWord)
+                endWord(handler);
+        } else {
+            inWord = true;
+            if (type == LETTER_OR_DIGIT) {
+                if (wordLength == word.length)
+                    word = Arrays.copyOf(word, word.length * 2);
+                word[wordLength++] = (char) value;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of bytes of a UTF-8 character that is in the Basic Multilingual Plane, from its first byte.
+     *
+     * @param lead A byte that is not ASCII
+     * @return 2 or 3, or 1 if the byte can't start such a character (a continuation byte, a byte that would start an
+     * overlong form, or the first byte of a character outside the BMP)
+     */
+    private static int utf8Size(byte lead) {
+        int value = lead & 0xFF;
+        if (value >= 0xC2 && value <= 0xDF)
+            return 2;
+        if (value >= 0xE0 && value <= 0xEF)
+            return 3;
+        return 1;
+    }
+
+    /**
+     * Decodes a 2 or 3 byte UTF-8 character.
+     *
+     * @param bytes Array holding the character
+     * @param start Index of the character's first byte
+     * @param size  Number of bytes, from utf8Size()
+     * @return The character, or 0 if the bytes are malformed (e.g. an overlong form)
+     */
+    private static char decodeUtf8(byte[] bytes, int start, int size) {
+        int lead = bytes[start] & 0xFF;
+        int second = bytes[start + 1] & 0xFF;
+        if ((second & 0xC0) != 0x80)
+            return 0;
+        if (size == 2)
+            return (char) (((lead & 0x1F) << 6) | (second & 0x3F));
+        int third = bytes[start + 2] & 0xFF;
+        if ((third & 0xC0) != 0x80 || (lead == 0xE0 && second < 0xA0))
+            return 0;
+        return (char) (((lead & 0x0F) << 12) | ((second & 0x3F) << 6) | (third & 0x3F));
+    }
+
+    /**
+     * Checks if a byte is an ASCII character that Character.isWhitespace() considers whitespace.
+     *
+     * @param b A byte
+     * @return Whether or not the byte is ASCII whitespace
+     */
+    public static boolean isWhitespace(byte b) {
+        return b >= 0 && LATIN1_TYPES[b] == WHITESPACE;
+    }
+
+    /**
+     * Checks if text in a charset can be fed as bytes.
+     *
+     * @param charset A charset
+     * @return Whether or not the charset is UTF-8, ISO-8859-1 or US-ASCII
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.ISO_8859_1)
+                || charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Creates a decoder that replaces malformed input, as InputStreamReader does.
+     *
+     * @param charset A charset
+     * @return The decoder
+     */
+    public static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Passes a section of text to the tokenizer. A word that runs off the end of the section is continued by the next
+     * call, so text can be fed in pieces of any size.
+     *
+     * @param chars   Array holding the text
+     * @param offset  Index of the first character of the text
+     * @param length  Number of characters of text
+     * @param handler The handler that receives the words
+     */
+    public void feed(char[] chars, int offset, int length, WordHandler handler) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++)
+            feed(chars[i], handler);
+    }
+
+    /**
+     * Passes one character of text to the tokenizer.
+     *
+     * @param c       The character
+     * @param handler The handler that receives the words
+     */
+    private void feed(char c, WordHandler handler) {
+        if (Character.isWhitespace(c)) {
+            if (inWord)
+                endWord(handler);
+        } else {
+            inWord = true;
+            if (Character.isLetterOrDigit(c)) {
+                if (wordLength == word.length)
+                    word = Arrays.copyOf(word, word.length * 2);
+                word[wordLength++] = c;
+            }
+        }
+    }
+
+    /**
+     * Ends the text, passing the last word to the handler if the text did not end in whitespace.
+     *
+     * @param handler The handler that receives the words
+     */
+    public void finish(WordHandler handler) {
+        if (inWord)
+            endWord(handler);
+    }
+
+    /**
+     * Passes the current word to the handler (unless nothing was left after filtering) and starts a new one.
+     *
+     * @param handler The handler that receives the word
+     */
+    private void endWord(WordHandler handler) {
+        if (wordLength > 0)
+            handler.handleWord(word, wordLength);
+        wordLength = 0;
+        inWord = false;
+    }
+
+    /**
+     * Checks if a word is a proper noun, which is the case if its first letter is capitalized (i.e. it changes when
+     * made lower case).
+     * <p>
+     * Words produced by the tokenizer never contain surrogate characters (they are not letters or digits on their
+     * own), so the first char is also the first code point.
+     *
+     * @param word A word, starting at index 0
+     * @return Whether or not the word is a proper noun
+     */
+    public static boolean isProperNoun(char[] word) {
+        return Character.toLowerCase(word[0]) != word[0];
+    }
+}